@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import xyz.deltaevo.jvultr.JVultrCache;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the ways of decoding a server list: JsonObject constructors, streaming binders and lazy servers
+ * <p>Run with {@code gradle jmh}, JMH options can be passed with {@code -PjmhArgs="..."}. The region and plan of
+ * the servers are cached first so no benchmark touches the network</p>
+ * @author DeltaEvolution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5 , time = 1)
+@Measurement(iterations = 5 , time = 1)
+@Fork(1)
+public class ServerListBenchmark {
+    private static final String SERVER = "{\"SUBID\":\"%d\",\"os\":\"CentOS 6 x64\",\"ram\":\"4096 MB\"," +
+            "\"disk\":\"Virtual 60 GB\",\"main_ip\":\"123.123.123.123\",\"vcpu_count\":\"2\",\"location\":\"New Jersey\"," +
+            "\"DCID\":\"1\",\"default_password\":\"nreqnusibni\",\"date_created\":\"2013-12-19 14:45:41\"," +
+            "\"pending_charges\":\"46.67\",\"status\":\"active\",\"cost_per_month\":\"10.05\"," +
+            "\"current_bandwidth_gb\":131.512,\"allowed_bandwidth_gb\":\"1000\",\"netmask_v4\":\"255.255.255.248\"," +
+            "\"gateway_v4\":\"123.123.123.1\",\"power_status\":\"running\",\"server_state\":\"ok\"," +
+            "\"VPSPLANID\":\"201\",\"v6_main_ip\":\"2001:db8:1000::100\",\"v6_network_size\":\"64\"," +
+            "\"v6_network\":\"2001:db8:1000::\",\"v6_networks\":[{\"v6_network\":\"2001:db8:1000::\"," +
+            "\"v6_main_ip\":\"2001:db8:1000::100\",\"v6_network_size\":\"64\"}],\"label\":\"my new server\"," +
+            "\"internal_ip\":\"10.99.0.10\",\"kvm_url\":\"https://my.vultr.com/subs/novnc/api.php?data=eawxFVZw2mXnhGUV\"," +
+            "\"auto_backups\":\"yes\",\"tag\":\"mytag\"}";
+
+    @Param({"10" , "1000"})
+    public int servers;
+
+    private String list;
+
+    @Setup
+    public void setup() throws IOException{
+        JVultrCache.setCachedRegions(Collections.singletonMap(1 ,
+                JVultrRegion.BINDER.read(new JsonReader(new StringReader("{\"DCID\":\"1\",\"name\":\"New Jersey\"}")))));
+        JVultrCache.setCachedPlans(Collections.singletonMap(201 ,
+                JVultrPlan.BINDER.read(new JsonReader(new StringReader("{\"VPSPLANID\":\"201\",\"name\":\"768 MB RAM\"}")))));
+        StringBuilder builder = new StringBuilder("{");
+        for(int i = 0 ; i < servers ; i++){
+            if(i > 0)builder.append(',');
+            builder.append('"').append(i).append("\":").append(String.format(SERVER , i));
+        }
+        list = builder.append('}').toString();
+    }
+
+    /**
+     * Decode with the JsonObject constructors
+     */
+    @Benchmark
+    public void constructors(Blackhole hole){
+        JsonObject object = new JsonParser().parse(list).getAsJsonObject();
+        for(Map.Entry<String , JsonElement> entry : object.entrySet()){
+            JVultrServer server = new JVultrServer(entry.getValue().getAsJsonObject());
+            hole.consume(server.getStatus());
+            hole.consume(server.getMainIp());
+        }
+    }
+
+    /**
+     * Decode with the streaming binder
+     */
+    @Benchmark
+    public void binder(Blackhole hole) throws IOException{
+        JsonReader reader = new JsonReader(new StringReader(list));
+        reader.beginObject();
+        while(reader.hasNext()){
+            reader.nextName();
+            JVultrServer server = JVultrServer.BINDER.read(reader);
+            hole.consume(server.getStatus());
+            hole.consume(server.getMainIp());
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Scan the list and only decode the fields read
+     */
+    @Benchmark
+    public void lazy(Blackhole hole) throws IOException{
+        for(LazyJVultrServer server : LazyJVultrServer.readAll(new StringReader(list)).values()){
+            hole.consume(server.getStatus());
+            hole.consume(server.getMainIp());
+        }
+    }
+}
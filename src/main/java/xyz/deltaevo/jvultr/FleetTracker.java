@@ -0,0 +1,351 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import xyz.deltaevo.jvultr.api.JVultrServer;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.utils.IntMap;
+import xyz.deltaevo.jvultr.utils.Reflection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Track a fleet across server list polls
+ * <p>Each poll is compared with the previous one by server id, servers that appeared, disappeared or had a tracked
+ * field change are reported as changes. The first poll reports every server as added. Listeners are only notified
+ * when a poll changed something</p>
+ * <p>Listeners are called in poll order and without holding the tracker lock, so they may use the tracker. When polls
+ * overlap, the thread already notifying the listeners also delivers the changes of the other polls</p>
+ * <p>A listener throwing does not stop the other listeners, its failure is given to the
+ * {@link #setErrorHandler(Consumer) error handler}, which ignores it by default</p>
+ * @author DeltaEvolution
+ */
+public class FleetTracker {
+
+    /**
+     * Server fields compared between polls
+     * @author DeltaEvolution
+     */
+    public enum Field{
+        STATUS,
+        POWER_STATUS,
+        SERVER_STATE,
+        LABEL,
+        TAG,
+        MAIN_IP,
+        INTERNAL_IP,
+        V6_NETWORKS,
+        PENDING_CHARGES,
+        COST_PER_MONTH,
+        PLAN,
+        REGION;
+    }
+
+    /**
+     * A change of a server between two polls
+     * @author DeltaEvolution
+     */
+    public static final class Change{
+
+        /**
+         * Represent a change kind
+         * @author DeltaEvolution
+         */
+        public enum Kind{
+            ADDED,
+            REMOVED,
+            CHANGED;
+        }
+
+        private final Kind kind;
+        private final JVultrServer previous;
+        private final JVultrServer current;
+        private final Set<Field> fields;
+
+        private Change(Kind kind , JVultrServer previous , JVultrServer current , Set<Field> fields) {
+            this.kind = kind;
+            this.previous = previous;
+            this.current = current;
+            this.fields = Collections.unmodifiableSet(fields);
+        }
+
+        /**
+         * Get the change kind
+         * @return change kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Get the server id
+         * @return server id
+         */
+        public int getId() {
+            return current != null ? current.getId() : previous.getId();
+        }
+
+        /**
+         * Get the server of the previous poll
+         * @return the previous server or null if the server was added
+         */
+        public JVultrServer getPrevious() {
+            return previous;
+        }
+
+        /**
+         * Get the server of the last poll
+         * @return the current server or null if the server was removed
+         */
+        public JVultrServer getCurrent() {
+            return current;
+        }
+
+        /**
+         * Get the changed fields
+         * @return the changed fields, empty unless the server changed
+         */
+        public Set<Field> getFields() {
+            return fields;
+        }
+
+        @Override
+        public String toString() {
+            return Reflection.toString(this);
+        }
+    }
+
+    /**
+     * A listener of the fleet changes
+     * @author DeltaEvolution
+     */
+    public interface Listener{
+        /**
+         * Called after a poll changed the fleet
+         * @param changes the changes, sorted by server id
+         */
+        void fleetChanged(List<Change> changes);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Handler of the listeners failures
+     */
+    private volatile Consumer<Throwable> errorHandler = error -> {};
+
+    /**
+     * Servers of the last poll
+     */
+    private volatile IntMap<JVultrServer> servers = IntMap.empty();
+
+    /**
+     * Changes waiting to be delivered to the listeners, guarded by this tracker
+     */
+    private final Queue<List<Change>> pending = new ArrayDeque<>();
+
+    /**
+     * True while a thread delivers the pending changes, guarded by this tracker
+     */
+    private boolean notifying;
+
+    /**
+     * Poll the servers and track the changes
+     * @param client the client
+     * @return the changes, sorted by server id
+     * @throws JVultrException if an error Occurred
+     */
+    public List<Change> poll(JVultrClient client) throws JVultrException{
+        return update(client.getSevers());
+    }
+
+    /**
+     * Poll the servers and track the changes
+     * @param client the client
+     * @return the changes, sorted by server id
+     */
+    public CompletableFuture<List<Change>> poll(JVultrAsyncClient client){
+        return client.getSevers().thenApply(this::update);
+    }
+
+    /**
+     * Compare a server list with the previous one and notify the listeners of the changes
+     * @param polled the servers by id
+     * @return the changes, sorted by server id
+     */
+    public List<Change> update(Map<Integer , ? extends JVultrServer> polled){
+        List<Change> result;
+        synchronized (this){
+            IntMap<JVultrServer> previous = servers;
+            IntMap<JVultrServer> current = new IntMap<>();
+            List<Change> changes = new ArrayList<>();
+            for(JVultrServer server : polled.values()){
+                if(server == null)continue;
+                current.put(server.getId() , server);
+                JVultrServer before = previous.get(server.getId());
+                if(before == null){
+                    changes.add(new Change(Change.Kind.ADDED , null , server , EnumSet.noneOf(Field.class)));
+                    continue;
+                }
+                EnumSet<Field> fields = diff(before , server);
+                if(!fields.isEmpty())changes.add(new Change(Change.Kind.CHANGED , before , server , fields));
+            }
+            for(JVultrServer server : previous.values()){
+                if(!current.containsKey(server.getId()))
+                    changes.add(new Change(Change.Kind.REMOVED , server , null , EnumSet.noneOf(Field.class)));
+            }
+            servers = IntMap.copyOf(current);
+            if(changes.isEmpty())return Collections.emptyList();
+            changes.sort(Comparator.comparingInt(Change::getId));
+            result = Collections.unmodifiableList(changes);
+            pending.add(result);
+            if(notifying)return result;
+            notifying = true;
+        }
+        notifyListeners();
+        return result;
+    }
+
+    /**
+     * Deliver the pending changes until none is left, outside of the tracker lock
+     */
+    private void notifyListeners(){
+        boolean drained = false;
+        try {
+            while(true){
+                List<Change> changes;
+                synchronized (this){
+                    changes = pending.poll();
+                    if(changes == null){
+                        notifying = false;
+                        drained = true;
+                        return;
+                    }
+                }
+                for(Listener listener : listeners){
+                    try {
+                        listener.fleetChanged(changes);
+                    } catch (RuntimeException e) {
+                        report(e);
+                    }
+                }
+            }
+        } finally {
+            if(!drained){
+                synchronized (this){
+                    notifying = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the servers of the last poll
+     * @return servers by id
+     */
+    public IntMap<JVultrServer> getServers() {
+        return servers;
+    }
+
+    /**
+     * Forget the tracked servers, the next poll reports every server as added
+     */
+    public synchronized void reset(){
+        servers = IntMap.empty();
+    }
+
+    /**
+     * Add a listener notified after each poll that changed the fleet
+     * @param listener the listener
+     */
+    public void addListener(Listener listener){
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener
+     * @param listener the listener
+     */
+    public void removeListener(Listener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the handler of the listeners failures
+     * @return the error handler
+     */
+    public Consumer<Throwable> getErrorHandler() {
+        return errorHandler;
+    }
+
+    /**
+     * Set the handler of the listeners failures
+     * <p>It is called on the thread notifying the listeners, after the failed listener and before the next one</p>
+     * @param errorHandler the error handler, null to ignore the failures
+     */
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler != null ? errorHandler : error -> {};
+    }
+
+    /**
+     * Give a listener failure to the error handler
+     * @param error the failure
+     */
+    private void report(Throwable error){
+        try {
+            errorHandler.accept(error);
+        } catch (RuntimeException ignored) {
+            // a failing handler must not stop the notification of the other listeners
+        }
+    }
+
+    /**
+     * Compare the tracked fields of two polls of a server
+     * @param before the previous server
+     * @param after the current server
+     * @return the changed fields
+     */
+    public static EnumSet<Field> diff(JVultrServer before , JVultrServer after){
+        EnumSet<Field> fields = EnumSet.noneOf(Field.class);
+        if(before.getStatus() != after.getStatus())fields.add(Field.STATUS);
+        if(before.getPowerStatus() != after.getPowerStatus())fields.add(Field.POWER_STATUS);
+        if(before.getServerState() != after.getServerState())fields.add(Field.SERVER_STATE);
+        if(!Objects.equals(before.getLabel() , after.getLabel()))fields.add(Field.LABEL);
+        if(!Objects.equals(before.getTag() , after.getTag()))fields.add(Field.TAG);
+        if(!before.mainIpEquals(after))fields.add(Field.MAIN_IP);
+        if(!before.internalIpEquals(after))fields.add(Field.INTERNAL_IP);
+        if(!before.v6Equals(after))fields.add(Field.V6_NETWORKS);
+        if(Float.compare(before.getPendingCharges() , after.getPendingCharges()) != 0)fields.add(Field.PENDING_CHARGES);
+        if(Float.compare(before.getCostPerMonth() , after.getCostPerMonth()) != 0)fields.add(Field.COST_PER_MONTH);
+        if(before.getPlanId() != after.getPlanId())fields.add(Field.PLAN);
+        if(before.getRegionId() != after.getRegionId())fields.add(Field.REGION);
+        return fields;
+    }
+}
@@ -17,23 +17,27 @@
  */
 package xyz.deltaevo.jvultr;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import xyz.deltaevo.jvultr.api.*;
 import xyz.deltaevo.jvultr.exception.*;
+import xyz.deltaevo.jvultr.http.JVultrRequest;
+import xyz.deltaevo.jvultr.http.JVultrTransport;
+import xyz.deltaevo.jvultr.http.RateLimitedTransport;
+import xyz.deltaevo.jvultr.http.RateLimiter;
+import xyz.deltaevo.jvultr.http.ResponseHandler;
+import xyz.deltaevo.jvultr.http.RetryPolicy;
+import xyz.deltaevo.jvultr.http.SingleFlight;
+import xyz.deltaevo.jvultr.http.URLConnectionTransport;
+import xyz.deltaevo.jvultr.utils.IntMap;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 
 /**
  * Represent the Vultr API
@@ -47,79 +51,57 @@ public class JVultrAPI {
 
     /**
      * Vultr api date format
+     * @deprecated not thread-safe, use {@link JVultrDates}
      */
-    public static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("YYYY-MM-dd HH:mm:ss");
+    @Deprecated
+    public static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * Transport used by the static api calls and by clients created without an explicit transport
+     */
+    private static volatile JVultrTransport transport = new URLConnectionTransport();
 
-    public static Map<Integer,JVultrRegion> getRegions() throws JVultrException {
-        JsonElement response = new JsonParser().parse(get(JVultrAPI.ENDPOINT + "v1/regions/list", null));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrRegion> regions = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    regions.put(Integer.parseInt(element.getKey()) , new JVultrRegion((JsonObject)element.getValue()));
-            }
-            return regions;
-        }
-        return new HashMap<>();
-    }
-
-    public static Map<Integer , JVultrOS> getOSs() throws JVultrException{
-        JsonElement response = new JsonParser().parse(get(JVultrAPI.ENDPOINT + "v1/os/list", null));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrOS> os = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    os.put(Integer.parseInt(element.getKey()) , new JVultrOS((JsonObject)element.getValue()));
-            }
-            return os;
-        }
-        return new HashMap<>();
-    }
-
-    public static Map<Integer , JVultrApplication> getApplications() throws JVultrException{
-        JsonElement response = new JsonParser().parse(get(JVultrAPI.ENDPOINT + "v1/app/list", null));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrApplication> applications = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    applications.put(Integer.parseInt(element.getKey()) , new JVultrApplication((JsonObject)element.getValue()));
-            }
-            return applications;
-        }
-        return new HashMap<>();
+    /**
+     * Limiter pacing the static api calls
+     */
+    private static volatile RateLimiter limiter = new RateLimiter();
+
+    /**
+     * Retry policy of the static api calls
+     */
+    private static volatile RetryPolicy retryPolicy = new RetryPolicy();
+
+    /**
+     * Get requests in flight, keyed by api key, url and response handler
+     */
+    private static final SingleFlight<List<Object>> inFlight = new SingleFlight<>();
+
+    public static IntMap<JVultrRegion> getRegions() throws JVultrException {
+        return get(JVultrAPI.ENDPOINT + "v1/regions/list", null , JVultrParser.intMap(JVultrRegion.BINDER) , IntMap::new);
+    }
+
+    public static IntMap<JVultrOS> getOSs() throws JVultrException{
+        return get(JVultrAPI.ENDPOINT + "v1/os/list", null , JVultrParser.intMap(JVultrOS.BINDER) , IntMap::new);
+    }
+
+    public static IntMap<JVultrApplication> getApplications() throws JVultrException{
+        return get(JVultrAPI.ENDPOINT + "v1/app/list", null , JVultrParser.intMap(JVultrApplication.BINDER) , IntMap::new);
     }
 
     /**
      * Retrieve a list of all active plan
      * <p><a href="https://www.vultr.com/api/#plans_plan_list" target="_blank">Vultr API Doc</a></p>
-     * @return HashMap with the Vultr Plan id and the JVultrPlan
+     * @return IntMap with the Vultr Plan id and the JVultrPlan
      * @throws JVultrException if an error Occurred
      * @see JVultrPlan
      */
-    public static Map<Integer , JVultrPlan> getPlans() throws JVultrException{
-        JsonElement response = new JsonParser().parse(get(JVultrAPI.ENDPOINT + "v1/plans/list", null));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrPlan> os = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    os.put(Integer.parseInt(element.getKey()) , new JVultrPlan((JsonObject)element.getValue()));
-            }
-            return os;
-        }
-        return new HashMap<>();
+    public static IntMap<JVultrPlan> getPlans() throws JVultrException{
+        return get(JVultrAPI.ENDPOINT + "v1/plans/list", null , JVultrParser.intMap(JVultrPlan.BINDER) , IntMap::new);
     }
 
     public static List<JVultrPlan> getPlansFor(int regionId) throws JVultrException{
-        JsonElement response = new JsonParser().parse(get(JVultrAPI.ENDPOINT + "v1/regions/availability?DCID=" +regionId , null));
-        if(response.isJsonArray()){
-            List<JVultrPlan> availablePlans = new ArrayList<>();
-            for(JsonElement element : response.getAsJsonArray()){
-                availablePlans.add(JVultrCache.getCachedPlan(element.getAsInt()));
-            }
-            return availablePlans;
-        }
-        return new ArrayList<>();
+        return JVultrParser.plans(get(JVultrAPI.ENDPOINT + "v1/regions/availability?DCID=" +regionId , null ,
+                JVultrParser.ids() , int[]::clone));
     }
 
 
@@ -128,98 +110,111 @@ public class JVultrAPI {
     }
 
     /**
-     * Send a http(or https) get request
+     * Send a http(or https) get request with the default transport and read the response while it is received
+     * <p>The request is paced by the static api limiter and retried with the static api retry policy.
+     * Identical requests in flight are coalesced</p>
      * @param url Url to send the request
+     * @param handler reads the response
+     * @param copy copy the value read handed to coalesced callers
+     * @return the value read
+     * @throws JVultrException if an Exception Occurred
+     */
+    static <T> T get(String url , String apiKey , ResponseHandler<T> handler , UnaryOperator<T> copy) throws JVultrException{
+        return inFlight.execute(key(url , apiKey , handler) ,
+                () -> retryPolicy.execute(JVultrRequest.get(url , apiKey) , new RateLimitedTransport(transport , limiter) , handler) , copy);
+    }
+
+    /**
+     * Send a http(or https) get request and read the response while it is received
+     * <p>Identical requests in flight, by api key, url and handler, share one network call and one value read</p>
+     * @param transport transport used to send the request
+     * @param url Url to send the request
+     * @param handler reads the response
+     * @param copy copy the value read handed to coalesced callers
+     * @return the value read
+     * @throws JVultrException if an Exception Occurred
+     */
+    static <T> T get(JVultrTransport transport , String url , String apiKey , ResponseHandler<T> handler ,
+                     UnaryOperator<T> copy) throws JVultrException{
+        return inFlight.execute(key(url , apiKey , handler) , () -> transport.execute(JVultrRequest.get(url , apiKey) , handler) , copy);
+    }
+
+    /**
+     * Send an asynchronous http(or https) get request and read the response
+     * <p>Identical requests in flight, by api key, url and handler, share one network call and one value read</p>
+     * @param transport transport used to send the request
+     * @param url Url to send the request
+     * @param handler reads the response
+     * @param copy copy the value read handed to coalesced callers
+     * @return the value read
+     */
+    static <T> CompletableFuture<T> getAsync(JVultrTransport transport , String url , String apiKey ,
+                                              ResponseHandler<T> handler , UnaryOperator<T> copy){
+        return inFlight.executeAsync(key(url , apiKey , handler) ,
+                () -> transport.executeAsync(JVultrRequest.get(url , apiKey) , handler) , copy);
+    }
+
+    /**
+     * Get the coalescing key of a request
+     * <p>The handler is part of the key so requests of the same url read into different value types never share a
+     * value. Handlers that don't define equality are only equal to themselves, so their requests are not coalesced</p>
+     */
+    private static List<Object> key(String url , String apiKey , ResponseHandler<?> handler){
+        return Arrays.asList(apiKey , url , handler);
+    }
+
+    /**
+     * Send a http(or https) post request
+     * @param transport transport used to send the request
+     * @param url Url to send the request
+     * @param parameters parameters for this request
+     * @param idempotent if sending this request twice has the same effect as sending it once
      * @return the response
      * @throws JVultrException if an Exception Occurred
      */
-    static String get(String url , String apiKey) throws JVultrException{
-        try{
-            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-            conn.setRequestMethod("GET");
-            if(apiKey != null)
-                conn.setRequestProperty("API-Key" , apiKey);
-            conn.setDoOutput(true);
-            if(conn.getResponseCode() != 200)
-                switch (conn.getResponseCode()){
-                    case 400 : throw new InvalidAPILocation(url);
-                    case 403 : throw new InvalidAPIKey();
-                    case 405 : throw new InvalidHTTPMethod("GET" , url);
-                    case 412 : throw new RequestFailed();
-                    case 500 : throw new InternalServerError();
-                    case 503 : throw new RateLimitExceeded();
-                }
-            BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while((line = br.readLine()) != null)response.append(line);
-            br.close();
-            return response.toString();
-        }catch (IOException ex){
-            ex.printStackTrace();
-            throw new RequestFailed(ex);
-        }
+    static String post(JVultrTransport transport , String url , String apiKey , String parameters , boolean idempotent) throws JVultrException{
+        return transport.execute(JVultrRequest.post(url , apiKey , parameters , idempotent));
     }
 
     /**
      * Send a http(or https) post request
+     * @param transport transport used to send the request
      * @param url Url to send the request
      * @param parameters parameters for this request
      * @return the response
      * @throws JVultrException if an Exception Occurred
      */
-    static String post(String url , String apiKey , String parameters) throws JVultrException{
-        try{
-            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-            conn.setRequestMethod("POST");
-            if(apiKey != null)
-                conn.setRequestProperty("API-Key" , apiKey);
-            conn.setDoOutput(true);
-            if(parameters != null){
-                conn.setRequestProperty( "charset", "utf-8");
-                conn.setRequestProperty("Content-Length",Integer.toString(parameters.length()));
-                conn.getOutputStream().write(parameters.getBytes("UTF-8"));
-            }
-            if(conn.getResponseCode() != 200)
-                switch (conn.getResponseCode()){
-                    case 400 : throw new InvalidAPILocation(url);
-                    case 403 : throw new InvalidAPIKey();
-                    case 405 : throw new InvalidHTTPMethod("POST" , url);
-                    case 412 : throw new RequestFailed();
-                    case 500 : throw new InternalServerError();
-                    case 503 : throw new RateLimitExceeded();
-                }
-            BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while((line = br.readLine()) != null)response.append(line);
-            br.close();
-            return response.toString();
-        }catch (IOException ex){
-            ex.printStackTrace();
-            throw new RequestFailed(ex);
-        }
+    static String post(JVultrTransport transport , String url , String apiKey , Map<String , Object> parameters) throws JVultrException{
+        return post(transport , url ,apiKey, encode(parameters) , false);
     }
+
     /**
      * Send a http(or https) post request
+     * @param transport transport used to send the request
      * @param url Url to send the request
      * @param parameters parameters for this request
+     * @param idempotent if sending this request twice has the same effect as sending it once
      * @return the response
      * @throws JVultrException if an Exception Occurred
      */
-    static String post(String url , String apiKey , Map<String , Object> parameters) throws JVultrException{
-        try{
-            StringBuilder sb = new StringBuilder();
-            for (Map.Entry<String,Object> param : parameters.entrySet()) {
-                if (sb.length() != 0) sb.append('&');
-                sb.append(URLEncoder.encode(param.getKey(), "UTF-8"));
-                sb.append('=');
-                sb.append(URLEncoder.encode(String.valueOf(param.getValue()), "UTF-8"));
-            }
-            return post(url ,apiKey, sb.toString());
-        }catch (IOException e){
-            throw new RequestFailed(e);
+    static String post(JVultrTransport transport , String url , String apiKey , Map<String , Object> parameters , boolean idempotent) throws JVultrException{
+        return post(transport , url ,apiKey, encode(parameters) , idempotent);
+    }
+
+    /**
+     * Url encode request parameters
+     * @param parameters parameters for a request
+     * @return the url encoded parameters
+     */
+    static String encode(Map<String , Object> parameters){
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String,Object> param : parameters.entrySet()) {
+            if (sb.length() != 0) sb.append('&');
+            sb.append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8));
+            sb.append('=');
+            sb.append(URLEncoder.encode(String.valueOf(param.getValue()), StandardCharsets.UTF_8));
         }
+        return sb.toString();
     }
 
     /**
@@ -230,4 +225,71 @@ public class JVultrAPI {
     public static JVultrClient newClient(String apiKey){
         return new JVultrClient(apiKey);
     }
+
+    /**
+     * Create a new JVultrClient
+     * @param apiKey the JVultr apiKey available in vultr Members Area(https://my.vultr.com/settings/#API)
+     * @param transport transport used by this client
+     * @return the new JVultrClient
+     */
+    public static JVultrClient newClient(String apiKey , JVultrTransport transport){
+        return new JVultrClient(apiKey , transport);
+    }
+
+    /**
+     * Create a new JVultrAsyncClient
+     * @param apiKey the JVultr apiKey available in vultr Members Area(https://my.vultr.com/settings/#API)
+     * @return the new JVultrAsyncClient
+     */
+    public static JVultrAsyncClient newAsyncClient(String apiKey){
+        return new JVultrAsyncClient(apiKey);
+    }
+
+    /**
+     * Get the retry policy of the static api calls
+     * @return the retry policy
+     */
+    public static RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Set the retry policy of the static api calls
+     * @param retryPolicy the new retry policy, RetryPolicy.NONE to disable retries
+     */
+    public static void setRetryPolicy(RetryPolicy retryPolicy) {
+        JVultrAPI.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Get the limiter pacing the static api calls
+     * @return the rate limiter
+     */
+    public static RateLimiter getRateLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Set the limiter pacing the static api calls
+     * @param limiter the new rate limiter
+     */
+    public static void setRateLimiter(RateLimiter limiter) {
+        JVultrAPI.limiter = limiter;
+    }
+
+    /**
+     * Get the default transport
+     * @return the default transport
+     */
+    public static JVultrTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Set the default transport, used by the static api calls and by clients created after this call
+     * @param transport the new default transport
+     */
+    public static void setTransport(JVultrTransport transport) {
+        JVultrAPI.transport = transport;
+    }
 }
@@ -0,0 +1,527 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import xyz.deltaevo.jvultr.annotation.Optional;
+import xyz.deltaevo.jvultr.api.*;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.http.ExecutorTransport;
+import xyz.deltaevo.jvultr.http.HttpClientTransport;
+import xyz.deltaevo.jvultr.http.JVultrRequest;
+import xyz.deltaevo.jvultr.http.JVultrTransport;
+import xyz.deltaevo.jvultr.http.RateLimitedTransport;
+import xyz.deltaevo.jvultr.http.ResponseHandler;
+import xyz.deltaevo.jvultr.http.RetryingTransport;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+/**
+ * An asynchronous version of JVultrClient
+ * <p>Every operation returns immediately with a CompletableFuture completed with the result,
+ * or exceptionally with a JVultrException if an error Occurred</p>
+ * @author DeltaEvolution
+ * @see JVultrClient
+ */
+public class JVultrAsyncClient {
+
+    /**
+     * The Vultr API Key
+     */
+    private String apiKey;
+
+    /**
+     * Transport used to send requests
+     */
+    private JVultrTransport transport;
+
+    /**
+     * Create a new JVultrAsyncClient using a non-blocking HttpClientTransport
+     * <p>Requests are paced by a RateLimiter shared by every call of this client,
+     * and transient failures are retried with the default RetryPolicy</p>
+     * @param apiKey the JVultr apiKey available in vultr Members Area
+     * <p><a href="https://my.vultr.com/settings/#API" target="_blank">Vultr API Doc</a></p>
+     */
+    public JVultrAsyncClient(String apiKey){
+        this(apiKey , new RetryingTransport(new RateLimitedTransport(new HttpClientTransport())));
+    }
+
+    /**
+     * Create a new JVultrAsyncClient running every request on an executor
+     * <p>Use {@link ExecutorTransport#newVirtualThreadExecutor()} to fan out bulk operations on virtual threads</p>
+     * @param apiKey the JVultr apiKey available in vultr Members Area
+     * <p><a href="https://my.vultr.com/settings/#API" target="_blank">Vultr API Doc</a></p>
+     * @param executor executor running the requests
+     */
+    public JVultrAsyncClient(String apiKey , Executor executor){
+        this(apiKey , new RetryingTransport(new RateLimitedTransport(new ExecutorTransport(new HttpClientTransport() , executor))));
+    }
+
+    /**
+     * Create a new JVultrAsyncClient
+     * @param apiKey the JVultr apiKey available in vultr Members Area
+     * <p><a href="https://my.vultr.com/settings/#API" target="_blank">Vultr API Doc</a></p>
+     * @param transport transport used to send requests
+     */
+    public JVultrAsyncClient(String apiKey , JVultrTransport transport){
+        this.apiKey = apiKey;
+        this.transport = transport;
+    }
+
+    /**
+     * Get the transport used by this client
+     * @return the transport
+     */
+    public JVultrTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Retrieve information about the current account
+     * @return the account info
+     * @see JVultrClient#getAccountInfo()
+     */
+    public CompletableFuture<JVultrAccountInfo> getAccountInfo(){
+        return get("v1/account/info" , JVultrParser.object(JVultrAccountInfo.BINDER) , UnaryOperator.identity());
+    }
+
+    /**
+     * List all snapshots on the current account
+     * @return an HashMap with the Vultr Snapshot key and the JVultrSnapshot
+     * @see JVultrClient#getSnapshots()
+     */
+    public CompletableFuture<HashMap<String , JVultrSnapshot>> getSnapshots(){
+        return get("v1/snapshot/list" , JVultrParser.stringKeyed(JVultrSnapshot.BINDER) , HashMap::new);
+    }
+
+    /**
+     * List all ISOs currently available on this account
+     * @return HashMap with the Vultr ISO key and the JVultrISO
+     * @see JVultrClient#getISOs()
+     */
+    public CompletableFuture<HashMap<Integer , JVultrISO>> getISOs(){
+        return get("v1/iso/list" , JVultrParser.intKeyed(JVultrISO.BINDER) , HashMap::new);
+    }
+
+    /**
+     * List all startup scripts on this account
+     * @return HashMap with the Vultr Script key and the JVultrScript
+     * @see JVultrClient#getScripts()
+     */
+    public CompletableFuture<HashMap<Integer , JVultrScript>> getScripts(){
+        return get("v1/startupscript/list" , JVultrParser.intKeyed(JVultrScript.BINDER) , HashMap::new);
+    }
+
+    /**
+     * Delete script represented by this id
+     * @param id Vultr script id
+     * @return a future completed when the script is deleted
+     * @see JVultrClient#destroyScript(int)
+     */
+    public CompletableFuture<Void> destroyScript(int id){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("SCRIPTID" , id);
+        return post("v1/startupscript/destroy" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Create new startup script
+     * @param name Script name
+     * @param script Script content
+     * @param type Script type
+     * @return JVultrScript representing this new Script
+     * @see JVultrClient#createScript(String, String, JVultrScript.Type)
+     */
+    public CompletableFuture<JVultrScript> createScript(String name ,String script , JVultrScript.Type type){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("name" , name);
+        params.put("script" , script);
+        params.put("type" ,type.name().toLowerCase());
+        return post("v1/startupscript/create" , params).thenCompose(response -> intField(response , "SCRIPTID"))
+                .thenApply(id -> id != -1 ? new JVultrScript(id , new Date() , new Date() , name , type , script) : null);
+    }
+
+    /**
+     * Update existing startup script
+     * @param id id of the Vultr startup script
+     * @param name if not null new name for the script
+     * @param script if not null new content of the script
+     * @return a future completed when the script is updated
+     * @see JVultrClient#updateScript(int, String, String)
+     */
+    public CompletableFuture<Void> updateScript(int id , @Optional String name , @Optional String script){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("SCRIPTID" , id);
+        if(name != null)params.put("name" , name);
+        if(script != null)params.put("script" , script);
+        return post("v1/startupscript/update" , params , true).thenApply(response -> null);
+    }
+
+    /**
+     * Update an existing startup script
+     * @param script script to be updated
+     * @return a future completed when the script is updated
+     * @see JVultrClient#updateScript(JVultrScript)
+     */
+    public CompletableFuture<Void> updateScript(JVultrScript script){
+        return updateScript(script.getId() , script.getName() , script.getScript())
+                .thenRun(() -> script.setModified(new Date()));
+    }
+
+    /**
+     * Retrieves a list of operating systems to which this server can be changed.
+     * @param server the server
+     * @return HashMap with the Vultr OS id and the JVultrOS
+     * @see JVultrClient#getOsChangeListFor(JVultrServer)
+     */
+    public CompletableFuture<HashMap<String , JVultrOS>> getOsChangeListFor(JVultrServer server){
+        return get("v1/server/os_change_list?SUBID=" + server.getId() , JVultrParser.stringKeyed(JVultrOS.BINDER) , HashMap::new);
+    }
+
+    /**
+     * Retrieve a list of all active plan
+     * @return HashMap with the Vultr Plan id and the JVultrPlan
+     * @see JVultrClient#getPlans()
+     */
+    public CompletableFuture<HashMap<Integer , JVultrPlan>> getPlans(){
+        return get("v1/plans/list" , JVultrParser.intKeyed(JVultrPlan.BINDER) , HashMap::new);
+    }
+
+    /**
+     * List all active or pending virtual machines on the current account.
+     * @return HashMap with the Vultr Server id and the JVultrServer
+     * @see JVultrClient#getSevers()
+     */
+    public CompletableFuture<HashMap<Integer , JVultrServer>> getSevers(){
+        return get("v1/server/list" , JVultrParser.intKeyed(JVultrServer.BINDER) , HashMap::new);
+    }
+
+    /**
+     * List all active or pending virtual machines on the current account, decoding their fields on access.
+     * @return HashMap with the Vultr Server id and the LazyJVultrServer
+     * @see JVultrClient#getLazyServers()
+     */
+    public CompletableFuture<HashMap<Integer , LazyJVultrServer>> getLazyServers(){
+        return get("v1/server/list" , JVultrParser.lazyServers() , HashMap::new);
+    }
+
+    /**
+     * Retrieves the user data for this server.
+     * @param server Vultr server id
+     * @return JVultrUserData user data of this server
+     * @see JVultrClient#getUserData(int)
+     */
+    public CompletableFuture<JVultrUserData> getUserData(int server){
+        return get("v1/server/get_user_data?SUBID=" + server , JVultrParser.object(JVultrUserData.BINDER) , UnaryOperator.identity());
+    }
+
+    /**
+     * List all domains associated with the current account
+     * @return List with all account JVultrDns
+     * @see JVultrClient#getDNSs()
+     */
+    public CompletableFuture<List<JVultrDns>> getDNSs(){
+        return get("v1/dns/list" , JVultrParser.array(JVultrDns.BINDER) , ArrayList::new);
+    }
+
+    /**
+     * Retrieve the plans this server can be upgraded to
+     * <p>The plan ids are resolved on the common pool, since resolving them may load the plans</p>
+     * @param serverId Vultr server id
+     * @return List with the available plans
+     * @see JVultrClient#getUpgradePlanList(int)
+     */
+    public CompletableFuture<List<JVultrPlan>> getUpgradePlanList(int serverId){
+        return get("v1/server/upgrade_plan_list?SUBID=" + serverId , JVultrParser.ids() , int[]::clone)
+                .thenApplyAsync(JVultrParser::plans);
+    }
+
+    /**
+     * List all the records of a domain
+     * @param domain the domain
+     * @return List with the domain records
+     * @see JVultrClient#getDNSRecords(String)
+     */
+    public CompletableFuture<List<JVultrDnsRecord>> getDNSRecords(String domain){
+        return get("v1/dns/records?domain=" + domain , JVultrParser.array(JVultrDnsRecord.BINDER) , ArrayList::new);
+    }
+
+    /**
+     * List all the records of a domain
+     * @param dns the domain
+     * @return List with the domain records
+     * @see JVultrClient#getDNSRecords(JVultrDns)
+     */
+    public CompletableFuture<List<JVultrDnsRecord>> getDNSRecords(JVultrDns dns){
+        return getDNSRecords(dns.getDomain());
+    }
+
+    /**
+     * Create a domain
+     * @param domain the domain
+     * @param ip default ip of the domain
+     * @return the new JVultrDns
+     * @see JVultrClient#createDns(String, String)
+     */
+    public CompletableFuture<JVultrDns> createDns(String domain ,String ip){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("domain" , domain);
+        params.put("serverip" , ip);
+        return post("v1/dns/create_domain" , params).thenApply(response -> new JVultrDns(domain , new Date()));
+    }
+
+    /**
+     * Delete a domain
+     * @param domain the domain
+     * @return a future completed when the domain is deleted
+     * @see JVultrClient#deleteDns(String)
+     */
+    public CompletableFuture<Void> deleteDns(String domain){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("domain" , domain);
+        return post("v1/dns/delete_domain" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Create a domain record
+     * @return a future completed when the record is created
+     * @see JVultrClient#createRecord(String, String, JVultrDnsRecord.Type, String, Integer, Integer)
+     */
+    public CompletableFuture<Void> createRecord(String domain ,String subdomain , JVultrDnsRecord.Type type,
+                                                String data , @Optional Integer ttl ,
+                                                @Optional Integer priority){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("domain" , domain);
+        params.put("name" , subdomain);
+        params.put("type" , type.toString());
+        params.put("data" , data);
+        if(ttl != null)params.put("ttl" , ttl);
+        if(priority != null)params.put("priority" , priority);
+        return post("v1/dns/create_record" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Delete a domain record
+     * @param domain the domain
+     * @param id record id
+     * @return a future completed when the record is deleted
+     * @see JVultrClient#deleteRecord(String, int)
+     */
+    public CompletableFuture<Void> deleteRecord(String domain , int id){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("domain" , domain);
+        params.put("RECORDID" , id);
+        return post("v1/dns/delete_record" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Update a domain record
+     * @param domain the domain
+     * @param id record id
+     * @return a future completed when the record is updated
+     * @see JVultrClient#updateRecord(String, int)
+     */
+    public CompletableFuture<Void> updateRecord(String domain , int id){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("domain" , domain);
+        params.put("RECORDID" , id);
+        return post("v1/dns/update_record" , params , true).thenApply(response -> null);
+    }
+
+    /**
+     * Destroy a snapshot
+     * @param id Vultr snapshot id
+     * @return a future completed when the snapshot is destroyed
+     * @see JVultrClient#destroySnapshot(String)
+     */
+    public CompletableFuture<Void> destroySnapshot(String id){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("SNAPSHOTID" , id);
+        return post("v1/snapshot/destroy" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Destroy a snapshot
+     * @param snapshot the snapshot
+     * @return a future completed when the snapshot is destroyed
+     * @see JVultrClient#destroySnapshot(JVultrSnapshot)
+     */
+    public CompletableFuture<Void> destroySnapshot(JVultrSnapshot snapshot){
+        return destroySnapshot(snapshot.getId());
+    }
+
+    /**
+     * Create a snapshot of a server
+     * @param id Vultr server id
+     * @return a future completed when the snapshot creation is requested
+     * @see JVultrClient#createSnapshot(int)
+     */
+    public CompletableFuture<Void> createSnapshot(int id){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("SUBID" , id);
+        return post("v1/snapshot/create" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Create a snapshot of a server
+     * @param server the server
+     * @return a future completed when the snapshot creation is requested
+     * @see JVultrClient#createSnapshot(JVultrServer)
+     */
+    public CompletableFuture<Void> createSnapshot(JVultrServer server){
+        return createSnapshot(server.getId());
+    }
+
+    /**
+     * Create a new Vultr Server
+     * @return An instance of the JVultrServer created
+     * @see JVultrClient#createServer(int, int, int, String, Integer, Integer, String, Boolean, Boolean, String, Integer, Boolean, Integer, String, Boolean, Boolean, int, String)
+     */
+    public CompletableFuture<JVultrServer> createServer(int regionId , int planId , int osId ,
+                                                       @Optional String ipxeChainUrl , @Optional Integer isoId ,
+                                                       @Optional Integer scriptId , @Optional String snapshotId ,
+                                                       @Optional Boolean enableIpv6 , @Optional Boolean enablePrivateNetwork ,
+                                                       @Optional String label , @Optional Integer sshKeyIds ,
+                                                       @Optional Boolean autoBackups, @Optional Integer appId ,
+                                                       @Optional String userData , @Optional Boolean notifyActivate ,
+                                                       @Optional Boolean ddosProtection, @Optional int subID,
+                                                       @Optional String host){
+        HashMap<String , Object> params = JVultrClient.serverParameters(regionId , planId , osId , ipxeChainUrl , isoId ,
+                scriptId , snapshotId , enableIpv6 , enablePrivateNetwork , label , sshKeyIds , autoBackups , appId ,
+                userData , notifyActivate , ddosProtection , subID , host);
+        return post("v1/server/create" , params).thenCompose(response -> intField(response , "SUBID")).thenCompose(id -> {
+            if(id == -1)return CompletableFuture.completedFuture(null);
+            return getSevers().thenApply(servers -> servers.get(id));
+        });
+    }
+
+    /**
+     * Create a new Vultr Server
+     * @return An instance of the JVultrServer created
+     * @see JVultrClient#createServer(JVultrRegion, JVultrPlan, JVultrOS, String, JVultrISO, JVultrScript, JVultrSnapshot, Boolean, Boolean, String, Integer, Boolean, JVultrApplication, String, Boolean, Boolean, int, String)
+     */
+    public CompletableFuture<JVultrServer> createServer(JVultrRegion region, JVultrPlan plan , JVultrOS os ,
+                                                       @Optional String ipxeChainUrl , @Optional JVultrISO iso ,
+                                                       @Optional JVultrScript script , @Optional JVultrSnapshot snapshot ,
+                                                       @Optional Boolean enableIpv6 ,@Optional Boolean enablePrivateNetwork ,
+                                                       @Optional String label , @Optional Integer sshKey ,
+                                                       @Optional Boolean autoBackups , @Optional JVultrApplication app ,
+                                                       @Optional String userData , @Optional Boolean notifyActivate ,
+                                                       @Optional Boolean ddosProtection, @Optional int floating_SUBID,
+                                                       @Optional String host){
+        return createServer(region.getId() , plan.getId() , os.getId() , ipxeChainUrl , iso != null ? iso.getId() : null ,
+                script != null ? script.getId() : null , snapshot != null ? snapshot.getId() : null , enableIpv6 ,
+                enablePrivateNetwork , label , sshKey , autoBackups , app != null ? app.getId() : null , userData ,
+                notifyActivate , ddosProtection , floating_SUBID , host);
+    }
+
+    /**
+     * Create a new Vultr Server
+     * @param regionId Region id to create this virtual machine in.
+     * @param planId Plan id to use when creating this virtual machine.
+     * @param osId Operating systems'id to use.
+     * @return An instance of the JVultrServer created
+     */
+    public CompletableFuture<JVultrServer> createServer(int regionId , int planId , int osId){
+        return createServer(regionId, planId, osId , null , null , null , null , null , null
+                , null , null , null , null , null , null ,null, -1, null);
+    }
+
+    /**
+     * Create a new Vultr Server
+     * @param region Region to create this virtual machine in.
+     * @param plan Plan to use when creating this virtual machine.
+     * @param os Operating system to use.
+     * @return An instance of the JVultrServer created
+     */
+    public CompletableFuture<JVultrServer> createServer(JVultrRegion region, JVultrPlan plan , JVultrOS os){
+        return createServer(region.getId(), plan.getId(), os.getId());
+    }
+
+    /**
+     * Destroy a server
+     * @param id Vultr server id
+     * @return a future completed when the server is destroyed
+     * @see JVultrClient#destroyServer(int)
+     */
+    public CompletableFuture<Void> destroyServer(int id){
+        HashMap<String , Object> params = new HashMap<>();
+        params.put("SUBID" , id);
+        return post("v1/server/destroy" , params).thenApply(response -> null);
+    }
+
+    /**
+     * Destroy a server
+     * @param server the server
+     * @return a future completed when the server is destroyed
+     * @see JVultrClient#destroyServer(JVultrServer)
+     */
+    public CompletableFuture<Void> destroyServer(JVultrServer server){
+        return destroyServer(server.getId());
+    }
+
+    /**
+     * Send a get request to the Vultr API and parse the response
+     * <p>Identical requests in flight are coalesced</p>
+     * @param path api path
+     * @param handler reads the response
+     * @param copy copy the value read handed to coalesced callers
+     * @return the value read
+     */
+    private <T> CompletableFuture<T> get(String path , ResponseHandler<T> handler , UnaryOperator<T> copy){
+        return JVultrAPI.getAsync(transport , JVultrAPI.ENDPOINT + path , apiKey , handler , copy);
+    }
+
+    /**
+     * Send a post request to the Vultr API
+     * @param path api path
+     * @param parameters parameters for this request
+     * @return the response
+     */
+    private CompletableFuture<String> post(String path , Map<String , Object> parameters){
+        return post(path , parameters , false);
+    }
+
+    /**
+     * Send a post request to the Vultr API
+     * @param path api path
+     * @param parameters parameters for this request
+     * @param idempotent if sending this request twice has the same effect as sending it once
+     * @return the response
+     */
+    private CompletableFuture<String> post(String path , Map<String , Object> parameters , boolean idempotent){
+        return transport.executeAsync(JVultrRequest.post(JVultrAPI.ENDPOINT + path , apiKey , JVultrAPI.encode(parameters) , idempotent));
+    }
+
+    /**
+     * Get an int field of an object response
+     * @param response the response body
+     * @param field field name
+     * @return a future completed with the field value, -1 if the response is not an object, or exceptionally if the
+     * response has no int value for this field
+     */
+    private static CompletableFuture<Integer> intField(String response , String field){
+        try {
+            return CompletableFuture.completedFuture(JVultrParser.intField(response , field));
+        } catch (JVultrException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
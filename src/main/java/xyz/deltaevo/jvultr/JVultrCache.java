@@ -21,87 +21,798 @@ import xyz.deltaevo.jvultr.api.JVultrOS;
 import xyz.deltaevo.jvultr.api.JVultrPlan;
 import xyz.deltaevo.jvultr.api.JVultrRegion;
 import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.http.SingleFlight;
+import xyz.deltaevo.jvultr.utils.AvailabilityMatrix;
+import xyz.deltaevo.jvultr.utils.IntMap;
+import xyz.deltaevo.jvultr.utils.PlacementSolver;
+import xyz.deltaevo.jvultr.utils.PlanIndex;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * A JVultr Cache to limit requests
+ * <p>Each catalog is loaded on its first access. Call {@link #prefetch()} at startup to load them in the
+ * background, and use the readiness futures to know when they are available</p>
+ * <p>The cache is safe for concurrent use: catalogs are published as immutable snapshots, and a single
+ * reload runs at a time per catalog, every thread missing an entry meanwhile waits for it</p>
+ * <p>{@link #persistTo(Path)} keeps the catalogs in a local snapshot file: it is read on startup so the catalogs
+ * are available at once and offline, then revalidated against the API in the background</p>
+ * <p>{@link #startRefresher(long)} keeps the catalogs fresh: once they are older than the ttl they are reloaded in
+ * the background while readers keep getting the current ones. Listeners are notified whenever the regions or the plans
+ * change, whatever loaded them</p>
+ * <p>An id still unknown after a successful reload is remembered as missing for {@link #getNegativeTtl()} ms, so repeated
+ * lookups of a retired plan or region don't reload the catalog each time. Explicit reloads forget them</p>
+ * <p>Loads that fail without a caller to throw to, such as an offline background refresh, are reported to the
+ * {@link #setErrorHandler(Consumer) error handler}, which ignores them by default</p>
  * @author DeltaEvolution
  */
 public class JVultrCache {
     //////////////////////////////////////////////////////////
     //                       Static Cache                  //
     ////////////////////////////////////////////////////////
-    private static Map<Integer,JVultrRegion> cachedRegions;
-    private static Map<Integer , JVultrPlan> cachedPlans;
-    private static JVultrOS custom;
-    static {
+    private static volatile IntMap<JVultrRegion> cachedRegions;
+    private static volatile IntMap<JVultrPlan> cachedPlans;
+    private static volatile JVultrOS custom;
+    private static volatile PlanIndex planIndex;
+    private static volatile AvailabilityMatrix availability;
+    private static volatile PlacementSolver placementSolver;
+
+    //////////////////////////////////////////////////////////
+    //                       Readiness                     //
+    ////////////////////////////////////////////////////////
+    private static volatile CompletableFuture<IntMap<JVultrRegion>> regionsReady = new CompletableFuture<>();
+    private static volatile CompletableFuture<IntMap<JVultrPlan>> plansReady = new CompletableFuture<>();
+    private static volatile CompletableFuture<JVultrOS> customReady = new CompletableFuture<>();
+
+    //////////////////////////////////////////////////////////
+    //                    Negative Cache                   //
+    ////////////////////////////////////////////////////////
+    /**
+     * Default time an unknown id is remembered as missing, in ms
+     */
+    public static final long DEFAULT_NEGATIVE_TTL = 600000;
+    private static volatile long negativeTtl = DEFAULT_NEGATIVE_TTL;
+    private static final ConcurrentHashMap<Integer , Long> missingRegions = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer , Long> missingPlans = new ConcurrentHashMap<>();
+
+    /**
+     * Snapshot file the catalogs are persisted to, null when not persisted
+     */
+    private static volatile Path snapshotFile;
+    /**
+     * Encoded catalogs the snapshot file holds, null if unknown
+     */
+    private static volatile byte[] persisted;
+
+    //////////////////////////////////////////////////////////
+    //                       Refresher                     //
+    ////////////////////////////////////////////////////////
+    /**
+     * Time the catalogs were last loaded, in ms since epoch, 0 if never loaded
+     */
+    private static volatile long refreshedAt;
+    /**
+     * Catalogs max age before a refresh, in ms, 0 when the refresher is stopped
+     */
+    private static volatile long ttl;
+    private static volatile Executor refreshExecutor = ForkJoinPool.commonPool();
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledFuture<?> refreshTask;
+    private static final AtomicReference<CompletableFuture<Void>> refreshing = new AtomicReference<>();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Lock publishing the catalogs, so each new snapshot is compared to the one it replaced
+     */
+    private static final Object publishLock = new Object();
+    private static volatile Consumer<Throwable> errorHandler = error -> {};
+
+    /**
+     * Listen to catalog changes
+     * @author DeltaEvolution
+     */
+    @FunctionalInterface
+    public interface Listener{
+        /**
+         * Called after the regions or the plans changed
+         * <p>Called on the thread that loaded them, which may be a lookup missing an entry, so it must not block</p>
+         * @param regions the new regions
+         * @param plans the new plans
+         */
+        void catalogChanged(IntMap<JVultrRegion> regions , IntMap<JVultrPlan> plans);
+    }
+
+    /**
+     * Catalog reloads in flight
+     */
+    private static final SingleFlight<String> reloads = new SingleFlight<>();
+
+    /**
+     * Load every catalog in the background on the common pool
+     * @return a future completed when every catalog is loaded, or exceptionally if one could not be loaded
+     */
+    public static CompletableFuture<Void> prefetch(){
+        return prefetch(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load every catalog in the background
+     * <p>Regions are loaded before plans since plans reference them</p>
+     * @param executor executor running the requests
+     * @return a future completed when every catalog is loaded, or exceptionally if one could not be loaded
+     */
+    public static CompletableFuture<Void> prefetch(Executor executor){
+        CompletableFuture<Void> plans = CompletableFuture.runAsync(() -> {
+            if(cachedRegions == null)load(JVultrCache::loadRegions);
+            if(cachedPlans == null)load(JVultrCache::loadPlans);
+        } , executor);
+        CompletableFuture<Void> os = CompletableFuture.runAsync(() -> {
+            if(custom == null)load(JVultrCache::loadCustom);
+        } , executor);
+        return CompletableFuture.allOf(plans , os);
+    }
+
+    /**
+     * Get a future completed once the regions are loaded
+     * @return the regions readiness future
+     */
+    public static CompletableFuture<IntMap<JVultrRegion>> regionsReady(){
+        return regionsReady;
+    }
+
+    /**
+     * Get a future completed once the plans are loaded
+     * @return the plans readiness future
+     */
+    public static CompletableFuture<IntMap<JVultrPlan>> plansReady(){
+        return plansReady;
+    }
+
+    /**
+     * Get a future completed once the custom os is loaded
+     * @return the custom os readiness future
+     */
+    public static CompletableFuture<JVultrOS> customReady(){
+        return customReady;
+    }
+
+    /**
+     * Get a future completed once every catalog is loaded
+     * @return the readiness future
+     */
+    public static CompletableFuture<Void> ready(){
+        return CompletableFuture.allOf(regionsReady , plansReady , customReady);
+    }
+
+    /**
+     * Persist the catalogs to a snapshot file, revalidated on the common pool
+     * @param file the snapshot file
+     * @return a future completed when the catalogs are revalidated and the file rewritten
+     * @see #persistTo(Path, Executor)
+     */
+    public static CompletableFuture<Void> persistTo(Path file){
+        return persistTo(file , ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Persist the catalogs to a snapshot file
+     * <p>The file is loaded right away if it exists, then every catalog is reloaded in the background and the
+     * file is rewritten with the fresh catalogs</p>
+     * @param file the snapshot file
+     * @param executor executor running the requests
+     * @return a future completed when the catalogs are revalidated and the file rewritten
+     */
+    public static CompletableFuture<Void> persistTo(Path file , Executor executor){
+        snapshotFile = file;
+        persisted = null;
+        loadSnapshot(file);
+        return refresh(executor);
+    }
+
+    /**
+     * Get the snapshot file the catalogs are persisted to
+     * @return the file or null if the catalogs are not persisted
+     */
+    public static Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Load the catalogs from a snapshot file
+     * @param file the snapshot file
+     * @return true if the file was loaded, false if it doesn't exist or is invalid
+     */
+    public static boolean loadSnapshot(Path file){
         try {
-            cachedRegions = JVultrAPI.getRegions();
-        } catch (JVultrException e) {
-            e.printStackTrace();
+            JVultrCatalog catalog = JVultrCatalog.read(file);
+            if(catalog == null)return false;
+            publish(snapshot(catalog.regions) , snapshot(catalog.plans));
+            if(catalog.custom != null)publishCustom(catalog.custom);
+            refreshedAt = Files.getLastModifiedTime(file).toMillis();
+            if(file.equals(snapshotFile))persisted = catalog.encode();
+            return true;
+        } catch (IOException e) {
+            report(e);
+            return false;
         }
-        try {
-            cachedPlans = JVultrAPI.getPlans();
-        } catch (JVultrException e) {
-            e.printStackTrace();
+    }
+
+    /**
+     * Save the current catalogs to a snapshot file
+     * @param file the snapshot file
+     * @throws IOException if the file can't be written
+     */
+    public static void saveSnapshot(Path file) throws IOException{
+        JVultrCatalog catalog = catalog();
+        catalog.write(file);
+        if(file.equals(snapshotFile))persisted = catalog.encode();
+    }
+
+    /**
+     * Refresh the catalogs every time they get older than a ttl, on the common pool
+     * @param ttl catalogs max age in ms
+     * @see #startRefresher(long, Executor)
+     */
+    public static void startRefresher(long ttl){
+        startRefresher(ttl , ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Refresh the catalogs every time they get older than a ttl
+     * <p>Stale catalogs are still served while they are refreshed, reading them never blocks on the refresh</p>
+     * @param ttl catalogs max age in ms
+     * @param executor executor running the requests
+     */
+    public static synchronized void startRefresher(long ttl , Executor executor){
+        if(ttl <= 0)throw new IllegalArgumentException("ttl <= 0");
+        stopRefresher();
+        JVultrCache.refreshExecutor = executor;
+        JVultrCache.ttl = ttl;
+        if(scheduler == null){
+            ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1 , runnable -> {
+                Thread thread = new Thread(runnable , "JVultrCache-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.setRemoveOnCancelPolicy(true);
+            scheduler = pool;
         }
-        try {
-            for(JVultrOS os : JVultrAPI.getOSs().values()){
-                if(os.getName().equals("Custom")){
-                    custom = os;break;
-                }
-            }
-        } catch (JVultrException e) {
-            e.printStackTrace();
+        long period = Math.max(1 , ttl / 4);
+        refreshTask = scheduler.scheduleWithFixedDelay(JVultrCache::refreshIfStale , 0 , period , TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop refreshing the catalogs
+     */
+    public static synchronized void stopRefresher(){
+        ttl = 0;
+        if(refreshTask != null){
+            refreshTask.cancel(false);
+            refreshTask = null;
         }
     }
 
-    public static Map<Integer,JVultrRegion> getCachedRegions(){
-        return cachedRegions;
+    /**
+     * Get the catalogs max age before a refresh
+     * @return the ttl in ms, 0 if the refresher is stopped
+     */
+    public static long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Get the age of the catalogs
+     * @return time since the catalogs were loaded in ms, -1 if they were never loaded
+     */
+    public static long getSnapshotAge(){
+        long at = refreshedAt;
+        return at == 0 ? -1 : Math.max(0 , System.currentTimeMillis() - at);
+    }
+
+    /**
+     * Refresh every catalog in the background on the common pool
+     * @return a future completed when the catalogs are refreshed
+     */
+    public static CompletableFuture<Void> refresh(){
+        return refresh(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Refresh every catalog in the background
+     * <p>Only one refresh runs at a time, calling this during a refresh returns the running one. The snapshot file
+     * is rewritten if the catalogs changed</p>
+     * @param executor executor running the requests
+     * @return a future completed when the catalogs are refreshed
+     */
+    public static CompletableFuture<Void> refresh(Executor executor){
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> running = refreshing.compareAndExchange(null , future);
+        if(running != null)return running;
+        revalidate(executor).whenComplete((value , error) -> {
+            refreshing.compareAndSet(future , null);
+            if(error != null)future.completeExceptionally(error);
+            else future.complete(null);
+        });
+        return future;
+    }
+
+    /**
+     * Add a catalog change listener
+     * @param listener the listener
+     */
+    public static void addListener(Listener listener){
+        listeners.add(listener);
     }
 
+    /**
+     * Remove a catalog change listener
+     * @param listener the listener
+     */
+    public static void removeListener(Listener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the handler of the failed catalog loads
+     * @return the error handler
+     */
+    public static Consumer<Throwable> getErrorHandler() {
+        return errorHandler;
+    }
+
+    /**
+     * Set the handler of the catalog loads failing without a caller to throw to
+     * <p>It gets the failures of the lookups falling back to the current catalogs, of the snapshot file reads, of the
+     * background refreshes and of the listeners. It is called on the thread that failed and must not block</p>
+     * @param errorHandler the error handler, null to ignore the failures
+     */
+    public static void setErrorHandler(Consumer<Throwable> errorHandler) {
+        JVultrCache.errorHandler = errorHandler != null ? errorHandler : error -> {};
+    }
+
+    /**
+     * Get the time an unknown id is remembered as missing
+     * @return the time in ms
+     */
+    public static long getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * Set the time an unknown id is remembered as missing
+     * @param negativeTtl the time in ms, 0 to disable the negative cache
+     */
+    public static void setNegativeTtl(long negativeTtl) {
+        if(negativeTtl < 0)throw new IllegalArgumentException("negativeTtl < 0");
+        JVultrCache.negativeTtl = negativeTtl;
+        if(negativeTtl == 0)forgetMissing();
+    }
+
+    /**
+     * Forget every id remembered as missing
+     */
+    public static void forgetMissing(){
+        missingRegions.clear();
+        missingPlans.clear();
+    }
+
+    /**
+     * Forget every catalog, as if none was loaded yet
+     * <p>Only meant for tests: the refresher is stopped and the readiness futures are replaced, threads waiting on
+     * the previous ones are never woken</p>
+     */
+    static synchronized void reset(){
+        stopRefresher();
+        cachedRegions = null;
+        cachedPlans = null;
+        custom = null;
+        planIndex = null;
+        availability = null;
+        placementSolver = null;
+        regionsReady = new CompletableFuture<>();
+        plansReady = new CompletableFuture<>();
+        customReady = new CompletableFuture<>();
+        snapshotFile = null;
+        persisted = null;
+        refreshedAt = 0;
+        forgetMissing();
+    }
+
+    public static IntMap<JVultrRegion> getCachedRegions(){
+        IntMap<JVultrRegion> regions = cachedRegions;
+        if(regions == null)regions = refreshRegions(null);
+        else refreshIfStale();
+        return regions != null ? regions : IntMap.empty();
+    }
+
+    /**
+     * Replace the cached regions
+     * @param regions the regions, copied into an immutable snapshot
+     */
     public static void setCachedRegions(Map<Integer, JVultrRegion> regions) {
-        cachedRegions = regions;
+        publishRegions(regions);
+        missingRegions.clear();
     }
 
     public static void reloadCachedRegions(){
         try {
-            cachedRegions = JVultrAPI.getRegions();
+            loadRegions();
+            missingRegions.clear();
         } catch (JVultrException e) {
-            e.printStackTrace();
+            report(e);
         }
     }
 
     public static JVultrRegion getCachedRegion(int id){
-        if(!getCachedRegions().containsKey(id))
-            reloadCachedRegions();
-        return getCachedRegions().get(id);
+        IntMap<JVultrRegion> regions = getCachedRegions();
+        JVultrRegion region = regions.get(id);
+        if(region == null && !isMissing(missingRegions , id)){
+            IntMap<JVultrRegion> reloaded = refreshRegions(regions);
+            if(reloaded != null){
+                region = reloaded.get(id);
+                if(region == null)markMissing(missingRegions , id);
+            }
+        }
+        return region;
     }
 
-    public static Map<Integer,JVultrPlan> getCachedPlans(){
-        return cachedPlans;
+    public static IntMap<JVultrPlan> getCachedPlans(){
+        IntMap<JVultrPlan> plans = cachedPlans;
+        if(plans == null)plans = refreshPlans(null);
+        else refreshIfStale();
+        return plans != null ? plans : IntMap.empty();
     }
 
+    /**
+     * Get the index of the cached plans
+     * <p>The index is rebuilt on the first call after the cached plans changed</p>
+     * @return the plan index
+     */
+    public static PlanIndex getPlanIndex(){
+        IntMap<JVultrPlan> plans = getCachedPlans();
+        PlanIndex index = planIndex;
+        if(index == null || index.getPlans() != plans){
+            index = new PlanIndex(plans);
+            planIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Get the availability matrix of the cached plans and regions
+     * <p>The matrix is rebuilt on the first call after the cached plans or regions changed</p>
+     * @return the availability matrix
+     */
+    public static AvailabilityMatrix getAvailability(){
+        IntMap<JVultrRegion> regions = getCachedRegions();
+        IntMap<JVultrPlan> plans = getCachedPlans();
+        AvailabilityMatrix matrix = availability;
+        if(matrix == null || matrix.getPlans() != plans || matrix.getRegions() != regions){
+            matrix = new AvailabilityMatrix(plans , regions);
+            availability = matrix;
+        }
+        return matrix;
+    }
+
+    /**
+     * Get a placement solver over the cached catalog
+     * <p>The solver is rebuilt on the first call after the cached plans or regions changed</p>
+     * @return the placement solver
+     */
+    public static PlacementSolver getPlacementSolver(){
+        PlanIndex index = getPlanIndex();
+        AvailabilityMatrix matrix = getAvailability();
+        PlacementSolver solver = placementSolver;
+        if(solver == null || solver.getIndex() != index || solver.getMatrix() != matrix){
+            solver = new PlacementSolver(index , matrix);
+            placementSolver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * Replace the cached plans
+     * @param plans the plans, copied into an immutable snapshot
+     */
     public static void setCachedPlans(Map<Integer, JVultrPlan> plans) {
-        cachedPlans = plans;
+        publishPlans(plans);
+        missingPlans.clear();
     }
 
     public static void reloadCachedPlans(){
         try {
-            cachedPlans = JVultrAPI.getPlans();
+            loadPlans();
+            missingPlans.clear();
         } catch (JVultrException e) {
-            e.printStackTrace();
+            report(e);
         }
     }
 
     public static JVultrPlan getCachedPlan(int id){
-        if(!getCachedPlans().containsKey(id))
-            reloadCachedPlans();
-        return getCachedPlans().get(id);
+        IntMap<JVultrPlan> plans = getCachedPlans();
+        JVultrPlan plan = plans.get(id);
+        if(plan == null && !isMissing(missingPlans , id)){
+            IntMap<JVultrPlan> reloaded = refreshPlans(plans);
+            if(reloaded != null){
+                plan = reloaded.get(id);
+                if(plan == null)markMissing(missingPlans , id);
+            }
+        }
+        return plan;
     }
 
     public static JVultrOS getCustom() {
-        return custom;
+        JVultrOS os = custom;
+        if(os == null){
+            try {
+                loadCustom();
+            } catch (JVultrException e) {
+                report(e);
+            }
+            os = custom;
+        }
+        return os;
+    }
+
+    /**
+     * Reload the regions unless they changed since they were read
+     * @param seen the regions the caller read, a newer snapshot means an other thread already reloaded them
+     * @return the regions published after the reload, or null if no regions are loaded
+     */
+    private static IntMap<JVultrRegion> refreshRegions(IntMap<JVultrRegion> seen){
+        try {
+            return reloads.execute("regions" , () -> {
+                IntMap<JVultrRegion> current = cachedRegions;
+                if(current != seen)return current;
+                return fetchRegions();
+            } , UnaryOperator.identity());
+        } catch (JVultrException e) {
+            report(e);
+            return null;
+        }
+    }
+
+    /**
+     * Reload the plans unless they changed since they were read
+     * @param seen the plans the caller read, a newer snapshot means an other thread already reloaded them
+     * @return the plans published after the reload, or null if no plans are loaded
+     */
+    private static IntMap<JVultrPlan> refreshPlans(IntMap<JVultrPlan> seen){
+        try {
+            return reloads.execute("plans" , () -> {
+                IntMap<JVultrPlan> current = cachedPlans;
+                if(current != seen)return current;
+                return fetchPlans();
+            } , UnaryOperator.identity());
+        } catch (JVultrException e) {
+            report(e);
+            return null;
+        }
+    }
+
+    private static void loadRegions() throws JVultrException{
+        reloads.execute("regions" , JVultrCache::fetchRegions , UnaryOperator.identity());
+    }
+
+    private static void loadPlans() throws JVultrException{
+        reloads.execute("plans" , JVultrCache::fetchPlans , UnaryOperator.identity());
+    }
+
+    /**
+     * Reload every catalog in the background, then update the snapshot file if there is one
+     * <p>The file is only rewritten if the catalogs differ from its content, otherwise it is touched so its age
+     * stays the catalogs age</p>
+     * @param executor executor running the requests
+     * @return a future completed when the catalogs are reloaded, exceptionally if the file can't be written
+     */
+    private static CompletableFuture<Void> revalidate(Executor executor){
+        CompletableFuture<Void> plans = CompletableFuture.runAsync(() -> {
+            load(JVultrCache::loadRegions);
+            load(JVultrCache::loadPlans);
+        } , executor);
+        CompletableFuture<Void> os = CompletableFuture.runAsync(() -> load(JVultrCache::loadCustom) , executor);
+        return CompletableFuture.allOf(plans , os).thenRunAsync(() -> {
+            Path file = snapshotFile;
+            if(file == null)return;
+            JVultrCatalog catalog = catalog();
+            byte[] encoded = catalog.encode();
+            try {
+                if(Arrays.equals(encoded , persisted) && Files.exists(file)){
+                    Files.setLastModifiedTime(file , FileTime.fromMillis(System.currentTimeMillis()));
+                }else{
+                    catalog.write(file);
+                    persisted = encoded;
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        } , executor);
+    }
+
+    /**
+     * Start a background refresh if the refresher is running and the catalogs are older than its ttl
+     */
+    private static void refreshIfStale(){
+        long max = ttl;
+        if(max <= 0 || refreshing.get() != null)return;
+        long age = getSnapshotAge();
+        if(age >= 0 && age < max)return;
+        refresh(refreshExecutor).exceptionally(error -> {
+            report(error);
+            return null;
+        });
+    }
+
+    /**
+     * Get the current catalogs
+     * @return the catalogs, empty ones if they are not loaded
+     */
+    private static JVultrCatalog catalog(){
+        IntMap<JVultrRegion> regions = cachedRegions;
+        IntMap<JVultrPlan> plans = cachedPlans;
+        return new JVultrCatalog(regions != null ? regions : IntMap.empty() ,
+                plans != null ? plans : IntMap.empty() , custom);
+    }
+
+    private static void loadCustom() throws JVultrException{
+        reloads.execute("custom" , () -> {
+            for(JVultrOS os : JVultrAPI.getOSs().values()){
+                if(os.getName().equals("Custom")){
+                    publishCustom(os);
+                    return os;
+                }
+            }
+            return null;
+        } , UnaryOperator.identity());
+    }
+
+    private static IntMap<JVultrRegion> fetchRegions() throws JVultrException{
+        return publishRegions(JVultrAPI.getRegions());
+    }
+
+    private static IntMap<JVultrPlan> fetchPlans() throws JVultrException{
+        return publishPlans(JVultrAPI.getPlans());
+    }
+
+    private static IntMap<JVultrRegion> publishRegions(Map<Integer , JVultrRegion> regions){
+        IntMap<JVultrRegion> snapshot = snapshot(regions);
+        publish(snapshot , null);
+        return snapshot;
+    }
+
+    private static IntMap<JVultrPlan> publishPlans(Map<Integer , JVultrPlan> plans){
+        IntMap<JVultrPlan> snapshot = snapshot(plans);
+        publish(null , snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Publish new catalog snapshots
+     * <p>Every load goes through here, so the snapshots replaced are compared to the new ones whatever loaded them.
+     * If they differ the ids remembered as missing are forgotten and the listeners are notified</p>
+     * @param regions the new regions, null to keep the current ones
+     * @param plans the new plans, null to keep the current ones
+     */
+    private static void publish(IntMap<JVultrRegion> regions , IntMap<JVultrPlan> plans){
+        IntMap<JVultrRegion> oldRegions;
+        IntMap<JVultrPlan> oldPlans;
+        synchronized (publishLock){
+            oldRegions = cachedRegions;
+            oldPlans = cachedPlans;
+            if(regions != null)cachedRegions = regions;
+            if(plans != null)cachedPlans = plans;
+            refreshedAt = System.currentTimeMillis();
+        }
+        if(regions != null)regionsReady.complete(regions);
+        if(plans != null)plansReady.complete(plans);
+        boolean regionsChanged = regions != null && !Arrays.equals(encode(oldRegions , null) , encode(regions , null));
+        boolean plansChanged = plans != null && !Arrays.equals(encode(null , oldPlans) , encode(null , plans));
+        if(regionsChanged)missingRegions.clear();
+        if(plansChanged)missingPlans.clear();
+        if(regionsChanged || plansChanged){
+            JVultrCatalog catalog = catalog();
+            for(Listener listener : listeners){
+                try {
+                    listener.catalogChanged(catalog.regions , catalog.plans);
+                } catch (RuntimeException e) {
+                    report(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encode catalogs to compare them
+     * @param regions the regions, null for none
+     * @param plans the plans, null for none
+     * @return the encoded catalogs
+     */
+    private static byte[] encode(IntMap<JVultrRegion> regions , IntMap<JVultrPlan> plans){
+        return new JVultrCatalog(regions != null ? regions : IntMap.empty() ,
+                plans != null ? plans : IntMap.empty() , null).encode();
+    }
+
+    private static void publishCustom(JVultrOS os){
+        custom = os;
+        customReady.complete(os);
+    }
+
+    /**
+     * Check if an id is remembered as missing
+     * @param missing the missing ids with their expiry
+     * @param id the id
+     * @return true if the id is missing and its entry didn't expire
+     */
+    private static boolean isMissing(ConcurrentHashMap<Integer , Long> missing , int id){
+        Long expiry = missing.get(id);
+        if(expiry == null)return false;
+        if(System.nanoTime() - expiry < 0)return true;
+        missing.remove(id , expiry);
+        return false;
+    }
+
+    private static void markMissing(ConcurrentHashMap<Integer , Long> missing , int id){
+        long ttl = negativeTtl;
+        if(ttl > 0)missing.put(id , System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl));
+    }
+
+    /**
+     * Report a failed load to the error handler
+     * @param error the failure, unwrapped if it is a CompletionException
+     */
+    private static void report(Throwable error){
+        if(error instanceof CompletionException && error.getCause() != null)error = error.getCause();
+        try {
+            errorHandler.accept(error);
+        } catch (RuntimeException ignored) {
+            // a failing handler must not break the lookup that reported
+        }
+    }
+
+    /**
+     * Copy a catalog into an immutable snapshot
+     * @param catalog the catalog
+     * @param <V> catalog value type
+     * @return the snapshot
+     */
+    private static <V> IntMap<V> snapshot(Map<Integer , V> catalog){
+        return IntMap.copyOf(catalog);
+    }
+
+    /**
+     * A catalog loading step
+     */
+    private interface Loader{
+        void load() throws JVultrException;
+    }
+
+    /**
+     * Run a loading step from a background task
+     * @param loader the loading step
+     */
+    private static void load(Loader loader){
+        try {
+            loader.load();
+        } catch (JVultrException e) {
+            throw new CompletionException(e);
+        }
     }
 }
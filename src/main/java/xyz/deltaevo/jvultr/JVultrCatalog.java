@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import xyz.deltaevo.jvultr.api.JVultrOS;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.utils.IntMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * A snapshot of the Vultr catalog (regions, plans and custom os) in a compact binary form
+ * <p>Layout, big endian: magic, version, regions, plans then the custom os. Strings are a short length followed
+ * by their UTF-8 bytes, -1 for null. Enum constants are stored by name so reordering an enum keeps old snapshots
+ * readable. Plans store the ids of their available regions. Records are sorted by id so equal catalogs have equal
+ * encodings</p>
+ * @author DeltaEvolution
+ */
+final class JVultrCatalog {
+    private static final int MAGIC = 0x4A56434C; // JVCL
+    private static final short VERSION = 2;
+
+    final IntMap<JVultrRegion> regions;
+    final IntMap<JVultrPlan> plans;
+    final JVultrOS custom;
+
+    JVultrCatalog(IntMap<JVultrRegion> regions , IntMap<JVultrPlan> plans , JVultrOS custom) {
+        this.regions = regions;
+        this.plans = plans;
+        this.custom = custom;
+    }
+
+    /**
+     * Encode this catalog
+     * @return the encoded catalog
+     */
+    byte[] encode(){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)){
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(regions.size());
+            for(JVultrRegion region : new TreeMap<>(regions).values()){
+                out.writeInt(region.getId());
+                writeString(out , region.getName());
+                writeString(out , region.getCountry());
+                writeConstant(out , region.getContinent());
+                writeString(out , region.getState());
+                out.writeBoolean(region.haveDDOSProtection());
+            }
+            out.writeInt(plans.size());
+            for(JVultrPlan plan : new TreeMap<>(plans).values()){
+                out.writeInt(plan.getId());
+                writeString(out , plan.getName());
+                out.writeInt(plan.getCpus());
+                out.writeInt(plan.getRam());
+                out.writeInt(plan.getDisk());
+                out.writeFloat(plan.getBandwidth());
+                out.writeFloat(plan.getPricePerMonth());
+                out.writeBoolean(plan.isWindows());
+                writeConstant(out , plan.getType());
+                int available = 0;
+                for(JVultrRegion region : plan.getAvailableRegions())if(region != null)available++;
+                out.writeShort(available);
+                for(JVultrRegion region : plan.getAvailableRegions())if(region != null)out.writeInt(region.getId());
+            }
+            out.writeBoolean(custom != null);
+            if(custom != null){
+                out.writeInt(custom.getId());
+                writeString(out , custom.getName());
+                writeConstant(out , custom.getArch());
+                writeString(out , custom.getFamily());
+                out.writeBoolean(custom.isWindows());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a catalog
+     * @param buffer the encoded catalog
+     * @return the catalog
+     * @throws IOException if the buffer is not a valid catalog
+     */
+    static JVultrCatalog decode(ByteBuffer buffer) throws IOException{
+        try {
+            if(buffer.getInt() != MAGIC)throw new IOException("Not a catalog snapshot");
+            short version = buffer.getShort();
+            if(version != VERSION)throw new IOException("Unsupported catalog snapshot version " + version);
+            int count = buffer.getInt();
+            IntMap<JVultrRegion> regions = new IntMap<>(count);
+            for(int i = 0 ; i < count ; i++){
+                JVultrRegion region = new JVultrRegion(buffer.getInt() , readString(buffer) , readString(buffer) ,
+                        constant(JVultrRegion.Continent.class , buffer) , readString(buffer) , buffer.get() != 0);
+                regions.put(region.getId() , region);
+            }
+            count = buffer.getInt();
+            IntMap<JVultrPlan> plans = new IntMap<>(count);
+            for(int i = 0 ; i < count ; i++){
+                int id = buffer.getInt();
+                String name = readString(buffer);
+                int cpus = buffer.getInt();
+                int ram = buffer.getInt();
+                int disk = buffer.getInt();
+                float bandwidth = buffer.getFloat();
+                float price = buffer.getFloat();
+                boolean windows = buffer.get() != 0;
+                JVultrPlan.Type type = constant(JVultrPlan.Type.class , buffer);
+                int available = buffer.getShort();
+                List<JVultrRegion> availableRegions = new ArrayList<>(available);
+                for(int j = 0 ; j < available ; j++){
+                    JVultrRegion region = regions.get(buffer.getInt());
+                    if(region != null)availableRegions.add(region);
+                }
+                plans.put(id , new JVultrPlan(id , name , cpus , ram , disk , bandwidth , price , windows , type ,
+                        availableRegions.toArray(new JVultrRegion[0])));
+            }
+            JVultrOS custom = null;
+            if(buffer.get() != 0){
+                custom = new JVultrOS(buffer.getInt() , readString(buffer) , constant(JVultrOS.Arch.class , buffer) ,
+                        readString(buffer) , buffer.get() != 0);
+            }
+            return new JVultrCatalog(regions , plans , custom);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupted catalog snapshot" , e);
+        }
+    }
+
+    /**
+     * Read a catalog file
+     * <p>The file is read in a heap buffer and closed before decoding, so nothing keeps it open or mapped when it is
+     * replaced later</p>
+     * @param file the file
+     * @return the catalog or null if the file doesn't exist
+     * @throws IOException if the file can't be read or is not a valid catalog
+     */
+    static JVultrCatalog read(Path file) throws IOException{
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file , StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE)throw new IOException("Catalog snapshot too large");
+            buffer = ByteBuffer.allocate((int) size);
+            while(buffer.hasRemaining()){
+                if(channel.read(buffer) < 0)throw new IOException("Truncated catalog snapshot");
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        buffer.flip();
+        return decode(buffer);
+    }
+
+    /**
+     * Write this catalog to a file, replacing it atomically
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    void write(Path file) throws IOException{
+        Path parent = file.toAbsolutePath().getParent();
+        if(parent != null)Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent , file.getFileName().toString() , ".tmp");
+        try {
+            Files.write(temp , encode());
+            try {
+                Files.move(temp , file , StandardCopyOption.REPLACE_EXISTING , StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp , file , StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeString(DataOutputStream out , String value) throws IOException{
+        if(value == null){
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer){
+        int length = buffer.getShort();
+        if(length < 0)return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes , StandardCharsets.UTF_8);
+    }
+
+    private static void writeConstant(DataOutputStream out , Enum<?> value) throws IOException{
+        writeString(out , value == null ? null : value.name());
+    }
+
+    private static <E extends Enum<E>> E constant(Class<E> type , ByteBuffer buffer){
+        String name = readString(buffer);
+        return name == null ? null : Enum.valueOf(type , name);
+    }
+}
@@ -17,14 +17,15 @@
  */
 package xyz.deltaevo.jvultr;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import xyz.deltaevo.jvultr.annotation.Optional;
 import xyz.deltaevo.jvultr.api.*;
 import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.http.JVultrTransport;
+import xyz.deltaevo.jvultr.http.RateLimitedTransport;
+import xyz.deltaevo.jvultr.http.RetryingTransport;
 
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 /**
  * A class to communicate with Vultr API
@@ -37,13 +38,42 @@ public class JVultrClient {
      */
     private String apiKey;
 
+    /**
+     * Transport used to send requests
+     */
+    private JVultrTransport transport;
+
     /**
      * Create a new JVultrClient Instance to communicate with Vultr API
+     * <p>Requests are sent with the default transport and paced by a RateLimiter shared by every call of this client,
+     * and transient failures are retried with the default RetryPolicy</p>
      * @param apiKey the JVultr apiKey available in vultr Members Area
      * <p><a href="https://my.vultr.com/settings/#API" target="_blank">Vultr API Doc</a></p>
      */
     public JVultrClient(String apiKey){
+        this(apiKey , new RetryingTransport(new RateLimitedTransport(JVultrAPI.getTransport())));
+    }
+
+    /**
+     * Create a new JVultrClient Instance to communicate with Vultr API
+     * @param apiKey the JVultr apiKey available in vultr Members Area
+     * <p><a href="https://my.vultr.com/settings/#API" target="_blank">Vultr API Doc</a></p>
+     * @param transport transport used to send requests
+     * @see xyz.deltaevo.jvultr.http.URLConnectionTransport
+     * @see xyz.deltaevo.jvultr.http.HttpClientTransport
+     * @see RateLimitedTransport
+     */
+    public JVultrClient(String apiKey , JVultrTransport transport){
         this.apiKey = apiKey;
+        this.transport = transport;
+    }
+
+    /**
+     * Get the transport used by this client
+     * @return the transport
+     */
+    public JVultrTransport getTransport() {
+        return transport;
     }
 
     /**
@@ -54,10 +84,8 @@ public class JVultrClient {
      * @see JVultrAccountInfo
      */
     public JVultrAccountInfo getAccountInfo() throws JVultrException{
-        JsonParser parser = new JsonParser();
-        JsonElement response = parser.parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/account/info" ,apiKey));
-        if(response.isJsonObject())return new JVultrAccountInfo((JsonObject) response);
-        else return null;
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/account/info" , apiKey ,
+                JVultrParser.object(JVultrAccountInfo.BINDER) , UnaryOperator.identity());
     }
 
     /**
@@ -68,17 +96,8 @@ public class JVultrClient {
      * @see JVultrSnapshot
      */
     public HashMap<String , JVultrSnapshot> getSnapshots() throws JVultrException {
-        JsonParser parser = new JsonParser();
-        JsonElement response = parser.parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/snapshot/list" ,apiKey));
-        if(response.isJsonObject()){
-            HashMap<String , JVultrSnapshot> snapshots = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    snapshots.put(element.getKey() , new JVultrSnapshot((JsonObject)element.getValue()));
-            }
-            return snapshots;
-        }
-        return new HashMap<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/snapshot/list" , apiKey ,
+                JVultrParser.stringKeyed(JVultrSnapshot.BINDER) , HashMap::new);
     }
 
     /**
@@ -89,17 +108,8 @@ public class JVultrClient {
      * @see JVultrISO
      */
     public HashMap<Integer , JVultrISO> getISOs() throws JVultrException {
-        JsonParser parser = new JsonParser();
-        JsonElement response = parser.parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/iso/list" ,apiKey));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrISO> isos = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    isos.put(Integer.parseInt(element.getKey()) , new JVultrISO((JsonObject)element.getValue()));
-            }
-            return isos;
-        }
-        return new HashMap<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/iso/list" , apiKey ,
+                JVultrParser.intKeyed(JVultrISO.BINDER) , HashMap::new);
     }
 
     /**
@@ -110,17 +120,8 @@ public class JVultrClient {
      * @see JVultrScript
      */
     public HashMap<Integer , JVultrScript> getScripts() throws JVultrException {
-        JsonParser parser = new JsonParser();
-        JsonElement response = parser.parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/startupscript/list",apiKey));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrScript> scripts = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    scripts.put(Integer.parseInt(element.getKey()) , new JVultrScript((JsonObject)element.getValue()));
-            }
-            return scripts;
-        }
-        return new HashMap<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/startupscript/list" , apiKey ,
+                JVultrParser.intKeyed(JVultrScript.BINDER) , HashMap::new);
     }
 
     /**
@@ -132,7 +133,7 @@ public class JVultrClient {
     public void destroyScript(int id) throws JVultrException{
         HashMap<String , Object> params = new HashMap<>();
         params.put("SCRIPTID" , id);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/startupscript/destroy",apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/startupscript/destroy",apiKey , params);
     }
 
     /**
@@ -149,9 +150,9 @@ public class JVultrClient {
         params.put("name" , name);
         params.put("script" , script);
         params.put("type" ,type.name().toLowerCase());
-        JsonElement response = new JsonParser().parse(JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/startupscript/create" ,apiKey , params));
-        if(response.isJsonObject()){
-            return new JVultrScript(((JsonObject)response).get("SCRIPTID").getAsInt() , new Date() , new Date() , name , type , script);
+        int id = JVultrParser.intField(JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/startupscript/create" ,apiKey , params) , "SCRIPTID");
+        if(id != -1){
+            return new JVultrScript(id , new Date() , new Date() , name , type , script);
         }else return null;
     }
 
@@ -168,7 +169,7 @@ public class JVultrClient {
         params.put("SCRIPTID" , id);
         if(name != null)params.put("name" , name);
         if(script != null)params.put("script" , script);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/startupscript/destroy",apiKey, params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/startupscript/update",apiKey, params , true);
     }
 
     /**
@@ -191,17 +192,8 @@ public class JVultrClient {
      * @see JVultrScript
      */
     public HashMap<String , JVultrOS> getOsChangeListFor(JVultrServer server) throws JVultrException {
-        JsonParser parser = new JsonParser();
-        JsonElement response = parser.parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/server/os_change_list?SUBID=" + server.getId() ,apiKey));
-        if(response.isJsonObject()){
-            HashMap<String , JVultrOS> oss = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    oss.put(element.getKey() , new JVultrOS((JsonObject)element.getValue()));
-            }
-            return oss;
-        }
-        return new HashMap<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/server/os_change_list?SUBID=" + server.getId() , apiKey ,
+                JVultrParser.stringKeyed(JVultrOS.BINDER) , HashMap::new);
     }
 
     /**
@@ -214,16 +206,8 @@ public class JVultrClient {
      * @see JVultrAPI#getPlans()
      */
     public HashMap<Integer , JVultrPlan> getPlans() throws JVultrException{
-        JsonElement response = new JsonParser().parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/plans/list" ,apiKey));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrPlan> os = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    os.put(Integer.parseInt(element.getKey()) , new JVultrPlan((JsonObject)element.getValue()));
-            }
-            return os;
-        }
-        return new HashMap<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/plans/list" , apiKey ,
+                JVultrParser.intKeyed(JVultrPlan.BINDER) , HashMap::new);
     }
 
     /**
@@ -234,16 +218,20 @@ public class JVultrClient {
      * @see JVultrServer
      */
     public HashMap<Integer , JVultrServer> getSevers() throws JVultrException {
-        JsonElement response = new JsonParser().parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/server/list",apiKey));
-        if(response.isJsonObject()){
-            HashMap<Integer , JVultrServer> snapshots = new HashMap<>();
-            for(Map.Entry<String , JsonElement> element : ((JsonObject)response).entrySet()){
-                if(element.getValue().isJsonObject())
-                    snapshots.put(Integer.parseInt(element.getKey()) , new JVultrServer((JsonObject)element.getValue()));
-            }
-            return snapshots;
-        }
-        return new HashMap<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/server/list" , apiKey ,
+                JVultrParser.intKeyed(JVultrServer.BINDER) , HashMap::new);
+    }
+
+    /**
+     * List all active or pending virtual machines on the current account, decoding their fields on access.
+     * <p><a href="https://www.vultr.com/api/#server_server_list" target="_blank">Vultr API Doc</a></p>
+     * @return HashMap with the Vultr Server id and the LazyJVultrServer
+     * @throws JVultrException if an error Occurred
+     * @see LazyJVultrServer
+     */
+    public HashMap<Integer , LazyJVultrServer> getLazyServers() throws JVultrException {
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/server/list" , apiKey ,
+                JVultrParser.lazyServers() , HashMap::new);
     }
 
     /**
@@ -254,9 +242,8 @@ public class JVultrClient {
      * @see JVultrUserData
      */
     public JVultrUserData getUserData(int server) throws JVultrException{
-        JsonElement response = new JsonParser().parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/server/get_user_data?SUBID="+server,apiKey));
-        if(response.isJsonObject())return new JVultrUserData((JsonObject) response);
-        return null;
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/server/get_user_data?SUBID="+server , apiKey ,
+                JVultrParser.object(JVultrUserData.BINDER) , UnaryOperator.identity());
     }
 
     /**
@@ -267,39 +254,18 @@ public class JVultrClient {
      * @see JVultrDns
      */
     public List<JVultrDns> getDNSs() throws JVultrException{
-        JsonElement response = new JsonParser().parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/dns/list",apiKey));
-        if(response.isJsonArray()){
-            List<JVultrDns> dnss = new ArrayList<>();
-            for(JsonElement element : response.getAsJsonArray()){
-                if(element.isJsonObject())dnss.add(new JVultrDns((JsonObject) element));
-            }
-            return dnss;
-        }
-        return new ArrayList<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/dns/list" , apiKey ,
+                JVultrParser.array(JVultrDns.BINDER) , ArrayList::new);
     }
 
     public List<JVultrPlan> getUpgradePlanList(int serverId) throws JVultrException{
-        JsonElement response = new JsonParser().parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/server/upgrade_plan_list?SUBID=" + serverId,apiKey));
-        if(response.isJsonArray()){
-            List<JVultrPlan> servers = new ArrayList<>();
-            for(JsonElement element : response.getAsJsonArray()){
-                servers.add(JVultrCache.getCachedPlan(element.getAsInt()));
-            }
-            return servers;
-        }
-        return new ArrayList<>();
+        return JVultrParser.plans(JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/server/upgrade_plan_list?SUBID=" + serverId ,
+                apiKey , JVultrParser.ids() , int[]::clone));
     }
 
     public List<JVultrDnsRecord> getDNSRecords(String domain) throws JVultrException{
-        JsonElement response = new JsonParser().parse(JVultrAPI.get(JVultrAPI.ENDPOINT + "v1/dns/records?domain=" + domain,apiKey));
-        if(response.isJsonArray()){
-            List<JVultrDnsRecord> records = new ArrayList<>();
-            for(JsonElement element : response.getAsJsonArray()){
-                if(element.isJsonObject())records.add(new JVultrDnsRecord((JsonObject) element));
-            }
-            return records;
-        }
-        return new ArrayList<>();
+        return JVultrAPI.get(transport , JVultrAPI.ENDPOINT + "v1/dns/records?domain=" + domain , apiKey ,
+                JVultrParser.array(JVultrDnsRecord.BINDER) , ArrayList::new);
     }
 
     public List<JVultrDnsRecord> getDNSRecords(JVultrDns dns) throws JVultrException{
@@ -310,14 +276,14 @@ public class JVultrClient {
         HashMap<String , Object> params = new HashMap<>();
         params.put("domain" , domain);
         params.put("serverip" , ip);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/dns/create_domain",apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/dns/create_domain",apiKey , params);
         return new JVultrDns(domain , new Date());
     }
 
     public void deleteDns(String domain) throws JVultrException{
         HashMap<String , Object> params = new HashMap<>();
         params.put("domain" , domain);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/dns/delete_domain", apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/dns/delete_domain", apiKey , params);
     }
 
     public void createRecord(String domain ,String subdomain , JVultrDnsRecord.Type type,
@@ -330,33 +296,33 @@ public class JVultrClient {
         params.put("data" , data);
         if(ttl != null)params.put("ttl" , ttl);
         if(priority != null)params.put("priority" , priority);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/dns/create_record",apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/dns/create_record",apiKey , params);
     }
 
     public void deleteRecord(String domain , int id) throws JVultrException{
         HashMap<String , Object> params = new HashMap<>();
         params.put("domain" , domain);
         params.put("RECORDID" , id);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/dns/delete_record",apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/dns/delete_record",apiKey , params);
     }
 
     public void updateRecord(String domain , int id) throws JVultrException{
         HashMap<String , Object> params = new HashMap<>();
         params.put("domain" , domain);
         params.put("RECORDID" , id);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/dns/update_record",apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/dns/update_record",apiKey , params , true);
     }
 
     public void destroySnapshot(String id) throws JVultrException{
         HashMap<String , Object> params = new HashMap<>();
         params.put("SNAPSHOTID" , id);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/snapshot/destroy",apiKey , params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/snapshot/destroy",apiKey , params);
     }
 
     public void createSnapshot(int id) throws JVultrException{
         HashMap<String , Object> params = new HashMap<>();
         params.put("SUBID" , id);
-        System.out.println(JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/snapshot/create",apiKey, params));
+        System.out.println(JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/snapshot/create",apiKey, params));
     }
 
     public void destroySnapshot(JVultrSnapshot snapshot) throws JVultrException{
@@ -399,6 +365,29 @@ public class JVultrClient {
                                      @Optional String userData , @Optional Boolean notifyActivate ,
                                      @Optional Boolean ddosProtection, @Optional int subID,
                                      @Optional String host) throws JVultrException{
+        HashMap<String , Object> params = serverParameters(regionId , planId , osId , ipxeChainUrl , isoId , scriptId ,
+                snapshotId , enableIpv6 , enablePrivateNetwork , label , sshKeyIds , autoBackups , appId , userData ,
+                notifyActivate , ddosProtection , subID , host);
+        int id = JVultrParser.intField(JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/server/create", apiKey, params) , "SUBID");
+        if(id != -1){
+            return getSevers().get(id);
+        }else return null;
+    }
+
+    /**
+     * Build the parameters of a server creation request
+     * @return the request parameters
+     * @see #createServer(int, int, int, String, Integer, Integer, String, Boolean, Boolean, String, Integer, Boolean, Integer, String, Boolean, Boolean, int, String)
+     */
+    static HashMap<String , Object> serverParameters(int regionId , int planId , int osId ,
+                                                    String ipxeChainUrl , Integer isoId ,
+                                                    Integer scriptId , String snapshotId ,
+                                                    Boolean enableIpv6 , Boolean enablePrivateNetwork ,
+                                                    String label , Integer sshKeyIds ,
+                                                    Boolean autoBackups, Integer appId ,
+                                                    String userData , Boolean notifyActivate ,
+                                                    Boolean ddosProtection, int subID,
+                                                    String host){
         HashMap<String , Object> params = new HashMap<>();
         params.put("DCID" , regionId);
         params.put("VPSPLANID" , planId);
@@ -417,11 +406,8 @@ public class JVultrClient {
         if(notifyActivate != null)params.put("notify_activate",notifyActivate ? "yes" : "no");
         if(ddosProtection != null)params.put("ddos_protection",ddosProtection? "yes" : "no");
         if (subID != -1) params.put("floating_v4_SUBID", subID);
-		if (host != null) params.put("hostname", host);
-        JsonElement response = new JsonParser().parse(JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/server/create", apiKey, params));
-        if(response.isJsonObject()){
-            return getSevers().get(((JsonObject)response).get("SUBID").getAsInt());
-        }else return null;
+        if (host != null) params.put("hostname", host);
+        return params;
     }
 
     public JVultrServer createServer(JVultrRegion region, JVultrPlan plan , JVultrOS os ,
@@ -450,7 +436,7 @@ public class JVultrClient {
     public void destroyServer(int id) throws JVultrException {
         HashMap<String , Object> params = new HashMap<>();
         params.put("SUBID" , id);
-        JVultrAPI.post(JVultrAPI.ENDPOINT + "v1/server/destroy",apiKey, params);
+        JVultrAPI.post(transport , JVultrAPI.ENDPOINT + "v1/server/destroy",apiKey, params);
     }
 
     public void destroyServer(JVultrServer server) throws JVultrException{
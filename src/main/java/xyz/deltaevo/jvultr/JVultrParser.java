@@ -0,0 +1,266 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JsonBinder;
+import xyz.deltaevo.jvultr.api.LazyJVultrServer;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+import xyz.deltaevo.jvultr.http.ResponseHandler;
+import xyz.deltaevo.jvultr.utils.IntMap;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Parse Vultr API responses
+ * <p>Shared by JVultrAPI, JVultrClient and JVultrAsyncClient. Responses are read with a JsonReader straight from
+ * the body, each record is decoded by the {@link JsonBinder} of its model. Handlers reading the same response shape
+ * with the same binder are equal, so only requests producing the same value type are coalesced</p>
+ * @author DeltaEvolution
+ */
+final class JVultrParser {
+
+    private JVultrParser() {}
+
+    /**
+     * Parse a single object response
+     * @param binder binder of the value
+     * @param <T> value type
+     * @return handler returning the value or null if the response is not an object
+     */
+    static <T> ResponseHandler<T> object(JsonBinder<T> binder){
+        return new Handler<>("object" , binder , body -> {
+            JsonReader reader = new JsonReader(body);
+            if(peek(reader) != JsonToken.BEGIN_OBJECT)return null;
+            return binder.read(reader);
+        });
+    }
+
+    /**
+     * Parse an object response keyed by Vultr ids
+     * @param binder binder of the values
+     * @param <T> values type
+     * @return handler returning HashMap with the Vultr id and the value
+     */
+    static <T> ResponseHandler<HashMap<Integer , T>> intKeyed(JsonBinder<T> binder){
+        return new Handler<>("intKeyed" , binder , body -> {
+            JsonReader reader = new JsonReader(body);
+            HashMap<Integer , T> values = new HashMap<>();
+            if(peek(reader) == JsonToken.BEGIN_OBJECT){
+                reader.beginObject();
+                while(reader.hasNext()){
+                    int key = Integer.parseInt(reader.nextName());
+                    if(reader.peek() == JsonToken.BEGIN_OBJECT)values.put(key , binder.read(reader));
+                    else reader.skipValue();
+                }
+                reader.endObject();
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Parse an object response keyed by Vultr ids into a primitive int map
+     * @param binder binder of the values
+     * @param <T> values type
+     * @return handler returning IntMap with the Vultr id and the value
+     */
+    static <T> ResponseHandler<IntMap<T>> intMap(JsonBinder<T> binder){
+        return new Handler<>("intMap" , binder , body -> {
+            JsonReader reader = new JsonReader(body);
+            IntMap<T> values = new IntMap<>();
+            if(peek(reader) == JsonToken.BEGIN_OBJECT){
+                reader.beginObject();
+                while(reader.hasNext()){
+                    int key = Integer.parseInt(reader.nextName());
+                    if(reader.peek() == JsonToken.BEGIN_OBJECT)values.put(key , binder.read(reader));
+                    else reader.skipValue();
+                }
+                reader.endObject();
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Parse an object response keyed by Vultr string keys
+     * @param binder binder of the values
+     * @param <T> values type
+     * @return handler returning HashMap with the Vultr key and the value
+     */
+    static <T> ResponseHandler<HashMap<String , T>> stringKeyed(JsonBinder<T> binder){
+        return new Handler<>("stringKeyed" , binder , body -> {
+            JsonReader reader = new JsonReader(body);
+            HashMap<String , T> values = new HashMap<>();
+            if(peek(reader) == JsonToken.BEGIN_OBJECT){
+                reader.beginObject();
+                while(reader.hasNext()){
+                    String key = reader.nextName();
+                    if(reader.peek() == JsonToken.BEGIN_OBJECT)values.put(key , binder.read(reader));
+                    else reader.skipValue();
+                }
+                reader.endObject();
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Parse an array response
+     * @param binder binder of the values
+     * @param <T> values type
+     * @return handler returning List with the values
+     */
+    static <T> ResponseHandler<List<T>> array(JsonBinder<T> binder){
+        return new Handler<>("array" , binder , body -> {
+            JsonReader reader = new JsonReader(body);
+            List<T> values = new ArrayList<>();
+            if(peek(reader) == JsonToken.BEGIN_ARRAY){
+                reader.beginArray();
+                while(reader.hasNext()){
+                    if(reader.peek() == JsonToken.BEGIN_OBJECT)values.add(binder.read(reader));
+                    else reader.skipValue();
+                }
+                reader.endArray();
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Parse a server list into servers decoded on access
+     * @return handler returning HashMap with the Vultr Server id and the LazyJVultrServer
+     */
+    static ResponseHandler<HashMap<Integer , LazyJVultrServer>> lazyServers(){
+        return new Handler<>("lazyServers" , null , LazyJVultrServer::readAll);
+    }
+
+    /**
+     * Parse an array of Vultr ids
+     * <p>The ids are only read, resolve them with {@link #plans(int[])} once the response is closed</p>
+     * @return handler returning the ids
+     */
+    static ResponseHandler<int[]> ids(){
+        return new Handler<>("ids" , null , body -> {
+            JsonReader reader = new JsonReader(body);
+            int[] ids = new int[16];
+            int size = 0;
+            if(peek(reader) == JsonToken.BEGIN_ARRAY){
+                reader.beginArray();
+                while(reader.hasNext()){
+                    if(size == ids.length)ids = Arrays.copyOf(ids , size * 2);
+                    ids[size++] = reader.nextInt();
+                }
+                reader.endArray();
+            }
+            return Arrays.copyOf(ids , size);
+        });
+    }
+
+    /**
+     * Resolve plan ids through the cached plans
+     * <p>May reload the plans, so it must not run while a response is read</p>
+     * @param ids the plan ids
+     * @return List with the cached plans, null for the plans not in the catalog
+     */
+    static List<JVultrPlan> plans(int[] ids){
+        List<JVultrPlan> plans = new ArrayList<>(ids.length);
+        for(int id : ids)plans.add(JVultrCache.getCachedPlan(id));
+        return plans;
+    }
+
+    /**
+     * Get an int field of an object response
+     * @param response the response body
+     * @param field field name
+     * @return the field value or -1 if the response is not an object
+     * @throws JVultrException if the response is malformed or the object has no int value for this field
+     */
+    static int intField(String response , String field) throws JVultrException{
+        try {
+            JsonReader reader = new JsonReader(new StringReader(response));
+            if(peek(reader) != JsonToken.BEGIN_OBJECT)return -1;
+            reader.beginObject();
+            while(reader.hasNext()){
+                if(reader.nextName().equals(field))return reader.nextInt();
+                reader.skipValue();
+            }
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new RequestFailed(e);
+        }
+        throw new RequestFailed(new IOException("Response has no " + field + " field"));
+    }
+
+    /**
+     * Peek the first token of a response
+     * @param reader the response reader
+     * @return the first token or END_DOCUMENT if the response is empty
+     * @throws IOException if the response can't be read
+     */
+    private static JsonToken peek(JsonReader reader) throws IOException{
+        reader.setLenient(true);
+        try {
+            return reader.peek();
+        } catch (EOFException e) {
+            return JsonToken.END_DOCUMENT;
+        }
+    }
+
+    /**
+     * A response handler equal to the handlers of the same shape and binder
+     * @param <T> value type
+     */
+    private static final class Handler<T> implements ResponseHandler<T> {
+        private final String shape;
+        private final JsonBinder<?> binder;
+        private final ResponseHandler<T> handler;
+
+        private Handler(String shape , JsonBinder<?> binder , ResponseHandler<T> handler) {
+            this.shape = shape;
+            this.binder = binder;
+            this.handler = handler;
+        }
+
+        @Override
+        public T handle(Reader body) throws IOException {
+            return handler.handle(body);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Handler))return false;
+            Handler<?> other = (Handler<?>) o;
+            return shape.equals(other.shape) && binder == other.binder;
+        }
+
+        @Override
+        public int hashCode() {
+            return shape.hashCode() * 31 + System.identityHashCode(binder);
+        }
+    }
+}
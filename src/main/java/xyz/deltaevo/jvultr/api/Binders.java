@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Field readers shared by the model binders
+ * <p>They accept the same values as the JsonObject constructors: numbers may be quoted and booleans may be
+ * strings. Null values read as null, 0 or false</p>
+ * @author DeltaEvolution
+ */
+final class Binders {
+
+    private Binders() {}
+
+    static String string(JsonReader reader) throws IOException{
+        switch (reader.peek()){
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case BEGIN_ARRAY:
+            case BEGIN_OBJECT:
+                reader.skipValue();
+                return null;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    static int integer(JsonReader reader) throws IOException{
+        return toInt(string(reader));
+    }
+
+    static long longValue(JsonReader reader) throws IOException{
+        String value = string(reader);
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    static float floatValue(JsonReader reader) throws IOException{
+        return toFloat(string(reader));
+    }
+
+    static boolean bool(JsonReader reader) throws IOException{
+        if(reader.peek() == JsonToken.BOOLEAN)return reader.nextBoolean();
+        return Boolean.parseBoolean(string(reader));
+    }
+
+    static Date date(JsonReader reader) throws IOException{
+        return toDate(string(reader));
+    }
+
+    static int toInt(String value){
+        return value == null || value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    static float toFloat(String value){
+        return value == null || value.isEmpty() ? 0 : Float.parseFloat(value);
+    }
+
+    static Date toDate(String value){
+        if(value == null)return null;
+        try {
+            return JVultrDates.parse(value);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Read an int list
+     * @param reader the reader, positioned on the array
+     * @return the ints or an empty array if the value is not an array
+     * @throws IOException if the array can't be read
+     */
+    static int[] integers(JsonReader reader) throws IOException{
+        if(reader.peek() != JsonToken.BEGIN_ARRAY){
+            reader.skipValue();
+            return new int[0];
+        }
+        int[] values = new int[8];
+        int size = 0;
+        reader.beginArray();
+        while(reader.hasNext()){
+            if(size == values.length)values = Arrays.copyOf(values , size * 2);
+            values[size++] = integer(reader);
+        }
+        reader.endArray();
+        return Arrays.copyOf(values , size);
+    }
+
+    /**
+     * Lookup table of the Vultr names of an enum
+     * <p>Each constant is registered under its name, lower case and title case forms, with spaces in place of
+     * underscores for the latter two. Other names fall back to the constant named by the upper case form</p>
+     * @param <E> enum type
+     * @author DeltaEvolution
+     */
+    static final class EnumTable<E extends Enum<E>> {
+        private final Class<E> type;
+        private final Map<String , E> constants = new HashMap<>();
+
+        EnumTable(Class<E> type) {
+            this.type = type;
+            for(E constant : type.getEnumConstants()){
+                String name = constant.name();
+                String spaced = name.replace('_' , ' ');
+                constants.put(name , constant);
+                constants.put(spaced.toLowerCase() , constant);
+                constants.put(titleCase(spaced) , constant);
+            }
+        }
+
+        /**
+         * Get the constant of a Vultr name
+         * @param name the name
+         * @return the constant or null if the name is null
+         * @throws IllegalArgumentException if there is no constant for this name
+         */
+        E get(String name){
+            if(name == null)return null;
+            E constant = constants.get(name);
+            return constant != null ? constant : Enum.valueOf(type , name.replace(' ' , '_').toUpperCase());
+        }
+
+        E read(JsonReader reader) throws IOException{
+            return get(string(reader));
+        }
+
+        private static String titleCase(String name){
+            StringBuilder sb = new StringBuilder(name.length());
+            boolean start = true;
+            for(int i = 0 ; i < name.length() ; i++){
+                char c = name.charAt(i);
+                sb.append(start ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                start = c == ' ';
+            }
+            return sb.toString();
+        }
+    }
+}
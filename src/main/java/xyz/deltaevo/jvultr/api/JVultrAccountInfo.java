@@ -18,9 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.JVultrAPI;
+import com.google.gson.stream.JsonReader;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
 
@@ -59,13 +61,45 @@ public class JVultrAccountInfo {
         this.balance = value.get("balance").getAsFloat();
         this.pendingCharges = value.get("pending_charges").getAsFloat();
         try {
-            this.lastPayment = JVultrAPI.DATE_FORMAT.parse(value.get("last_payment_date").getAsString());
+            this.lastPayment = JVultrDates.parse(value.get("last_payment_date").getAsString());
         } catch (ParseException e) {
             e.printStackTrace();
         }
         this.lastPaymentAmount = value.get("last_payment_amount").getAsFloat();
     }
 
+    /**
+     * Binder reading an account info from a JSON stream
+     */
+    public static final JsonBinder<JVultrAccountInfo> BINDER = JVultrAccountInfo::read;
+
+    private JVultrAccountInfo() {}
+
+    private static JVultrAccountInfo read(JsonReader reader) throws IOException{
+        JVultrAccountInfo info = new JVultrAccountInfo();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "balance":
+                    info.balance = Binders.floatValue(reader);
+                    break;
+                case "pending_charges":
+                    info.pendingCharges = Binders.floatValue(reader);
+                    break;
+                case "last_payment_date":
+                    info.lastPayment = Binders.date(reader);
+                    break;
+                case "last_payment_amount":
+                    info.lastPaymentAmount = Binders.floatValue(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return info;
+    }
+
     /**
      * Get current account balance
      * @return current Balance
@@ -18,8 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
+
 /**
  * Represent a Vultr Application
  * @author DeltaEvolution
@@ -57,6 +60,38 @@ public class JVultrApplication {
         this.deployName = value.get("deploy_name").getAsString();
     }
 
+    /**
+     * Binder reading an application from a JSON stream
+     */
+    public static final JsonBinder<JVultrApplication> BINDER = JVultrApplication::read;
+
+    private JVultrApplication() {}
+
+    private static JVultrApplication read(JsonReader reader) throws IOException{
+        JVultrApplication application = new JVultrApplication();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "APPID":
+                    application.id = Binders.integer(reader);
+                    break;
+                case "name":
+                    application.name = Binders.string(reader);
+                    break;
+                case "short_name":
+                    application.shortName = Binders.string(reader);
+                    break;
+                case "deploy_name":
+                    application.deployName = Binders.string(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return application;
+    }
+
     /**
      * Get application id
      * @return application id
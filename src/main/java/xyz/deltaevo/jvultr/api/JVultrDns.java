@@ -18,9 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.JVultrAPI;
+import com.google.gson.stream.JsonReader;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
 
@@ -47,12 +49,38 @@ public class JVultrDns {
     public JVultrDns(JsonObject value){
         this.domain = value.get("domain").getAsString();
         try {
-            this.created = JVultrAPI.DATE_FORMAT.parse(value.get("date_created").getAsString());
+            this.created = JVultrDates.parse(value.get("date_created").getAsString());
         } catch (ParseException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Binder reading a dns domain from a JSON stream
+     */
+    public static final JsonBinder<JVultrDns> BINDER = JVultrDns::read;
+
+    private JVultrDns() {}
+
+    private static JVultrDns read(JsonReader reader) throws IOException{
+        JVultrDns dns = new JVultrDns();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "domain":
+                    dns.domain = Binders.string(reader);
+                    break;
+                case "date_created":
+                    dns.created = Binders.date(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return dns;
+    }
+
     /**
      * DON'T USE THIS CONSTRUCTOR !
      * @param domain dns domain
@@ -18,8 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
+
 /**
  * Represent a Vultr Dns Record
  * @author DeltaEvolution
@@ -75,6 +78,42 @@ public class JVultrDnsRecord {
         this.priority = value.get("priority").getAsInt();
     }
 
+    /**
+     * Binder reading a dns record from a JSON stream
+     */
+    public static final JsonBinder<JVultrDnsRecord> BINDER = JVultrDnsRecord::read;
+    private static final Binders.EnumTable<Type> TYPES = new Binders.EnumTable<>(Type.class);
+
+    private JVultrDnsRecord() {}
+
+    private static JVultrDnsRecord read(JsonReader reader) throws IOException{
+        JVultrDnsRecord record = new JVultrDnsRecord();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "RECORDID":
+                    record.id = Binders.integer(reader);
+                    break;
+                case "type":
+                    record.type = TYPES.read(reader);
+                    break;
+                case "name":
+                    record.name = Binders.string(reader);
+                    break;
+                case "data":
+                    record.data = Binders.string(reader);
+                    break;
+                case "priority":
+                    record.priority = Binders.integer(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return record;
+    }
+
     /**
      * Get dns record id
      * @return dns record id
@@ -18,7 +18,14 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.utils.Reflection;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import xyz.deltaevo.jvultr.utils.JVultrInet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Represent a Vultr IPV6 Network
@@ -26,15 +33,28 @@ import xyz.deltaevo.jvultr.utils.Reflection;
  */
 public class JVultrIPV6Network {
 
+    private static final int NETWORK = 1;
+    private static final int IP = 2;
+
+    /**
+     *IPv6 network high and low bits
+     */
+    private long networkHigh , networkLow;
+
+    /**
+     *IPv6 ip high and low bits
+     */
+    private long ipHigh , ipLow;
+
     /**
-     *IPv6 network
+     *IPv6 network and ip not in their canonical form
      */
-    private String network;
+    private String networkText , ipText;
 
     /**
-     *IPv6 ip
+     *Bits of the addresses stored as numbers
      */
-    private String ip;
+    private byte encoded;
 
     /**
      *Ipv6 size
@@ -46,12 +66,89 @@ public class JVultrIPV6Network {
      * @param value the JsonObject representing this object
      */
     public JVultrIPV6Network(JsonObject value){
-        if(value.has("v6_network") &&!value.get("v6_network").getAsString().isEmpty())
-            this.network = value.get("v6_network").getAsString();
-        if(value.has("v6_network_ip") && !value.get("v6_network_ip").getAsString().isEmpty())
-            this.ip = value.get("v6_main_ip").getAsString();
-        if(value.has("v6_network_size") &&!value.get("v6_network_size").getAsString().isEmpty())
-            this.size = value.get("v6_network_size").getAsInt();
+        set(string(value , "v6_network") , string(value , "v6_network_ip") , string(value , "v6_main_ip") ,
+                string(value , "v6_network_size"));
+    }
+
+    /**
+     * Binder reading an IPv6 network from a JSON stream
+     */
+    public static final JsonBinder<JVultrIPV6Network> BINDER = JVultrIPV6Network::read;
+
+    JVultrIPV6Network() {}
+
+    /**
+     * Read an IPv6 network array, skipping the values that are not objects
+     * @param reader the reader, positioned on the array
+     * @return the networks or an empty array if the value is not an array
+     * @throws IOException if the array can't be read
+     */
+    static JVultrIPV6Network[] readAll(JsonReader reader) throws IOException{
+        if(reader.peek() != JsonToken.BEGIN_ARRAY){
+            reader.skipValue();
+            return new JVultrIPV6Network[0];
+        }
+        List<JVultrIPV6Network> networks = new ArrayList<>();
+        reader.beginArray();
+        while(reader.hasNext()){
+            if(reader.peek() == JsonToken.BEGIN_OBJECT)networks.add(read(reader));
+            else reader.skipValue();
+        }
+        reader.endArray();
+        return networks.toArray(new JVultrIPV6Network[0]);
+    }
+
+    /**
+     * Set the fields from their raw values, empty values are ignored like in the JsonObject constructor
+     */
+    void set(String network , String networkIp , String mainIp , String size){
+        long[] address = new long[2];
+        if(network != null && !network.isEmpty()){
+            if(JVultrInet.parseIpv6(network , address)){
+                networkHigh = address[0];
+                networkLow = address[1];
+                encoded |= NETWORK;
+            }else networkText = network;
+        }
+        if(networkIp != null && !networkIp.isEmpty() && mainIp != null){
+            if(JVultrInet.parseIpv6(mainIp , address)){
+                ipHigh = address[0];
+                ipLow = address[1];
+                encoded |= IP;
+            }else ipText = mainIp;
+        }
+        if(size != null && !size.isEmpty())this.size = Integer.parseInt(size);
+    }
+
+    private static String string(JsonObject value , String name){
+        return value.has(name) && !value.get(name).isJsonNull() ? value.get(name).getAsString() : null;
+    }
+
+    private static JVultrIPV6Network read(JsonReader reader) throws IOException{
+        JVultrIPV6Network ipv6 = new JVultrIPV6Network();
+        String network = null , networkIp = null , mainIp = null , size = null;
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "v6_network":
+                    network = Binders.string(reader);
+                    break;
+                case "v6_network_ip":
+                    networkIp = Binders.string(reader);
+                    break;
+                case "v6_main_ip":
+                    mainIp = Binders.string(reader);
+                    break;
+                case "v6_network_size":
+                    size = Binders.string(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        ipv6.set(network , networkIp , mainIp , size);
+        return ipv6;
     }
 
     /**
@@ -59,7 +156,7 @@ public class JVultrIPV6Network {
      * @return IPv6 Network
      */
     public String getNetwork() {
-        return network;
+        return (encoded & NETWORK) != 0 ? JVultrInet.formatIpv6(networkHigh , networkLow) : networkText;
     }
 
     /**
@@ -67,7 +164,7 @@ public class JVultrIPV6Network {
      * @return IPv6 network ip
      */
     public String getIp() {
-        return ip;
+        return (encoded & IP) != 0 ? JVultrInet.formatIpv6(ipHigh , ipLow) : ipText;
     }
 
     /**
@@ -78,8 +175,23 @@ public class JVultrIPV6Network {
         return size;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)return true;
+        if(!(o instanceof JVultrIPV6Network))return false;
+        JVultrIPV6Network other = (JVultrIPV6Network) o;
+        return encoded == other.encoded && networkHigh == other.networkHigh && networkLow == other.networkLow &&
+                ipHigh == other.ipHigh && ipLow == other.ipLow && size == other.size &&
+                Objects.equals(networkText , other.networkText) && Objects.equals(ipText , other.ipText);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(networkHigh , networkLow , ipHigh , ipLow , networkText , ipText , size);
+    }
+
     @Override
     public String toString() {
-        return Reflection.toString(this);
+        return "network:" + getNetwork() + ",ip:" + getIp() + ",size:" + size;
     }
 }
@@ -18,9 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.JVultrAPI;
+import com.google.gson.stream.JsonReader;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
 
@@ -62,7 +64,7 @@ public class JVultrISO {
     public JVultrISO(JsonObject value){
         this.id = value.get("ISOID").getAsInt();
         try {
-            this.created = JVultrAPI.DATE_FORMAT.parse(value.get("date_created").getAsString());
+            this.created = JVultrDates.parse(value.get("date_created").getAsString());
         } catch (ParseException e) {
             e.printStackTrace();
         }
@@ -71,6 +73,41 @@ public class JVultrISO {
         this.md5 = value.get("md5sum").getAsString();
     }
 
+    /**
+     * Binder reading an iso from a JSON stream
+     */
+    public static final JsonBinder<JVultrISO> BINDER = JVultrISO::read;
+
+    private JVultrISO() {}
+
+    private static JVultrISO read(JsonReader reader) throws IOException{
+        JVultrISO iso = new JVultrISO();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "ISOID":
+                    iso.id = Binders.integer(reader);
+                    break;
+                case "date_created":
+                    iso.created = Binders.date(reader);
+                    break;
+                case "filename":
+                    iso.filename = Binders.string(reader);
+                    break;
+                case "size":
+                    iso.size = Binders.longValue(reader);
+                    break;
+                case "md5sum":
+                    iso.md5 = Binders.string(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return iso;
+    }
+
     /**
      * Get Vultr ISO id
      * @return iso id
@@ -18,8 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
+
 /**
  * Represent a Vultr OS
  * @author DeltaEvolution
@@ -72,6 +75,58 @@ public class JVultrOS {
         this.windows = value.get("windows").getAsBoolean();
     }
 
+    /**
+     * Binder reading an os from a JSON stream
+     */
+    public static final JsonBinder<JVultrOS> BINDER = JVultrOS::read;
+    private static final Binders.EnumTable<Arch> ARCHS = new Binders.EnumTable<>(Arch.class);
+
+    private JVultrOS() {}
+
+    private static JVultrOS read(JsonReader reader) throws IOException{
+        JVultrOS os = new JVultrOS();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "OSID":
+                    os.id = Binders.integer(reader);
+                    break;
+                case "name":
+                    os.name = Binders.string(reader);
+                    break;
+                case "arch":
+                    os.arch = ARCHS.read(reader);
+                    break;
+                case "family":
+                    os.family = Binders.string(reader);
+                    break;
+                case "windows":
+                    os.windows = Binders.bool(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return os;
+    }
+
+    /**
+     * DON'T USE THIS CONSTRUCTOR !
+     * @param id os id
+     * @param name os name
+     * @param arch os arch
+     * @param family os family
+     * @param windows os is windows ?
+     */
+    public JVultrOS(int id , String name , Arch arch , String family , boolean windows) {
+        this.id = id;
+        this.name = name;
+        this.arch = arch;
+        this.family = family;
+        this.windows = windows;
+    }
+
     /**
      * Get OS id
      * @return os id
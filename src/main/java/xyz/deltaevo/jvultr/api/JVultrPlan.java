@@ -20,9 +20,11 @@ package xyz.deltaevo.jvultr.api;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.JVultrCache;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -127,6 +129,87 @@ public class JVultrPlan {
         }
     }
 
+    /**
+     * Binder reading a plan from a JSON stream
+     */
+    public static final JsonBinder<JVultrPlan> BINDER = JVultrPlan::read;
+    private static final Binders.EnumTable<Type> TYPES = new Binders.EnumTable<>(Type.class);
+
+    private JVultrPlan() {}
+
+    private static JVultrPlan read(JsonReader reader) throws IOException{
+        JVultrPlan plan = new JVultrPlan();
+        plan.availableRegions = new JVultrRegion[0];
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "VPSPLANID":
+                    plan.id = Binders.integer(reader);
+                    break;
+                case "name":
+                    plan.name = Binders.string(reader);
+                    break;
+                case "vcpu_count":
+                    plan.cpus = Binders.integer(reader);
+                    break;
+                case "ram":
+                    plan.ram = Binders.integer(reader);
+                    break;
+                case "disk":
+                    plan.disk = Binders.integer(reader);
+                    break;
+                case "bandwidth":
+                    plan.bandwidth = Binders.floatValue(reader);
+                    break;
+                case "price_per_month":
+                    plan.pricePerMonth = Binders.floatValue(reader);
+                    break;
+                case "windows":
+                    plan.windows = Binders.bool(reader);
+                    break;
+                case "plan_type":
+                    plan.type = TYPES.read(reader);
+                    break;
+                case "available_locations":
+                    int[] locations = Binders.integers(reader);
+                    plan.availableRegions = new JVultrRegion[locations.length];
+                    for(int i = 0 ; i < locations.length ; i++)plan.availableRegions[i] = JVultrCache.getCachedRegion(locations[i]);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return plan;
+    }
+
+    /**
+     * DON'T USE THIS CONSTRUCTOR !
+     * @param id plan id
+     * @param name plan name
+     * @param cpus plan cpu amount
+     * @param ram plan ram amount
+     * @param disk plan disk space
+     * @param bandwidth plan bandwidth
+     * @param pricePerMonth plan price/month
+     * @param windows plan is windows ?
+     * @param type plan type
+     * @param availableRegions plan available regions
+     */
+    public JVultrPlan(int id , String name , int cpus , int ram , int disk , float bandwidth , float pricePerMonth ,
+                      boolean windows , Type type , JVultrRegion[] availableRegions) {
+        this.id = id;
+        this.name = name;
+        this.cpus = cpus;
+        this.ram = ram;
+        this.disk = disk;
+        this.bandwidth = bandwidth;
+        this.pricePerMonth = pricePerMonth;
+        this.windows = windows;
+        this.type = type;
+        this.availableRegions = availableRegions;
+    }
+
     /**
      * Get Vultr Plan id
      * @return plan id
@@ -18,8 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
+
 /**
  * Represent a Vultr Region
  * @author DeltaEvolution
@@ -82,6 +85,63 @@ public class JVultrRegion {
         this.ddosProtection = value.get("ddos_protection").getAsBoolean();
     }
 
+    /**
+     * Binder reading a region from a JSON stream
+     */
+    public static final JsonBinder<JVultrRegion> BINDER = JVultrRegion::read;
+    private static final Binders.EnumTable<Continent> CONTINENTS = new Binders.EnumTable<>(Continent.class);
+
+    private JVultrRegion() {}
+
+    private static JVultrRegion read(JsonReader reader) throws IOException{
+        JVultrRegion region = new JVultrRegion();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "DCID":
+                    region.id = Binders.integer(reader);
+                    break;
+                case "name":
+                    region.name = Binders.string(reader);
+                    break;
+                case "country":
+                    region.country = Binders.string(reader);
+                    break;
+                case "continent":
+                    region.continent = CONTINENTS.read(reader);
+                    break;
+                case "state":
+                    region.state = Binders.string(reader);
+                    break;
+                case "ddos_protection":
+                    region.ddosProtection = Binders.bool(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return region;
+    }
+
+    /**
+     * DON'T USE THIS CONSTRUCTOR !
+     * @param id region id
+     * @param name region name
+     * @param country region country
+     * @param continent region continent
+     * @param state region state
+     * @param ddosProtection region have ddos protection ?
+     */
+    public JVultrRegion(int id , String name , String country , Continent continent , String state , boolean ddosProtection) {
+        this.id = id;
+        this.name = name;
+        this.country = country;
+        this.continent = continent;
+        this.state = state;
+        this.ddosProtection = ddosProtection;
+    }
+
     /**
      * Get Vultr Region id
      * @return region id
@@ -18,9 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.JVultrAPI;
+import com.google.gson.stream.JsonReader;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
 
@@ -76,8 +78,8 @@ public class JVultrScript {
     public JVultrScript(JsonObject value){
         this.id = value.get("SCRIPTID").getAsInt();
         try {
-            this.created = JVultrAPI.DATE_FORMAT.parse(value.get("date_created").getAsString());
-            this.modified = JVultrAPI.DATE_FORMAT.parse(value.get("date_modified").getAsString());
+            this.created = JVultrDates.parse(value.get("date_created").getAsString());
+            this.modified = JVultrDates.parse(value.get("date_modified").getAsString());
         } catch (ParseException e) {
             e.printStackTrace();
         }
@@ -87,6 +89,45 @@ public class JVultrScript {
         this.script = value.get("script").getAsString();
     }
 
+    /**
+     * Binder reading a startup script from a JSON stream
+     */
+    public static final JsonBinder<JVultrScript> BINDER = JVultrScript::read;
+    private static final Binders.EnumTable<Type> TYPES = new Binders.EnumTable<>(Type.class);
+
+    private JVultrScript() {}
+
+    private static JVultrScript read(JsonReader reader) throws IOException{
+        JVultrScript script = new JVultrScript();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "SCRIPTID":
+                    script.id = Binders.integer(reader);
+                    break;
+                case "date_created":
+                    script.created = Binders.date(reader);
+                    break;
+                case "date_modified":
+                    script.modified = Binders.date(reader);
+                    break;
+                case "name":
+                    script.name = Binders.string(reader);
+                    break;
+                case "type":
+                    script.type = TYPES.read(reader);
+                    break;
+                case "script":
+                    script.script = Binders.string(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return script;
+    }
+
     /**
      * DON'T USE THIS CONSTRUCTOR !
      * @param id Vultr script id
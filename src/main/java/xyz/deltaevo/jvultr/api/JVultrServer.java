@@ -20,15 +20,22 @@ package xyz.deltaevo.jvultr.api;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.JVultrAPI;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.JVultrCache;
-import xyz.deltaevo.jvultr.utils.Reflection;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
+import xyz.deltaevo.jvultr.utils.JVultrInet;
+import xyz.deltaevo.jvultr.utils.StringTable;
 
+import java.io.IOException;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Represent a Vultr Server
+ * <p>The region and the plan are read as ids and resolved through JVultrCache on first access, so reading a server
+ * list never loads a catalog while the response is still open</p>
  * @author DeltaEvolution
  */
 public class JVultrServer {
@@ -61,6 +68,18 @@ public class JVultrServer {
         OK;
     }
 
+    private static final int MAIN_IP = 1;
+    private static final int INTERNAL_IP = 2;
+    private static final int NETMASK = 4;
+    private static final int GATEWAY = 8;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_ID = -1;
+
+    /**
+     * Strings of the low cardinality fields: os, ram and disk, tags are user defined and stay out of the table
+     */
+    static final StringTable STRINGS = new StringTable(4096);
+
     /**
      * Vultr Server id
      */
@@ -84,7 +103,7 @@ public class JVultrServer {
     /**
      * Server main ip
      */
-    private String mainIp;
+    private int mainIp;
 
     /**
      * Server vcpu amount
@@ -92,9 +111,14 @@ public class JVultrServer {
     private int vcpus;
 
     /**
-     * Server region
+     * Server region id
+     */
+    private int regionId = NO_ID;
+
+    /**
+     * Server region, resolved on first access
      */
-    private JVultrRegion region;
+    private volatile JVultrRegion region;
 
     /**
      * Server default password
@@ -102,9 +126,9 @@ public class JVultrServer {
     private String defaultPassword;
 
     /**
-     * Server creation date
+     * Server creation date in milliseconds since the epoch
      */
-    private Date created;
+    private long created = NO_DATE;
 
     /**
      * Server pending charges
@@ -134,12 +158,12 @@ public class JVultrServer {
     /**
      * Server netmask
      */
-    private String netmask;
+    private int netmask;
 
     /**
      * Server gateway
      */
-    private String gateway;
+    private int gateway;
 
     /**
      * Server power status
@@ -152,9 +176,14 @@ public class JVultrServer {
     private ServerState serverState;
 
     /**
-     * Server plan
+     * Server plan id
+     */
+    private int planId = NO_ID;
+
+    /**
+     * Server plan, resolved on first access
      */
-    private JVultrPlan plan;
+    private volatile JVultrPlan plan;
 
     /**
      * Server IPv6 network
@@ -174,7 +203,7 @@ public class JVultrServer {
     /**
      * Server internal network ip
      */
-    private String internalIp;
+    private int internalIp;
 
     /**
      * Server kvm url
@@ -191,34 +220,40 @@ public class JVultrServer {
      */
     private String tag;
 
+    /**
+     * Ips not in the dotted decimal form: main ip, internal ip, netmask and gateway
+     */
+    private String mainIpText , internalIpText , netmaskText , gatewayText;
+
+    /**
+     * Bits of the ips stored as numbers
+     */
+    private byte inet;
+
     /**
      * DON'T USE THIS CONSTRUCTOR !
      * @param value the JsonObject representing this object
      */
     public JVultrServer(JsonObject value) {
         this.id = value.get("SUBID").getAsInt();
-        this.os = value.get("os").getAsString();
-        this.ram = value.get("ram").getAsString();
-        this.disk = value.get("disk").getAsString();
-        this.mainIp = value.get("main_ip").getAsString();
+        this.os = STRINGS.intern(value.get("os").getAsString());
+        this.ram = STRINGS.intern(value.get("ram").getAsString());
+        this.disk = STRINGS.intern(value.get("disk").getAsString());
+        setMainIp(value.get("main_ip").getAsString());
         this.vcpus = value.get("vcpu_count").getAsInt();
-        this.region = JVultrCache.getCachedRegion(value.get("DCID").getAsInt());
+        this.regionId = value.get("DCID").getAsInt();
         this.defaultPassword = value.get("default_password").getAsString();
-        try {
-            this.created = JVultrAPI.DATE_FORMAT.parse(value.get("date_created").getAsString());
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
+        setCreated(value.get("date_created").getAsString());
         this.pendingCharges = value.get("pending_charges").getAsFloat();
         this.status = Status.valueOf(value.get("status").getAsString().toUpperCase());
         this.costPerMonth = value.get("cost_per_month").getAsFloat();
         this.currentBandwidth = value.get("current_bandwidth_gb").getAsFloat();
         this.allowedBandwidth = value.get("allowed_bandwidth_gb").getAsFloat();
-        this.netmask = value.get("netmask_v4").getAsString();
-        this.gateway = value.get("gateway_v4").getAsString();
+        setNetmask(value.get("netmask_v4").getAsString());
+        setGateway(value.get("gateway_v4").getAsString());
         this.powerStatus = PowerStatus.valueOf(value.get("power_status").getAsString().toUpperCase());
         this.serverState = ServerState.valueOf(value.get("server_state").getAsString().toUpperCase());
-        this.plan = JVultrCache.getCachedPlan(value.get("VPSPLANID").getAsInt());
+        this.planId = value.get("VPSPLANID").getAsInt();
         this.v6Network = new JVultrIPV6Network(value);
         JsonArray array = value.get("v6_networks").getAsJsonArray();
         this.v6Networks = new JVultrIPV6Network[array.size()];
@@ -230,12 +265,180 @@ public class JVultrServer {
             }
         }
         this.label = value.get("label").getAsString();
-        this.internalIp = value.get("internal_ip").getAsString();
+        setInternalIp(value.get("internal_ip").getAsString());
         this.kvmUrl = value.get("kvm_url").getAsString();
         this.autoBackups = value.get("auto_backups").getAsBoolean();
         this.tag = value.get("tag").getAsString();
     }
 
+    /**
+     * Binder reading a server from a JSON stream
+     */
+    public static final JsonBinder<JVultrServer> BINDER = JVultrServer::read;
+    static final Binders.EnumTable<Status> STATUSES = new Binders.EnumTable<>(Status.class);
+    static final Binders.EnumTable<PowerStatus> POWER_STATUSES = new Binders.EnumTable<>(PowerStatus.class);
+    static final Binders.EnumTable<ServerState> SERVER_STATES = new Binders.EnumTable<>(ServerState.class);
+
+    JVultrServer() {}
+
+    private static JVultrServer read(JsonReader reader) throws IOException{
+        JVultrServer server = new JVultrServer();
+        String v6Network = null , v6NetworkIp = null , v6MainIp = null , v6NetworkSize = null;
+        server.v6Networks = new JVultrIPV6Network[0];
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "SUBID":
+                    server.id = Binders.integer(reader);
+                    break;
+                case "os":
+                    server.os = STRINGS.intern(Binders.string(reader));
+                    break;
+                case "ram":
+                    server.ram = STRINGS.intern(Binders.string(reader));
+                    break;
+                case "disk":
+                    server.disk = STRINGS.intern(Binders.string(reader));
+                    break;
+                case "main_ip":
+                    server.setMainIp(Binders.string(reader));
+                    break;
+                case "vcpu_count":
+                    server.vcpus = Binders.integer(reader);
+                    break;
+                case "DCID":
+                    server.regionId = Binders.integer(reader);
+                    break;
+                case "default_password":
+                    server.defaultPassword = Binders.string(reader);
+                    break;
+                case "date_created":
+                    server.setCreated(Binders.string(reader));
+                    break;
+                case "pending_charges":
+                    server.pendingCharges = Binders.floatValue(reader);
+                    break;
+                case "status":
+                    server.status = STATUSES.read(reader);
+                    break;
+                case "cost_per_month":
+                    server.costPerMonth = Binders.floatValue(reader);
+                    break;
+                case "current_bandwidth_gb":
+                    server.currentBandwidth = Binders.floatValue(reader);
+                    break;
+                case "allowed_bandwidth_gb":
+                    server.allowedBandwidth = Binders.floatValue(reader);
+                    break;
+                case "netmask_v4":
+                    server.setNetmask(Binders.string(reader));
+                    break;
+                case "gateway_v4":
+                    server.setGateway(Binders.string(reader));
+                    break;
+                case "power_status":
+                    server.powerStatus = POWER_STATUSES.read(reader);
+                    break;
+                case "server_state":
+                    server.serverState = SERVER_STATES.read(reader);
+                    break;
+                case "VPSPLANID":
+                    server.planId = Binders.integer(reader);
+                    break;
+                case "v6_network":
+                    v6Network = Binders.string(reader);
+                    break;
+                case "v6_network_ip":
+                    v6NetworkIp = Binders.string(reader);
+                    break;
+                case "v6_main_ip":
+                    v6MainIp = Binders.string(reader);
+                    break;
+                case "v6_network_size":
+                    v6NetworkSize = Binders.string(reader);
+                    break;
+                case "v6_networks":
+                    server.v6Networks = JVultrIPV6Network.readAll(reader);
+                    break;
+                case "label":
+                    server.label = Binders.string(reader);
+                    break;
+                case "internal_ip":
+                    server.setInternalIp(Binders.string(reader));
+                    break;
+                case "kvm_url":
+                    server.kvmUrl = Binders.string(reader);
+                    break;
+                case "auto_backups":
+                    server.autoBackups = Binders.bool(reader);
+                    break;
+                case "tag":
+                    server.tag = Binders.string(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        server.v6Network = new JVultrIPV6Network();
+        server.v6Network.set(v6Network , v6NetworkIp , v6MainIp , v6NetworkSize);
+        return server;
+    }
+
+    private void setMainIp(String value){
+        long address = JVultrInet.parseIpv4(value);
+        if(address < 0)mainIpText = value;
+        else {
+            mainIp = (int) address;
+            inet |= MAIN_IP;
+        }
+    }
+
+    private void setInternalIp(String value){
+        long address = JVultrInet.parseIpv4(value);
+        if(address < 0)internalIpText = value;
+        else {
+            internalIp = (int) address;
+            inet |= INTERNAL_IP;
+        }
+    }
+
+    private void setNetmask(String value){
+        long address = JVultrInet.parseIpv4(value);
+        if(address < 0)netmaskText = value;
+        else {
+            netmask = (int) address;
+            inet |= NETMASK;
+        }
+    }
+
+    private void setGateway(String value){
+        long address = JVultrInet.parseIpv4(value);
+        if(address < 0)gatewayText = value;
+        else {
+            gateway = (int) address;
+            inet |= GATEWAY;
+        }
+    }
+
+    private void setCreated(String value){
+        if(value == null)return;
+        try {
+            created = JVultrDates.parseMillis(value);
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private String ipv4(int bit , int address , String text){
+        return (inet & bit) != 0 ? JVultrInet.formatIpv4(address) : text;
+    }
+
+    private boolean ipv4Equals(int bit , int address , String text , JVultrServer other , int otherAddress , String otherText){
+        if((inet & bit) != (other.inet & bit))return false;
+        return (inet & bit) != 0 ? address == otherAddress : Objects.equals(text , otherText);
+    }
+
     /**
      * Get Vultr Server id
      * @return server id
@@ -273,7 +476,7 @@ public class JVultrServer {
      * @return server main ip
      */
     public String getMainIp() {
-        return mainIp;
+        return ipv4(MAIN_IP , mainIp , mainIpText);
     }
 
     /**
@@ -286,12 +489,25 @@ public class JVultrServer {
 
     /**
      * Get server region
-     * @return server region
+     * @return server region or null if it is not in the cached regions
      */
     public JVultrRegion getRegion() {
+        JVultrRegion region = this.region;
+        if(region == null && regionId != NO_ID){
+            region = JVultrCache.getCachedRegion(regionId);
+            this.region = region;
+        }
         return region;
     }
 
+    /**
+     * Get server region id
+     * @return server region id or -1 if the server has none
+     */
+    public int getRegionId() {
+        return regionId;
+    }
+
     /**
      * Get server default password
      * @return default password
@@ -305,6 +521,14 @@ public class JVultrServer {
      * @return server creation date
      */
     public Date getCreated() {
+        return created == NO_DATE ? null : new Date(created);
+    }
+
+    /**
+     * Get server creation date in milliseconds since the epoch
+     * @return server creation date or Long.MIN_VALUE if unknown
+     */
+    public long getCreatedMillis() {
         return created;
     }
 
@@ -353,7 +577,7 @@ public class JVultrServer {
      * @return server netmask
      */
     public String getNetmask() {
-        return netmask;
+        return ipv4(NETMASK , netmask , netmaskText);
     }
 
     /**
@@ -361,7 +585,7 @@ public class JVultrServer {
      * @return server gateway
      */
     public String getGateway() {
-        return gateway;
+        return ipv4(GATEWAY , gateway , gatewayText);
     }
 
     /**
@@ -382,12 +606,25 @@ public class JVultrServer {
 
     /**
      * Get server plan
-     * @return server plan
+     * @return server plan or null if it is not in the cached plans
      */
     public JVultrPlan getPlan() {
+        JVultrPlan plan = this.plan;
+        if(plan == null && planId != NO_ID){
+            plan = JVultrCache.getCachedPlan(planId);
+            this.plan = plan;
+        }
         return plan;
     }
 
+    /**
+     * Get server plan id
+     * @return server plan id or -1 if the server has none
+     */
+    public int getPlanId() {
+        return planId;
+    }
+
     /**
      * Get server main v6 network
      * @return server main v6 network
@@ -417,7 +654,7 @@ public class JVultrServer {
      * @return server internal network ip
      */
     public String getInternalIp() {
-        return internalIp;
+        return ipv4(INTERNAL_IP , internalIp , internalIpText);
     }
 
     /**
@@ -444,8 +681,45 @@ public class JVultrServer {
         return tag;
     }
 
+    /**
+     * Compare the main ip of two servers without formatting them
+     * @param other the other server
+     * @return true if both servers have the same main ip
+     */
+    public boolean mainIpEquals(JVultrServer other){
+        return ipv4Equals(MAIN_IP , mainIp , mainIpText , other , other.mainIp , other.mainIpText);
+    }
+
+    /**
+     * Compare the internal network ip of two servers without formatting them
+     * @param other the other server
+     * @return true if both servers have the same internal network ip
+     */
+    public boolean internalIpEquals(JVultrServer other){
+        return ipv4Equals(INTERNAL_IP , internalIp , internalIpText , other , other.internalIp , other.internalIpText);
+    }
+
+    /**
+     * Compare the v6 networks of two servers without formatting them
+     * @param other the other server
+     * @return true if both servers have the same main v6 network and v6 networks
+     */
+    public boolean v6Equals(JVultrServer other){
+        return Objects.equals(v6Network , other.v6Network) && Arrays.equals(v6Networks , other.v6Networks);
+    }
+
     @Override
     public String toString() {
-        return Reflection.toString(this);
+        return "id:" + getId() + ",os:" + getOs() + ",ram:" + getRam() + ",disk:" + getDisk() +
+                ",mainIp:" + getMainIp() + ",vcpus:" + getVcpusCount() + ",region:" + getRegion() +
+                ",defaultPassword:" + getDefaultPassword() + ",created:" + getCreated() +
+                ",pendingCharges:" + getPendingCharges() + ",status:" + getStatus() +
+                ",costPerMonth:" + getCostPerMonth() + ",currentBandwidth:" + getCurrentBandwidth() +
+                ",allowedBandwidth:" + getAllowedBandwidth() + ",netmask:" + getNetmask() +
+                ",gateway:" + getGateway() + ",powerStatus:" + getPowerStatus() +
+                ",serverState:" + getServerState() + ",plan:" + getPlan() + ",v6Network:" + getV6Network() +
+                ",v6Networks:" + Arrays.toString(getV6Networks()) + ",label:" + getLabel() +
+                ",internalIp:" + getInternalIp() + ",kvmUrl:" + getKvmUrl() + ",autoBackups:" + hasAutoBackups() +
+                ",tag:" + getTag();
     }
 }
@@ -18,9 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
-import xyz.deltaevo.jvultr.JVultrAPI;
+import com.google.gson.stream.JsonReader;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
 
@@ -72,7 +74,7 @@ public class JVultrSnapshot {
     public JVultrSnapshot(JsonObject value) {
         this.id = value.get("SNAPSHOTID").getAsString();
         try {
-            this.created = JVultrAPI.DATE_FORMAT.parse(value.get("date_created").getAsString());
+            this.created = JVultrDates.parse(value.get("date_created").getAsString());
         } catch (ParseException e) {
             e.printStackTrace();
         }
@@ -81,6 +83,42 @@ public class JVultrSnapshot {
         this.status = Status.valueOf(value.get("status").getAsString().toUpperCase());
     }
 
+    /**
+     * Binder reading a snapshot from a JSON stream
+     */
+    public static final JsonBinder<JVultrSnapshot> BINDER = JVultrSnapshot::read;
+    private static final Binders.EnumTable<Status> STATUSES = new Binders.EnumTable<>(Status.class);
+
+    private JVultrSnapshot() {}
+
+    private static JVultrSnapshot read(JsonReader reader) throws IOException{
+        JVultrSnapshot snapshot = new JVultrSnapshot();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "SNAPSHOTID":
+                    snapshot.id = Binders.string(reader);
+                    break;
+                case "date_created":
+                    snapshot.created = Binders.date(reader);
+                    break;
+                case "description":
+                    snapshot.description = Binders.string(reader);
+                    break;
+                case "size":
+                    snapshot.size = Binders.longValue(reader);
+                    break;
+                case "status":
+                    snapshot.status = STATUSES.read(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return snapshot;
+    }
+
     /**
      * Get Vultr snapshot id
      * @return snapshot id
@@ -18,10 +18,11 @@
 package xyz.deltaevo.jvultr.api;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import xyz.deltaevo.jvultr.utils.Reflection;
 
-import javax.xml.bind.DatatypeConverter;
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.util.Base64;
 
 /**
  * Represent a Vultr UserData in Base64
@@ -42,6 +43,29 @@ public class JVultrUserData {
         userData = value.get("userdata").getAsString();
     }
 
+    /**
+     * Binder reading user data from a JSON stream
+     */
+    public static final JsonBinder<JVultrUserData> BINDER = JVultrUserData::read;
+
+    private JVultrUserData() {}
+
+    private static JVultrUserData read(JsonReader reader) throws IOException{
+        JVultrUserData data = new JVultrUserData();
+        reader.beginObject();
+        while(reader.hasNext()){
+            switch (reader.nextName()){
+                case "userdata":
+                    data.userData = Binders.string(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return data;
+    }
+
     /**
      * Get base64 encoded user data
      * @return encoded user data
@@ -56,8 +80,8 @@ public class JVultrUserData {
      */
     public String decode(){
         try {
-            return new String(DatatypeConverter.parseBase64Binary(new String(userData.getBytes("UTF-8"))));
-        } catch (UnsupportedEncodingException e) {
+            return new String(Base64.getMimeDecoder().decode(userData));
+        } catch (IllegalArgumentException e) {
             e.printStackTrace();
             return null;
         }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.api;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * Read a model object from a JSON stream
+ * <p>Every model exposes its binder as a BINDER constant. Binders read the fields in a single pass with a switch
+ * on their names, without building a JsonObject</p>
+ * @param <T> model type
+ * @author DeltaEvolution
+ */
+@FunctionalInterface
+public interface JsonBinder<T> {
+    /**
+     * Read an object
+     * @param reader the reader, positioned on the object
+     * @return the model object
+     * @throws IOException if the object can't be read
+     */
+    T read(JsonReader reader) throws IOException;
+}
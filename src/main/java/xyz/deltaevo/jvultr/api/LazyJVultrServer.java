@@ -0,0 +1,755 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+import xyz.deltaevo.jvultr.JVultrCache;
+import xyz.deltaevo.jvultr.utils.JVultrDates;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * A Vultr Server decoded on access
+ * <p>A server list response is read once into UTF-8 chunks shared by its servers. Each server only keeps the
+ * offsets of its field values in that text, nothing else is decoded or allocated while the list is parsed. A field
+ * is decoded the first time it is read and the value is kept for later reads</p>
+ * <p>Response handlers are given the body as a Reader, already decoded by the transport, so these chunks are the
+ * response chars encoded back to UTF-8 rather than the received bytes. The list is still decoded to chars once,
+ * which the offsets could only skip if the transports handed out the raw stream</p>
+ * <p>Servers read from the same response keep the whole response text alive. Use {@link #toServer()} to keep a
+ * server beyond the poll that read it</p>
+ * <p>Concurrent first reads of a field may decode it twice, the first value stored wins and is returned to both</p>
+ * @author DeltaEvolution
+ */
+public final class LazyJVultrServer {
+    private static final int ID = 0;
+    private static final int OS = 1;
+    private static final int RAM = 2;
+    private static final int DISK = 3;
+    private static final int MAIN_IP = 4;
+    private static final int VCPUS = 5;
+    private static final int REGION = 6;
+    private static final int DEFAULT_PASSWORD = 7;
+    private static final int CREATED = 8;
+    private static final int PENDING_CHARGES = 9;
+    private static final int STATUS = 10;
+    private static final int COST_PER_MONTH = 11;
+    private static final int CURRENT_BANDWIDTH = 12;
+    private static final int ALLOWED_BANDWIDTH = 13;
+    private static final int NETMASK = 14;
+    private static final int GATEWAY = 15;
+    private static final int POWER_STATUS = 16;
+    private static final int SERVER_STATE = 17;
+    private static final int PLAN = 18;
+    private static final int V6_NETWORK = 19;
+    private static final int V6_NETWORK_IP = 20;
+    private static final int V6_MAIN_IP = 21;
+    private static final int V6_NETWORK_SIZE = 22;
+    private static final int V6_NETWORKS = 23;
+    private static final int LABEL = 24;
+    private static final int INTERNAL_IP = 25;
+    private static final int KVM_URL = 26;
+    private static final int AUTO_BACKUPS = 27;
+    private static final int TAG = 28;
+    private static final int SLOTS = 29;
+
+    /**
+     * Vultr field names, by slot
+     */
+    private static final byte[][] NAMES = names("SUBID" , "os" , "ram" , "disk" , "main_ip" , "vcpu_count" , "DCID" ,
+            "default_password" , "date_created" , "pending_charges" , "status" , "cost_per_month" ,
+            "current_bandwidth_gb" , "allowed_bandwidth_gb" , "netmask_v4" , "gateway_v4" , "power_status" ,
+            "server_state" , "VPSPLANID" , "v6_network" , "v6_network_ip" , "v6_main_ip" , "v6_network_size" ,
+            "v6_networks" , "label" , "internal_ip" , "kvm_url" , "auto_backups" , "tag");
+
+    /**
+     * Stored in place of a decoded null value
+     */
+    private static final Object NULL = new Object();
+
+    private static final VarHandle VALUES;
+    private static final VarHandle VALUE = MethodHandles.arrayElementVarHandle(Object[].class);
+    static {
+        try {
+            VALUES = MethodHandles.lookup().findVarHandle(LazyJVultrServer.class , "values" , Object[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Response text, shared by the servers of a list
+     */
+    private final Text text;
+    /**
+     * Start and end offsets of the field values, by slot, -1 if the field is absent
+     */
+    private final int[] tokens = new int[SLOTS * 2];
+    /**
+     * Start and end offsets of the whole record
+     */
+    private int start , end;
+    private int id;
+    /**
+     * Decoded values by slot, allocated on the first decode
+     */
+    private volatile Object[] values;
+
+    private LazyJVultrServer(Text text) {
+        this.text = text;
+        Arrays.fill(tokens , -1);
+    }
+
+    /**
+     * Read a server list response, an object of servers keyed by their id
+     * @param body the response body
+     * @return HashMap with the Vultr Server id and the LazyJVultrServer, empty if the response is not an object
+     * @throws IOException if the response can't be read or is malformed
+     */
+    public static HashMap<Integer , LazyJVultrServer> readAll(Reader body) throws IOException{
+        Text text = Text.read(body);
+        HashMap<Integer , LazyJVultrServer> servers = new HashMap<>();
+        int i = skipWhitespace(text , 0);
+        if(i == text.length || text.at(i) != '{')return servers;
+        i = skipWhitespace(text , i + 1);
+        if(i < text.length && text.at(i) == '}')return servers;
+        while(true){
+            int keyEnd = stringEnd(text , i);
+            long key = digits(text , i + 1 , keyEnd - 1);
+            if(key == Long.MIN_VALUE)throw new NumberFormatException("Not a server id: " + text.string(i + 1 , keyEnd - 1));
+            i = skipWhitespace(text , expect(text , skipWhitespace(text , keyEnd) , ':'));
+            if(i < text.length && text.at(i) == '{'){
+                LazyJVultrServer server = new LazyJVultrServer(text);
+                i = server.scan(i);
+                servers.put((int) key , server);
+            }else i = skipValue(text , i);
+            i = skipWhitespace(text , i);
+            if(i < text.length && text.at(i) == '}')return servers;
+            i = skipWhitespace(text , expect(text , i , ','));
+        }
+    }
+
+    /**
+     * Record the field offsets of the record starting at an offset
+     * @param i offset of the opening brace
+     * @return offset following the closing brace
+     * @throws IOException if the record is malformed
+     */
+    private int scan(int i) throws IOException{
+        start = i;
+        i = skipWhitespace(text , i + 1);
+        if(i >= text.length || text.at(i) != '}'){
+            while(true){
+                int keyEnd = stringEnd(text , i);
+                int slot = slot(text , i + 1 , keyEnd - 1);
+                i = skipWhitespace(text , expect(text , skipWhitespace(text , keyEnd) , ':'));
+                int valueEnd = skipValue(text , i);
+                if(slot >= 0){
+                    tokens[slot * 2] = i;
+                    tokens[slot * 2 + 1] = valueEnd;
+                }
+                i = skipWhitespace(text , valueEnd);
+                if(i < text.length && text.at(i) == '}')break;
+                i = skipWhitespace(text , expect(text , i , ','));
+            }
+        }
+        end = i + 1;
+        id = integer(ID);
+        return end;
+    }
+
+    /**
+     * Decode the whole server
+     * @return a JVultrServer with the fields of this server, not sharing the response text
+     */
+    public JVultrServer toServer(){
+        try {
+            return JVultrServer.BINDER.read(new JsonReader(text.reader(start , end)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get Vultr Server id
+     * @return server id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get server os
+     * @return server os
+     */
+    public String getOs() {
+        return (String) value(OS);
+    }
+
+    /**
+     * Get server ram amount
+     * @return server ram amount
+     */
+    public String getRam() {
+        return (String) value(RAM);
+    }
+
+    /**
+     * Get server disk space
+     * @return disk space
+     */
+    public String getDisk() {
+        return (String) value(DISK);
+    }
+
+    /**
+     * Get server main ip
+     * @return server main ip
+     */
+    public String getMainIp() {
+        return (String) value(MAIN_IP);
+    }
+
+    /**
+     * Get vcpu count
+     * @return vcpu count
+     */
+    public int getVcpusCount() {
+        return (Integer) value(VCPUS);
+    }
+
+    /**
+     * Get server region
+     * @return server region
+     */
+    public JVultrRegion getRegion() {
+        return (JVultrRegion) value(REGION);
+    }
+
+    /**
+     * Get server default password
+     * @return default password
+     */
+    public String getDefaultPassword() {
+        return (String) value(DEFAULT_PASSWORD);
+    }
+
+    /**
+     * Get server creation date
+     * @return server creation date
+     */
+    public Date getCreated() {
+        long created = getCreatedMillis();
+        return created == Long.MIN_VALUE ? null : new Date(created);
+    }
+
+    /**
+     * Get server creation date in milliseconds since the epoch
+     * @return server creation date or Long.MIN_VALUE if unknown
+     */
+    public long getCreatedMillis() {
+        return (Long) value(CREATED);
+    }
+
+    /**
+     * Get server pending charges
+     * @return server pending charges
+     */
+    public float getPendingCharges() {
+        return (Float) value(PENDING_CHARGES);
+    }
+
+    /**
+     * Get server status
+     * @return server status
+     */
+    public JVultrServer.Status getStatus() {
+        return (JVultrServer.Status) value(STATUS);
+    }
+
+    /**
+     * Get server cost per month
+     * @return server cost per month
+     */
+    public float getCostPerMonth() {
+        return (Float) value(COST_PER_MONTH);
+    }
+
+    /**
+     * Get current server bandwidth
+     * @return current server bandwidth
+     */
+    public float getCurrentBandwidth() {
+        return (Float) value(CURRENT_BANDWIDTH);
+    }
+
+    /**
+     * Get server allowed bandwidth
+     * @return server allowed bandwidth
+     */
+    public float getAllowedBandwidth() {
+        return (Float) value(ALLOWED_BANDWIDTH);
+    }
+
+    /**
+     * Get server netmask
+     * @return server netmask
+     */
+    public String getNetmask() {
+        return (String) value(NETMASK);
+    }
+
+    /**
+     * Get server gateway
+     * @return server gateway
+     */
+    public String getGateway() {
+        return (String) value(GATEWAY);
+    }
+
+    /**
+     * Get server power status
+     * @return server power status
+     */
+    public JVultrServer.PowerStatus getPowerStatus() {
+        return (JVultrServer.PowerStatus) value(POWER_STATUS);
+    }
+
+    /**
+     * Get server state
+     * @return server state
+     */
+    public JVultrServer.ServerState getServerState() {
+        return (JVultrServer.ServerState) value(SERVER_STATE);
+    }
+
+    /**
+     * Get server plan
+     * @return server plan
+     */
+    public JVultrPlan getPlan() {
+        return (JVultrPlan) value(PLAN);
+    }
+
+    /**
+     * Get server main v6 network
+     * @return server main v6 network
+     */
+    public JVultrIPV6Network getV6Network() {
+        return (JVultrIPV6Network) value(V6_NETWORK);
+    }
+
+    /**
+     * Get server v6 networks
+     * @return server v6 networks
+     */
+    public JVultrIPV6Network[] getV6Networks() {
+        return ((JVultrIPV6Network[]) value(V6_NETWORKS)).clone();
+    }
+
+    /**
+     * Get server label
+     * @return server label
+     */
+    public String getLabel() {
+        return (String) value(LABEL);
+    }
+
+    /**
+     * Get server internal network ip
+     * @return server internal network ip
+     */
+    public String getInternalIp() {
+        return (String) value(INTERNAL_IP);
+    }
+
+    /**
+     * Get server kvm url
+     * @return server kvm url
+     */
+    public String getKvmUrl() {
+        return (String) value(KVM_URL);
+    }
+
+    /**
+     * Get server has auto backup
+     * @return server has auto backup
+     */
+    public boolean hasAutoBackups() {
+        return (Boolean) value(AUTO_BACKUPS);
+    }
+
+    /**
+     * Get server tag
+     * @return server tag
+     */
+    public String getTag() {
+        return (String) value(TAG);
+    }
+
+    @Override
+    public String toString() {
+        return toServer().toString();
+    }
+
+    /**
+     * Get the decoded value of a slot, decoding it on first access
+     * @param slot the slot
+     * @return the value
+     */
+    private Object value(int slot){
+        Object[] values = this.values;
+        if(values == null){
+            values = new Object[SLOTS];
+            Object[] witness = (Object[]) VALUES.compareAndExchange(this , null , values);
+            if(witness != null)values = witness;
+        }
+        Object value = VALUE.getVolatile(values , slot);
+        if(value == null){
+            Object decoded = decode(slot);
+            if(decoded == null)decoded = NULL;
+            Object witness = VALUE.compareAndExchange(values , slot , null , decoded);
+            value = witness != null ? witness : decoded;
+        }
+        return value == NULL ? null : value;
+    }
+
+    private Object decode(int slot){
+        switch (slot){
+            case OS:
+            case RAM:
+            case DISK:
+                return JVultrServer.STRINGS.intern(string(slot));
+            case TAG:
+                return string(slot);
+            case VCPUS:
+                return integer(slot);
+            case REGION:
+                return tokens[REGION * 2] < 0 ? null : JVultrCache.getCachedRegion(integer(slot));
+            case PLAN:
+                return tokens[PLAN * 2] < 0 ? null : JVultrCache.getCachedPlan(integer(slot));
+            case CREATED:
+                String created = string(slot);
+                if(created != null){
+                    try {
+                        return JVultrDates.parseMillis(created);
+                    } catch (ParseException e) {
+                        e.printStackTrace();
+                    }
+                }
+                return Long.MIN_VALUE;
+            case PENDING_CHARGES:
+            case COST_PER_MONTH:
+            case CURRENT_BANDWIDTH:
+            case ALLOWED_BANDWIDTH:
+                return Binders.toFloat(string(slot));
+            case STATUS:
+                return JVultrServer.STATUSES.get(string(slot));
+            case POWER_STATUS:
+                return JVultrServer.POWER_STATUSES.get(string(slot));
+            case SERVER_STATE:
+                return JVultrServer.SERVER_STATES.get(string(slot));
+            case V6_NETWORK:
+                JVultrIPV6Network network = new JVultrIPV6Network();
+                network.set(string(V6_NETWORK) , string(V6_NETWORK_IP) , string(V6_MAIN_IP) , string(V6_NETWORK_SIZE));
+                return network;
+            case V6_NETWORKS:
+                if(tokens[V6_NETWORKS * 2] < 0)return new JVultrIPV6Network[0];
+                try {
+                    return JVultrIPV6Network.readAll(reader(V6_NETWORKS));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            case AUTO_BACKUPS:
+                return Boolean.parseBoolean(string(slot));
+            default:
+                return string(slot);
+        }
+    }
+
+    /**
+     * Decode a field like Binders.string
+     * @param slot the field slot
+     * @return the field text or null if it is absent, null, an object or an array
+     */
+    private String string(int slot){
+        int from = tokens[slot * 2];
+        if(from < 0)return null;
+        int to = tokens[slot * 2 + 1];
+        switch (text.at(from)){
+            case 'n':
+            case '{':
+            case '[':
+                return null;
+            case '"':
+                for(int i = from + 1 ; i < to - 1 ; i++){
+                    if(text.at(i) == '\\'){
+                        try {
+                            return Binders.string(reader(slot));
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }
+                return text.string(from + 1 , to - 1);
+            default:
+                return text.string(from , to);
+        }
+    }
+
+    /**
+     * Decode an int field like Binders.integer, without allocating for plain numbers
+     * @param slot the field slot
+     * @return the field value or 0 if it is absent, null or empty
+     */
+    private int integer(int slot){
+        int from = tokens[slot * 2];
+        if(from < 0)return 0;
+        int to = tokens[slot * 2 + 1];
+        if(text.at(from) == '"'){
+            from++;
+            to--;
+        }
+        if(from >= to)return 0;
+        long value = digits(text , from , to);
+        return value != Long.MIN_VALUE ? (int) value : Binders.toInt(string(slot));
+    }
+
+    /**
+     * Parse a plain decimal int
+     * @param text the text
+     * @param from start offset
+     * @param to end offset
+     * @return the value or Long.MIN_VALUE if the text is not a plain int
+     */
+    private static long digits(Text text , int from , int to){
+        int i = from < to && text.at(from) == '-' ? from + 1 : from;
+        if(i == to || to - i > 10)return Long.MIN_VALUE;
+        long value = 0;
+        for(int j = i ; j < to ; j++){
+            byte c = text.at(j);
+            if(c < '0' || c > '9')return Long.MIN_VALUE;
+            value = value * 10 + c - '0';
+        }
+        value = i > from ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    private JsonReader reader(int slot){
+        int from = tokens[slot * 2];
+        JsonReader reader = new JsonReader(text.reader(from , tokens[slot * 2 + 1]));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private static int slot(Text text , int from , int to){
+        int length = to - from;
+        for(int slot = 0 ; slot < SLOTS ; slot++){
+            byte[] name = NAMES[slot];
+            if(name.length != length)continue;
+            int i = 0;
+            while(i < length && name[i] == text.at(from + i))i++;
+            if(i == length)return slot;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(Text text , int i){
+        while(i < text.length){
+            byte c = text.at(i);
+            if(c != ' ' && c != '\t' && c != '\n' && c != '\r')break;
+            i++;
+        }
+        return i;
+    }
+
+    private static int expect(Text text , int i , char c) throws IOException{
+        if(i >= text.length || text.at(i) != c)throw malformed(i);
+        return i + 1;
+    }
+
+    /**
+     * Find the end of a string
+     * @param text the text
+     * @param i offset of the opening quote
+     * @return offset following the closing quote
+     * @throws IOException if there is no string at this offset
+     */
+    private static int stringEnd(Text text , int i) throws IOException{
+        if(i >= text.length || text.at(i) != '"')throw malformed(i);
+        for(int j = i + 1 ; j < text.length ; j++){
+            byte c = text.at(j);
+            if(c == '\\')j++;
+            else if(c == '"')return j + 1;
+        }
+        throw malformed(i);
+    }
+
+    /**
+     * Find the end of a value
+     * @param text the text
+     * @param i offset of the value
+     * @return offset following the value
+     * @throws IOException if there is no value at this offset
+     */
+    private static int skipValue(Text text , int i) throws IOException{
+        if(i >= text.length)throw malformed(i);
+        byte c = text.at(i);
+        if(c == '"')return stringEnd(text , i);
+        if(c == '{' || c == '['){
+            int depth = 0;
+            for(int j = i ; j < text.length ; ){
+                c = text.at(j);
+                if(c == '"'){
+                    j = stringEnd(text , j);
+                    continue;
+                }
+                if(c == '{' || c == '[')depth++;
+                else if((c == '}' || c == ']') && --depth == 0)return j + 1;
+                j++;
+            }
+            throw malformed(i);
+        }
+        int j = i;
+        while(j < text.length && ",:}] \t\n\r".indexOf(text.at(j)) < 0)j++;
+        if(j == i)throw malformed(i);
+        return j;
+    }
+
+    private static MalformedJsonException malformed(int offset){
+        return new MalformedJsonException("Malformed server list at offset " + offset);
+    }
+
+    private static byte[][] names(String... names){
+        byte[][] bytes = new byte[names.length][];
+        for(int i = 0 ; i < names.length ; i++)bytes[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+        return bytes;
+    }
+
+    /**
+     * A response text stored as UTF-8 in fixed size chunks, so reading it never copies what was already read
+     * <p>JSON structure characters are ASCII and never appear inside a multi-byte UTF-8 sequence, so the text can be
+     * scanned byte by byte</p>
+     */
+    private static final class Text {
+        private static final int SHIFT = 13;
+        private static final int CHUNK = 1 << SHIFT;
+        private static final int MASK = CHUNK - 1;
+
+        private byte[][] chunks = new byte[8][];
+        private int length;
+
+        byte at(int i){
+            return chunks[i >>> SHIFT][i & MASK];
+        }
+
+        /**
+         * Decode a range of the text
+         * @param from start offset
+         * @param to end offset
+         * @return the decoded range
+         */
+        String string(int from , int to){
+            if(from >>> SHIFT == (to - 1) >>> SHIFT || from == to)
+                return new String(chunks[from >>> SHIFT] , from & MASK , to - from , StandardCharsets.UTF_8);
+            return new String(bytes(from , to) , StandardCharsets.UTF_8);
+        }
+
+        Reader reader(int from , int to){
+            return new InputStreamReader(new ByteArrayInputStream(bytes(from , to)) , StandardCharsets.UTF_8);
+        }
+
+        private byte[] bytes(int from , int to){
+            byte[] bytes = new byte[to - from];
+            for(int i = from ; i < to ; ){
+                int chunk = i >>> SHIFT , offset = i & MASK;
+                int count = Math.min(CHUNK - offset , to - i);
+                System.arraycopy(chunks[chunk] , offset , bytes , i - from , count);
+                i += count;
+            }
+            return bytes;
+        }
+
+        private void put(int b){
+            int chunk = length >>> SHIFT;
+            if(chunk == chunks.length)chunks = Arrays.copyOf(chunks , chunk * 2);
+            if(chunks[chunk] == null)chunks[chunk] = new byte[CHUNK];
+            chunks[chunk][length & MASK] = (byte) b;
+            length++;
+        }
+
+        private void putCodePoint(int c){
+            if(c < 0x80)put(c);
+            else if(c < 0x800){
+                put(0xC0 | c >>> 6);
+                put(0x80 | c & 0x3F);
+            }else if(c < 0x10000){
+                put(0xE0 | c >>> 12);
+                put(0x80 | c >>> 6 & 0x3F);
+                put(0x80 | c & 0x3F);
+            }else {
+                put(0xF0 | c >>> 18);
+                put(0x80 | c >>> 12 & 0x3F);
+                put(0x80 | c >>> 6 & 0x3F);
+                put(0x80 | c & 0x3F);
+            }
+        }
+
+        /**
+         * Read a whole body, unpaired surrogates are replaced by '?' like String.getBytes does
+         * @param body the body
+         * @return the text
+         * @throws IOException if the body can't be read
+         */
+        static Text read(Reader body) throws IOException{
+            Text text = new Text();
+            char[] buffer = new char[4096];
+            char high = 0;
+            int read;
+            while((read = body.read(buffer)) != -1){
+                for(int i = 0 ; i < read ; i++){
+                    char c = buffer[i];
+                    if(high != 0){
+                        if(Character.isLowSurrogate(c)){
+                            text.putCodePoint(Character.toCodePoint(high , c));
+                            high = 0;
+                            continue;
+                        }
+                        text.put('?');
+                        high = 0;
+                    }
+                    if(Character.isHighSurrogate(c))high = c;
+                    else text.putCodePoint(Character.isLowSurrogate(c) ? '?' : c);
+                }
+            }
+            if(high != 0)text.put('?');
+            return text;
+        }
+    }
+}
@@ -22,11 +22,36 @@ package xyz.deltaevo.jvultr.exception;
  * @author DeltaEvolution
  */
 public class RequestFailed extends JVultrException {
+    /**
+     * Http status of the response, -1 if the request failed before a status was read
+     */
+    private final int status;
+
     public RequestFailed() {
         super("Request failed", 412);
+        this.status = 412;
     }
 
     public RequestFailed(Exception ex) {
         super("Request failed", 412 , ex);
+        this.status = -1;
+    }
+
+    /**
+     * Create a RequestFailed for an error status Vultr API doesn't document
+     * @param status the http status of the response
+     * @param ex the cause
+     */
+    public RequestFailed(int status , Exception ex) {
+        super("Request failed", status , ex);
+        this.status = status;
+    }
+
+    /**
+     * Get the http status of the failed response
+     * @return the http status, -1 if the request failed before a status was read
+     */
+    public int getStatus() {
+        return status;
     }
 }
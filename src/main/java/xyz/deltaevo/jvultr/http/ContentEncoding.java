@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Negotiate and decode compressed responses
+ * @author DeltaEvolution
+ */
+final class ContentEncoding {
+
+    /**
+     * Accept-Encoding header value sent with every request
+     */
+    static final String ACCEPTED = "gzip, deflate";
+
+    private ContentEncoding() {}
+
+    /**
+     * Wrap a response body to decompress it
+     * <p>The returned stream must be closed to release the native memory of the decompressor</p>
+     * @param body the raw body
+     * @param encoding the response Content-Encoding header, may be null
+     * @return the decompressed body
+     * @throws IOException if the body can't be read
+     */
+    static InputStream decode(InputStream body , String encoding) throws IOException{
+        if(encoding == null)return body;
+        switch (encoding.trim().toLowerCase(Locale.ROOT)){
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return inflate(body);
+            default:
+                return body;
+        }
+    }
+
+    /**
+     * Inflate a deflate body, zlib wrapped as the RFC requires or raw as some servers send it
+     * @param body the raw body
+     * @return the inflated body
+     * @throws IOException if the body can't be read
+     */
+    private static InputStream inflate(InputStream body) throws IOException{
+        BufferedInputStream in = new BufferedInputStream(body);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        boolean zlib = first != -1 && second != -1 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+        return new InflatingStream(in , new Inflater(!zlib));
+    }
+
+    /**
+     * An InflaterInputStream ending its Inflater when closed
+     * <p>InflaterInputStream only ends the Inflaters it creates itself</p>
+     */
+    private static final class InflatingStream extends InflaterInputStream {
+
+        private InflatingStream(InputStream in , Inflater inflater) {
+            super(in , inflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A JVultrTransport running the blocking requests of another transport on an executor
+ * <p>Used with {@link #newVirtualThreadExecutor()} every asynchronous call gets its own virtual thread, so thousands
+ * of concurrent bulk operations only cost a few carrier threads. Pair it with an HttpClientTransport: its blocking
+ * send parks the virtual thread instead of pinning the carrier</p>
+ * @author DeltaEvolution
+ */
+public class ExecutorTransport implements JVultrTransport {
+
+    /**
+     * Transport sending the requests
+     */
+    private final JVultrTransport delegate;
+
+    /**
+     * Executor running the requests
+     */
+    private final Executor executor;
+
+    /**
+     * Create a new ExecutorTransport
+     * @param delegate transport sending the requests
+     * @param executor executor running the requests
+     */
+    public ExecutorTransport(JVultrTransport delegate , Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Create a new ExecutorTransport running an HttpClientTransport on virtual threads
+     * @return the new ExecutorTransport
+     * @see #newVirtualThreadExecutor()
+     */
+    public static ExecutorTransport virtualThreads(){
+        return new ExecutorTransport(new HttpClientTransport() , newVirtualThreadExecutor());
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task
+     * <p>Falls back to a cached pool of daemon platform threads on Java versions without virtual threads</p>
+     * @return the new executor
+     */
+    public static ExecutorService newVirtualThreadExecutor(){
+        MethodHandle factory;
+        try {
+            factory = MethodHandles.publicLookup()
+                    .findStatic(Executors.class , "newVirtualThreadPerTaskExecutor" , MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return newPlatformThreadExecutor();
+        }
+        try {
+            return (ExecutorService) factory.invoke();
+        } catch (UnsupportedOperationException e) {
+            // Java 19 and 20 only have virtual threads as a preview feature
+            return newPlatformThreadExecutor();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(){
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task , "JVultr-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the transport sending the requests
+     * @return the transport
+     */
+    public JVultrTransport getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the executor running the requests
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+        return delegate.execute(request , handler);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(JVultrRequest request , ResponseHandler<T> handler) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return delegate.execute(request , handler);
+            } catch (JVultrException e) {
+                throw new CompletionException(e);
+            }
+        } , executor);
+    }
+}
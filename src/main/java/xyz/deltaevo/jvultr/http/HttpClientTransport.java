@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A JVultrTransport using java.net.http HttpClient
+ * <p>HTTP/2 is negotiated when the server supports it, so concurrent callers share a single
+ * multiplexed connection instead of opening one socket each</p>
+ * <p>{@link #executeAsync(JVultrRequest, ResponseHandler)} is fully non-blocking. Responses are requested
+ * compressed and decompressed while they are read</p>
+ * @author DeltaEvolution
+ */
+public class HttpClientTransport implements JVultrTransport {
+
+    /**
+     * Default connect timeout
+     */
+    public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * The underlying client
+     */
+    private final HttpClient client;
+
+    /**
+     * Create a new HttpClientTransport preferring HTTP/2
+     */
+    public HttpClientTransport() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build());
+    }
+
+    /**
+     * Create a new HttpClientTransport
+     * @param client the HttpClient to use
+     */
+    public HttpClientTransport(HttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Get the underlying client
+     * @return the HttpClient
+     */
+    public HttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+        try {
+            HttpResponse<InputStream> response = client.send(toHttpRequest(request) , HttpResponse.BodyHandlers.ofInputStream());
+            try(InputStream body = response.body()){
+                checkStatus(request , response.statusCode());
+                try(InputStream decoded = decode(response , body)){
+                    return handler.handle(new InputStreamReader(decoded , StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException ex) {
+            throw new RequestFailed(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RequestFailed(ex);
+        }
+    }
+
+    /**
+     * Send a request without blocking
+     * <p>The body is received without blocking any thread, then read by the handler from memory</p>
+     * @param request the request to send
+     * @param handler reads the response body
+     * @param <T> type of the value read
+     * @return a future completed with the value read or exceptionally with a JVultrException
+     */
+    @Override
+    public <T> CompletableFuture<T> executeAsync(JVultrRequest request , ResponseHandler<T> handler) {
+        return client.sendAsync(toHttpRequest(request) , HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response , error) -> {
+                    if(error != null){
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        throw new CompletionException(cause instanceof Exception ? new RequestFailed((Exception) cause) : cause);
+                    }
+                    try {
+                        checkStatus(request , response.statusCode());
+                        try(InputStream body = decode(response , new ByteArrayInputStream(response.body()))){
+                            return handler.handle(new InputStreamReader(body , StandardCharsets.UTF_8));
+                        }
+                    } catch (JVultrException e) {
+                        throw new CompletionException(e);
+                    } catch (IOException e) {
+                        throw new CompletionException(new RequestFailed(e));
+                    }
+                });
+    }
+
+    /**
+     * Build the java.net.http request for a JVultrRequest
+     * @param request the request
+     * @return the HttpRequest
+     */
+    HttpRequest toHttpRequest(JVultrRequest request){
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+                .header("Accept-Encoding" , ContentEncoding.ACCEPTED);
+        if(request.getApiKey() != null)
+            builder.header("API-Key" , request.getApiKey());
+        if(request.getMethod().equals("POST")){
+            if(request.getParameters() != null){
+                builder.header("Content-Type" , "application/x-www-form-urlencoded; charset=utf-8");
+                builder.POST(HttpRequest.BodyPublishers.ofString(request.getParameters() , StandardCharsets.UTF_8));
+            }else builder.POST(HttpRequest.BodyPublishers.noBody());
+        }else builder.method(request.getMethod() , HttpRequest.BodyPublishers.noBody());
+        return builder.build();
+    }
+
+    /**
+     * Decompress a response body
+     * @param response the response
+     * @param body the raw body
+     * @return the decompressed body
+     * @throws IOException if the body can't be read
+     */
+    private static InputStream decode(HttpResponse<?> response , InputStream body) throws IOException{
+        return ContentEncoding.decode(body , response.headers().firstValue("Content-Encoding").orElse(null));
+    }
+
+    /**
+     * Throw the JVultr exception matching a response status
+     * @param request the request
+     * @param code http status
+     * @throws JVultrException if the status is an error
+     */
+    static void checkStatus(JVultrRequest request , int code) throws JVultrException{
+        if(code == 200)return;
+        JVultrException error = HttpErrors.forStatus(request , code);
+        if(error != null)throw error;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.*;
+
+import java.io.IOException;
+
+/**
+ * Map Vultr http status to JVultr exceptions
+ * @author DeltaEvolution
+ */
+final class HttpErrors {
+
+    private HttpErrors() {}
+
+    /**
+     * Get the exception for a response status
+     * <p>An error status Vultr API doesn't document is a RequestFailed caused by an IOException and carrying the
+     * status, so every transport reports it the same way and retries can tell it from a transport failure</p>
+     * @param request the request
+     * @param code http status
+     * @return the exception to throw or null if this status is not an error
+     */
+    static JVultrException forStatus(JVultrRequest request , int code){
+        switch (code){
+            case 400 : return new InvalidAPILocation(request.getUrl());
+            case 403 : return new InvalidAPIKey();
+            case 405 : return new InvalidHTTPMethod(request.getMethod() , request.getUrl());
+            case 412 : return new RequestFailed();
+            case 500 : return new InternalServerError();
+            case 503 : return new RateLimitExceeded();
+            default: return code >= 400 ? new RequestFailed(code , new IOException("Server returned HTTP status " + code
+                    + " for " + request.getUrl())) : null;
+        }
+    }
+}
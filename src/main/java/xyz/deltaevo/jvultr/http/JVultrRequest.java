@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+/**
+ * Represent a request to the Vultr API
+ * @author DeltaEvolution
+ */
+public final class JVultrRequest {
+
+    /**
+     * Http method
+     */
+    private final String method;
+
+    /**
+     * Request url
+     */
+    private final String url;
+
+    /**
+     * Vultr api key, null for public endpoints
+     */
+    private final String apiKey;
+
+    /**
+     * Url encoded body, null if none
+     */
+    private final String parameters;
+
+    /**
+     * Sending this request twice has the same effect as sending it once
+     */
+    private final boolean idempotent;
+
+    private JVultrRequest(String method , String url , String apiKey , String parameters , boolean idempotent) {
+        this.method = method;
+        this.url = url;
+        this.apiKey = apiKey;
+        this.parameters = parameters;
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Create a new GET request
+     * @param url Url to send the request
+     * @param apiKey Vultr api key or null
+     * @return the request
+     */
+    public static JVultrRequest get(String url , String apiKey){
+        return new JVultrRequest("GET" , url , apiKey , null , true);
+    }
+
+    /**
+     * Create a new POST request
+     * @param url Url to send the request
+     * @param apiKey Vultr api key or null
+     * @param parameters url encoded parameters or null
+     * @return the request
+     */
+    public static JVultrRequest post(String url , String apiKey , String parameters){
+        return post(url , apiKey , parameters , false);
+    }
+
+    /**
+     * Create a new POST request
+     * @param url Url to send the request
+     * @param apiKey Vultr api key or null
+     * @param parameters url encoded parameters or null
+     * @param idempotent if sending this request twice has the same effect as sending it once
+     * @return the request
+     */
+    public static JVultrRequest post(String url , String apiKey , String parameters , boolean idempotent){
+        return new JVultrRequest("POST" , url , apiKey , parameters , idempotent);
+    }
+
+    /**
+     * Get http method
+     * @return http method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Get request url
+     * @return request url
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Get Vultr api key
+     * @return api key or null
+     */
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    /**
+     * Get url encoded parameters
+     * @return parameters or null
+     */
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Sending this request twice has the same effect as sending it once ?
+     * <p>Always true for GET requests</p>
+     * @return if this request is idempotent
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    @Override
+    public String toString() {
+        return method + ' ' + url;
+    }
+}
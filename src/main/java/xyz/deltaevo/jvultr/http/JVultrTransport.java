@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A way to send requests to the Vultr API
+ * <p>Implementations must be thread safe, a single transport is shared by every call of a client</p>
+ * @author DeltaEvolution
+ * @see URLConnectionTransport
+ * @see HttpClientTransport
+ */
+public interface JVultrTransport {
+
+    /**
+     * Send a request and read the response while it is received
+     * @param request the request to send
+     * @param handler reads the response body
+     * @param <T> type of the value read
+     * @return the value read by the handler
+     * @throws JVultrException if an error Occurred
+     */
+    <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException;
+
+    /**
+     * Send a request and read the whole response
+     * @param request the request to send
+     * @return the response body
+     * @throws JVultrException if an error Occurred
+     */
+    default String execute(JVultrRequest request) throws JVultrException{
+        return execute(request , ResponseHandler.STRING);
+    }
+
+    /**
+     * Send a request without blocking the caller
+     * <p>The default implementation runs {@link #execute(JVultrRequest, ResponseHandler)} on the common pool,
+     * non-blocking transports should override it</p>
+     * @param request the request to send
+     * @param handler reads the response body
+     * @param <T> type of the value read
+     * @return a future completed with the value read or exceptionally with a JVultrException
+     */
+    default <T> CompletableFuture<T> executeAsync(JVultrRequest request , ResponseHandler<T> handler){
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request , handler);
+            } catch (JVultrException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Send a request without blocking the caller
+     * @param request the request to send
+     * @return a future completed with the response body or exceptionally with a JVultrException
+     */
+    default CompletableFuture<String> executeAsync(JVultrRequest request){
+        return executeAsync(request , ResponseHandler.STRING);
+    }
+}
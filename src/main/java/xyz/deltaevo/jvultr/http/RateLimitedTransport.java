@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RateLimitExceeded;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A JVultrTransport pacing the requests of another transport with a RateLimiter
+ * <p>Asynchronous requests wait for their token on a delayed executor, no thread is blocked</p>
+ * @author DeltaEvolution
+ */
+public class RateLimitedTransport implements JVultrTransport {
+
+    /**
+     * Transport sending the requests
+     */
+    private final JVultrTransport delegate;
+
+    /**
+     * Limiter shared by every request of this transport
+     */
+    private final RateLimiter limiter;
+
+    /**
+     * Create a new RateLimitedTransport with the Vultr default limits
+     * @param delegate transport sending the requests
+     */
+    public RateLimitedTransport(JVultrTransport delegate) {
+        this(delegate , new RateLimiter());
+    }
+
+    /**
+     * Create a new RateLimitedTransport
+     * @param delegate transport sending the requests
+     * @param limiter limiter shared by every request of this transport
+     */
+    public RateLimitedTransport(JVultrTransport delegate , RateLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Get the transport sending the requests
+     * @return the transport
+     */
+    public JVultrTransport getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the limiter
+     * @return the limiter
+     */
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+        limiter.acquire();
+        return delegate.execute(request , handler);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(JVultrRequest request , ResponseHandler<T> handler) {
+        long wait = limiter.reserve();
+        if(wait < 0)return CompletableFuture.failedFuture(new RateLimitExceeded());
+        if(wait == 0)return delegate.executeAsync(request , handler);
+        return CompletableFuture.supplyAsync(() -> request , CompletableFuture.delayedExecutor(wait , TimeUnit.NANOSECONDS))
+                .thenCompose(delayed -> delegate.executeAsync(delayed , handler));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RateLimitExceeded;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe token bucket limiting the rate of requests
+ * <p>The bucket holds up to burst tokens and refills at rate tokens per second. A caller finding
+ * the bucket empty reserves the next token and waits for it, unless the wait would exceed the maximum wait</p>
+ * @author DeltaEvolution
+ */
+public class RateLimiter {
+
+    /**
+     * Default requests per second, Vultr allows an average of 1 request per second
+     */
+    public static final double DEFAULT_RATE = 1;
+
+    /**
+     * Default amount of requests that can be sent at once after an idle period
+     */
+    public static final int DEFAULT_BURST = 2;
+
+    /**
+     * Default maximum time a caller waits for a token, in milliseconds
+     */
+    public static final long DEFAULT_MAX_WAIT = 30000;
+
+    /**
+     * Nanoseconds between two tokens
+     */
+    private final long interval;
+
+    /**
+     * Maximum amount of stored tokens
+     */
+    private final int burst;
+
+    /**
+     * Maximum wait in nanoseconds
+     */
+    private final long maxWait;
+
+    /**
+     * Lock guarding the bucket state, a lock rather than a monitor so waiting virtual threads are not pinned
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Tokens available now
+     */
+    private double storedTokens;
+
+    /**
+     * Time at which the next token is available
+     */
+    private long nextFree = System.nanoTime();
+
+    /**
+     * Create a new RateLimiter with the Vultr defaults
+     */
+    public RateLimiter() {
+        this(DEFAULT_RATE , DEFAULT_BURST , DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * Create a new RateLimiter
+     * @param rate requests per second
+     * @param burst amount of requests that can be sent at once after an idle period
+     * @param maxWait maximum time a caller waits for a token, in milliseconds
+     */
+    public RateLimiter(double rate , int burst , long maxWait) {
+        if(rate <= 0 || burst < 1 || maxWait < 0)
+            throw new IllegalArgumentException("Invalid rate limit " + rate + "/s burst " + burst + " max wait " + maxWait);
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burst = burst;
+        this.maxWait = TimeUnit.MILLISECONDS.toNanos(maxWait);
+        this.storedTokens = burst;
+    }
+
+    /**
+     * Take a token, waiting for it if needed
+     * @throws RateLimitExceeded if the token would not be available before the maximum wait
+     * @throws RequestFailed if the thread is interrupted while waiting
+     */
+    public void acquire() throws JVultrException {
+        long wait = reserve();
+        if(wait < 0)throw new RateLimitExceeded();
+        if(wait > 0){
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RequestFailed(e);
+            }
+        }
+    }
+
+    /**
+     * Reserve a token without waiting
+     * @return nanoseconds to wait before using the token, or -1 if it would exceed the maximum wait (nothing is reserved)
+     */
+    public long reserve(){
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if(now > nextFree){
+                storedTokens = Math.min(burst , storedTokens + (double) (now - nextFree) / interval);
+                nextFree = now;
+            }
+            double spent = Math.min(1 , storedTokens);
+            long ready = nextFree + (long) ((1 - spent) * interval);
+            long wait = ready - now;
+            if(wait > maxWait)return -1;
+            storedTokens -= spent;
+            nextFree = ready;
+            return wait;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Read a response body while it is received
+ * @param <T> type of the value read
+ * @author DeltaEvolution
+ */
+@FunctionalInterface
+public interface ResponseHandler<T> {
+
+    /**
+     * Read the whole body as a String
+     */
+    ResponseHandler<String> STRING = body -> {
+        StringBuilder response = new StringBuilder();
+        char[] buffer = new char[4096];
+        int read;
+        while((read = body.read(buffer)) != -1)response.append(buffer , 0 , read);
+        return response.toString();
+    };
+
+    /**
+     * Read a response body
+     * @param body the body, decoded as UTF-8, closed by the transport
+     * @return the value read
+     * @throws IOException if the body can't be read
+     */
+    T handle(Reader body) throws IOException;
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.InternalServerError;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RateLimitExceeded;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decide when and how failed requests are sent again
+ * <p>Attempts are spaced by an exponential backoff with full jitter, and stop after the maximum
+ * amount of attempts or when the next attempt would start after the deadline.</p>
+ * <p>A 503 or a 429 is always retried since Vultr rejected the request before handling it. Another 5xx or an I/O
+ * error before a status was read is only retried for idempotent requests, a POST creating something may have been
+ * applied. Any other 4xx is permanent and never retried</p>
+ * @author DeltaEvolution
+ */
+public class RetryPolicy {
+
+    /**
+     * A policy never retrying
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1 , 0 , 0 , 0);
+
+    /**
+     * Default maximum amount of attempts
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+    /**
+     * Default delay before the first retry, in milliseconds
+     */
+    public static final long DEFAULT_BASE_DELAY = 500;
+
+    /**
+     * Default maximum delay between two attempts, in milliseconds
+     */
+    public static final long DEFAULT_MAX_DELAY = 8000;
+
+    /**
+     * Default time after which no attempt is started, in milliseconds
+     */
+    public static final long DEFAULT_DEADLINE = 30000;
+
+    /**
+     * Maximum amount of attempts
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry, in milliseconds
+     */
+    private final long baseDelay;
+
+    /**
+     * Maximum delay between two attempts, in milliseconds
+     */
+    private final long maxDelay;
+
+    /**
+     * Time after the first attempt at which no attempt is started, in milliseconds
+     */
+    private final long deadline;
+
+    /**
+     * Create a new RetryPolicy with the default values
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS , DEFAULT_BASE_DELAY , DEFAULT_MAX_DELAY , DEFAULT_DEADLINE);
+    }
+
+    /**
+     * Create a new RetryPolicy
+     * @param maxAttempts maximum amount of attempts, including the first one
+     * @param baseDelay delay before the first retry, in milliseconds
+     * @param maxDelay maximum delay between two attempts, in milliseconds
+     * @param deadline time after the first attempt at which no attempt is started, in milliseconds
+     */
+    public RetryPolicy(int maxAttempts , long baseDelay , long maxDelay , long deadline) {
+        if(maxAttempts < 1 || baseDelay < 0 || maxDelay < baseDelay || deadline < 0)
+            throw new IllegalArgumentException("Invalid retry policy");
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Is this failure worth another attempt ?
+     * @param request the failed request
+     * @param error the failure
+     * @return if the request can be sent again
+     */
+    public boolean isRetryable(JVultrRequest request , JVultrException error){
+        if(error instanceof RateLimitExceeded)return true;
+        if(error instanceof InternalServerError)return request.isIdempotent();
+        if(!(error instanceof RequestFailed) || error.getCause() == null)return false;
+        int status = ((RequestFailed) error).getStatus();
+        if(status == 429)return true;
+        return request.isIdempotent() && (status < 0 || status >= 500);
+    }
+
+    /**
+     * Get the delay before an attempt
+     * @param attempt attempt number, 1 for the first retry
+     * @return the delay in milliseconds
+     */
+    public long delay(int attempt){
+        long ceiling = Math.min(maxDelay , baseDelay << Math.min(attempt - 1 , 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Send a request, retrying as allowed by this policy
+     * @param request the request
+     * @param transport transport sending each attempt
+     * @param handler reads the response body
+     * @param <T> type of the value read
+     * @return the value read
+     * @throws JVultrException the last failure if no attempt succeeded
+     */
+    public <T> T execute(JVultrRequest request , JVultrTransport transport , ResponseHandler<T> handler) throws JVultrException{
+        long end = System.currentTimeMillis() + deadline;
+        for(int attempt = 1;;attempt++){
+            try {
+                return transport.execute(request , handler);
+            } catch (JVultrException e) {
+                long delay = delay(attempt);
+                if(attempt >= maxAttempts || !isRetryable(request , e) || System.currentTimeMillis() + delay > end)throw e;
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Send a request without blocking, retrying as allowed by this policy
+     * @param request the request
+     * @param transport transport sending each attempt
+     * @param handler reads the response body
+     * @param <T> type of the value read
+     * @return a future completed with the value read or exceptionally with the last failure
+     */
+    public <T> CompletableFuture<T> executeAsync(JVultrRequest request , JVultrTransport transport , ResponseHandler<T> handler){
+        return executeAsync(request , transport , handler , 1 , System.currentTimeMillis() + deadline);
+    }
+
+    private <T> CompletableFuture<T> executeAsync(JVultrRequest request , JVultrTransport transport , ResponseHandler<T> handler ,
+                                                  int attempt , long end){
+        return transport.executeAsync(request , handler).handle((response , error) -> {
+            if(error == null)return CompletableFuture.completedFuture(response);
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            long delay = delay(attempt);
+            if(attempt >= maxAttempts || !(cause instanceof JVultrException) || !isRetryable(request , (JVultrException) cause)
+                    || System.currentTimeMillis() + delay > end)
+                return CompletableFuture.<T>failedFuture(cause);
+            return CompletableFuture.supplyAsync(() -> request , CompletableFuture.delayedExecutor(delay , TimeUnit.MILLISECONDS))
+                    .thenCompose(retry -> executeAsync(retry , transport , handler , attempt + 1 , end));
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * Get maximum amount of attempts
+     * @return maximum amount of attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get delay before the first retry
+     * @return delay in milliseconds
+     */
+    public long getBaseDelay() {
+        return baseDelay;
+    }
+
+    /**
+     * Get maximum delay between two attempts
+     * @return delay in milliseconds
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Get time after the first attempt at which no attempt is started
+     * @return deadline in milliseconds
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A JVultrTransport sending again the failed requests of another transport
+ * @author DeltaEvolution
+ * @see RetryPolicy
+ */
+public class RetryingTransport implements JVultrTransport {
+
+    /**
+     * Transport sending each attempt
+     */
+    private final JVultrTransport delegate;
+
+    /**
+     * Policy deciding the retries
+     */
+    private final RetryPolicy policy;
+
+    /**
+     * Create a new RetryingTransport with the default policy
+     * @param delegate transport sending each attempt
+     */
+    public RetryingTransport(JVultrTransport delegate) {
+        this(delegate , new RetryPolicy());
+    }
+
+    /**
+     * Create a new RetryingTransport
+     * @param delegate transport sending each attempt
+     * @param policy policy deciding the retries
+     */
+    public RetryingTransport(JVultrTransport delegate , RetryPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    /**
+     * Get the transport sending each attempt
+     * @return the transport
+     */
+    public JVultrTransport getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the policy deciding the retries
+     * @return the policy
+     */
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+        return policy.execute(request , delegate , handler);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(JVultrRequest request , ResponseHandler<T> handler) {
+        return policy.executeAsync(request , delegate , handler);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesce identical concurrent calls
+ * <p>The first caller for a key runs the call, every caller arriving while it is in flight waits for
+ * it and shares its result instead of running its own. Every caller, the first one included, gets its own copy of
+ * the value so no caller sees the changes of an other. Nothing is cached once the call completes</p>
+ * @param <K> key type
+ * @author DeltaEvolution
+ */
+public class SingleFlight<K> {
+
+    /**
+     * A call producing a value
+     * @param <T> value type
+     */
+    public interface Call<T>{
+        T call() throws JVultrException;
+    }
+
+    /**
+     * Calls in flight
+     */
+    private final ConcurrentHashMap<K , CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run a call or join the identical call in flight
+     * @param key the call key
+     * @param call the call
+     * @param copy applied to the shared value before handing it to each caller, so callers can modify their value
+     * @param <T> value type
+     * @return the value
+     * @throws JVultrException if the call failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(K key , Call<T> call , UnaryOperator<T> copy) throws JVultrException{
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key , future);
+        if(existing != null){
+            try {
+                return copy.apply((T) existing.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RequestFailed(e);
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        try {
+            T value = call.call();
+            future.complete(value);
+            return copy.apply(value);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key , future);
+        }
+    }
+
+    /**
+     * Run an asynchronous call or join the identical call in flight
+     * @param key the call key
+     * @param call the call
+     * @param copy applied to the shared value before handing it to each caller, so callers can modify their value
+     * @param <T> value type
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(K key , Supplier<CompletableFuture<T>> call , UnaryOperator<T> copy){
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key , future);
+        if(existing != null)return existing.thenApply(value -> copy.apply((T) value));
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            inFlight.remove(key , future);
+            future.completeExceptionally(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value , error) -> {
+            inFlight.remove(key , future);
+            if(error != null)future.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            else future.complete(value);
+        });
+        return future.thenApply(value -> copy.apply((T) value));
+    }
+
+    /**
+     * Get the amount of calls in flight
+     * @return calls in flight
+     */
+    public int size(){
+        return inFlight.size();
+    }
+
+    private static JVultrException rethrow(Throwable cause){
+        if(cause instanceof JVultrException)return (JVultrException) cause;
+        if(cause instanceof RuntimeException)throw (RuntimeException) cause;
+        if(cause instanceof Error)throw (Error) cause;
+        return new RequestFailed((Exception) cause);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * A JVultrTransport using HttpURLConnection with keep-alive connections
+ * <p>The response (or error) body is always fully consumed and closed so the underlying
+ * socket goes back to the keep-alive cache and the next request skips the TCP and TLS handshakes.
+ * The body is requested compressed and handed to the ResponseHandler straight from the socket</p>
+ * @author DeltaEvolution
+ */
+public class URLConnectionTransport implements JVultrTransport {
+
+    /**
+     * Suggested maximum number of idle keep-alive connections kept per host
+     * @see #setMaxIdleConnections(int)
+     */
+    public static final int MAX_IDLE_CONNECTIONS = 10;
+
+    /**
+     * TLS sessions cache timeout in seconds
+     */
+    public static final int TLS_SESSION_TIMEOUT = 3600;
+
+    /**
+     * Size of the buffers used to read responses
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Socket factory shared by the transports using the default one, created on first use
+     */
+    private static SSLSocketFactory defaultSocketFactory;
+
+    /**
+     * Socket factory of every https connection so the keep-alive cache and the TLS sessions are reused
+     */
+    private final SSLSocketFactory socketFactory;
+
+    /**
+     * Create a transport sharing its TLS sessions with the other default transports
+     * @throws IllegalStateException if the TLS context can't be created
+     */
+    public URLConnectionTransport() {
+        this(defaultSocketFactory());
+    }
+
+    /**
+     * @param socketFactory socket factory of the https connections
+     */
+    public URLConnectionTransport(SSLSocketFactory socketFactory) {
+        if(socketFactory == null)throw new IllegalArgumentException("socketFactory is null");
+        this.socketFactory = socketFactory;
+    }
+
+    /**
+     * Set the maximum number of idle keep-alive connections kept per host
+     * <p>This sets the JVM wide http.maxConnections system property, so it applies to every HttpURLConnection of
+     * the application and is only read before the first connection is made. Nothing is set unless this is called</p>
+     * @param max maximum number of idle connections per host
+     */
+    public static void setMaxIdleConnections(int max){
+        if(max < 0)throw new IllegalArgumentException("max < 0");
+        System.setProperty("http.maxConnections" , Integer.toString(max));
+    }
+
+    private static synchronized SSLSocketFactory defaultSocketFactory(){
+        if(defaultSocketFactory == null){
+            try {
+                SSLContext context = SSLContext.getInstance("TLS");
+                context.init(null , null , null);
+                context.getClientSessionContext().setSessionTimeout(TLS_SESSION_TIMEOUT);
+                defaultSocketFactory = context.getSocketFactory();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Can't create the TLS context" , e);
+            }
+        }
+        return defaultSocketFactory;
+    }
+
+    @Override
+    public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+        HttpURLConnection conn = null;
+        try{
+            conn = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+            if(conn instanceof HttpsURLConnection)
+                ((HttpsURLConnection) conn).setSSLSocketFactory(socketFactory);
+            conn.setRequestMethod(request.getMethod());
+            conn.setRequestProperty("Connection" , "keep-alive");
+            conn.setRequestProperty("Accept-Encoding" , ContentEncoding.ACCEPTED);
+            if(request.getApiKey() != null)
+                conn.setRequestProperty("API-Key" , request.getApiKey());
+            if(request.getParameters() != null){
+                byte[] body = request.getParameters().getBytes(StandardCharsets.UTF_8);
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type" , "application/x-www-form-urlencoded; charset=utf-8");
+                conn.setFixedLengthStreamingMode(body.length);
+                try(OutputStream out = conn.getOutputStream()){
+                    out.write(body);
+                }
+            }
+            int code = conn.getResponseCode();
+            if(code != 200){
+                JVultrException error = HttpErrors.forStatus(request , code);
+                if(error != null){
+                    drain(conn);
+                    throw error;
+                }
+            }
+            try(InputStream in = conn.getInputStream();
+                InputStream body = ContentEncoding.decode(in , conn.getContentEncoding())){
+                T value = handler.handle(new InputStreamReader(body , StandardCharsets.UTF_8));
+                skip(in);
+                return value;
+            }
+        }catch (IOException ex){
+            drain(conn);
+            throw new RequestFailed(ex);
+        }
+    }
+
+    /**
+     * Consume what the handler left of a body, usually trailing whitespace, so the connection can be reused
+     * @param in the body
+     * @throws IOException if the body can't be read
+     */
+    private static void skip(InputStream in) throws IOException{
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while(in.read(buffer) != -1);
+    }
+
+    /**
+     * Consume and close the error body of a failed request so the connection can be reused
+     * @param conn the connection, may be null
+     */
+    private static void drain(HttpURLConnection conn){
+        if(conn == null)return;
+        try(InputStream error = conn.getErrorStream()){
+            if(error != null){
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while(error.read(buffer) != -1);
+            }
+        }catch (IOException ignored){
+            conn.disconnect();
+        }
+    }
+}
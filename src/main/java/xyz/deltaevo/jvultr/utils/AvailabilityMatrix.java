@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bitset matrix of the plans available in each region
+ * <p>Plans and regions get dense ordinals in id order. Each plan has a row of region bits and each region a
+ * column of plan bits, so set queries over plans or regions are word-parallel AND/OR of longs</p>
+ * @author DeltaEvolution
+ */
+public final class AvailabilityMatrix {
+    private final Map<Integer , JVultrPlan> planSource;
+    private final Map<Integer , JVultrRegion> regionSource;
+    private final int[] planIds;
+    private final JVultrPlan[] plans;
+    private final int[] regionIds;
+    private final JVultrRegion[] regions;
+    /**
+     * Region bits, by plan ordinal
+     */
+    private final long[][] rows;
+    /**
+     * Plan bits, by region ordinal
+     */
+    private final long[][] columns;
+
+    /**
+     * Build the matrix of a catalog
+     * @param plans plans by id
+     * @param regions regions by id
+     */
+    public AvailabilityMatrix(Map<Integer , JVultrPlan> plans , Map<Integer , JVultrRegion> regions) {
+        this.planSource = plans;
+        this.regionSource = regions;
+        IntMap<JVultrPlan> planMap = IntMap.copyOf(plans);
+        IntMap<JVultrRegion> regionMap = IntMap.copyOf(regions);
+        this.planIds = planMap.sortedKeys();
+        this.regionIds = regionMap.sortedKeys();
+        this.plans = new JVultrPlan[planIds.length];
+        this.regions = new JVultrRegion[regionIds.length];
+        for(int i = 0 ; i < planIds.length ; i++)this.plans[i] = planMap.get(planIds[i]);
+        for(int i = 0 ; i < regionIds.length ; i++)this.regions[i] = regionMap.get(regionIds[i]);
+        this.rows = new long[planIds.length][words(regionIds.length)];
+        this.columns = new long[regionIds.length][words(planIds.length)];
+        for(int p = 0 ; p < planIds.length ; p++){
+            for(JVultrRegion region : this.plans[p].getAvailableRegions()){
+                if(region == null)continue;
+                int r = Arrays.binarySearch(regionIds , region.getId());
+                if(r < 0)continue;
+                rows[p][r >>> 6] |= 1L << r;
+                columns[r][p >>> 6] |= 1L << p;
+            }
+        }
+    }
+
+    /**
+     * Get the plan catalog this matrix was built from
+     * @return plans by id
+     */
+    public Map<Integer , JVultrPlan> getPlans() {
+        return planSource;
+    }
+
+    /**
+     * Get the region catalog this matrix was built from
+     * @return regions by id
+     */
+    public Map<Integer , JVultrRegion> getRegions() {
+        return regionSource;
+    }
+
+    /**
+     * Check if a plan is available in a region
+     * @param planId the plan id
+     * @param regionId the region id
+     * @return true if the plan is available in the region
+     */
+    public boolean isAvailable(int planId , int regionId){
+        int p = Arrays.binarySearch(planIds , planId);
+        int r = Arrays.binarySearch(regionIds , regionId);
+        return p >= 0 && r >= 0 && (rows[p][r >>> 6] & (1L << r)) != 0;
+    }
+
+    /**
+     * Get the regions where at least one of the plans is available
+     * @param planIds the plan ids
+     * @return the regions, by id
+     */
+    public List<JVultrRegion> regionsForAny(int... planIds){
+        return regionList(combine(rows , this.planIds , planIds , regionIds.length , false));
+    }
+
+    /**
+     * Get the regions where every plan is available
+     * @param planIds the plan ids
+     * @return the regions, by id
+     */
+    public List<JVultrRegion> regionsForAll(int... planIds){
+        return regionList(combine(rows , this.planIds , planIds , regionIds.length , true));
+    }
+
+    /**
+     * Get the regions where at least one of the plans is available
+     * @param plans the plans
+     * @return the regions, by id
+     */
+    public List<JVultrRegion> regionsForAny(Collection<JVultrPlan> plans){
+        return regionsForAny(ids(plans));
+    }
+
+    /**
+     * Get the plans available in at least one of the regions
+     * @param regionIds the region ids
+     * @return the plans, by id
+     */
+    public List<JVultrPlan> plansInAny(int... regionIds){
+        return planList(combine(columns , this.regionIds , regionIds , planIds.length , false));
+    }
+
+    /**
+     * Get the plans available in every region
+     * @param regionIds the region ids
+     * @return the plans, by id
+     */
+    public List<JVultrPlan> plansInAll(int... regionIds){
+        return planList(combine(columns , this.regionIds , regionIds , planIds.length , true));
+    }
+
+    /**
+     * Get the regions where at least one of the plans is available as a bitset of region ordinals
+     * @param planIds the plan ids
+     * @return the region bits
+     * @see #region(int)
+     */
+    public BitSet regionMask(int... planIds){
+        return BitSet.valueOf(combine(rows , this.planIds , planIds , regionIds.length , false));
+    }
+
+    /**
+     * Get the plans available in at least one of the regions as a bitset of plan ordinals
+     * @param regionIds the region ids
+     * @return the plan bits
+     * @see #plan(int)
+     */
+    public BitSet planMask(int... regionIds){
+        return BitSet.valueOf(combine(columns , this.regionIds , regionIds , planIds.length , false));
+    }
+
+    /**
+     * Get the plan of an ordinal
+     * @param ordinal the plan ordinal
+     * @return the plan
+     */
+    public JVultrPlan plan(int ordinal){
+        return plans[ordinal];
+    }
+
+    /**
+     * Get the region of an ordinal
+     * @param ordinal the region ordinal
+     * @return the region
+     */
+    public JVultrRegion region(int ordinal){
+        return regions[ordinal];
+    }
+
+    /**
+     * Get the region bits of a plan
+     * @param planId the plan id
+     * @return the region bits, not to be modified, or null if the plan is unknown
+     */
+    long[] row(int planId){
+        int p = Arrays.binarySearch(planIds , planId);
+        return p < 0 ? null : rows[p];
+    }
+
+    /**
+     * Get the ordinal of a region
+     * @param regionId the region id
+     * @return the region ordinal or a negative value if the region is unknown
+     */
+    int regionOrdinal(int regionId){
+        return Arrays.binarySearch(regionIds , regionId);
+    }
+
+    /**
+     * Get the amount of plans
+     * @return plan amount
+     */
+    public int planCount(){
+        return plans.length;
+    }
+
+    /**
+     * Get the amount of regions
+     * @return region amount
+     */
+    public int regionCount(){
+        return regions.length;
+    }
+
+    /**
+     * Combine the bit vectors of some ids
+     * @param vectors bit vectors by ordinal
+     * @param ordinals sorted ids of the ordinals
+     * @param ids the ids to combine, unknown ids have no bit set
+     * @param bits amount of bits of a vector
+     * @param and true to intersect the vectors, false to unite them
+     * @return the combined vector
+     */
+    private static long[] combine(long[][] vectors , int[] ordinals , int[] ids , int bits , boolean and){
+        long[] result = new long[words(bits)];
+        if(and){
+            if(ids.length == 0)return result;
+            Arrays.fill(result , -1L);
+            if((bits & 63) != 0)result[result.length - 1] = (1L << bits) - 1;
+        }
+        for(int id : ids){
+            int ordinal = Arrays.binarySearch(ordinals , id);
+            if(ordinal < 0){
+                if(and)return new long[result.length];
+                continue;
+            }
+            long[] vector = vectors[ordinal];
+            for(int w = 0 ; w < result.length ; w++){
+                if(and)result[w] &= vector[w];
+                else result[w] |= vector[w];
+            }
+        }
+        return result;
+    }
+
+    private List<JVultrRegion> regionList(long[] bits){
+        List<JVultrRegion> result = new ArrayList<>();
+        for(int w = 0 ; w < bits.length ; w++){
+            for(long word = bits[w] ; word != 0 ; word &= word - 1)result.add(regions[(w << 6) + Long.numberOfTrailingZeros(word)]);
+        }
+        return result;
+    }
+
+    private List<JVultrPlan> planList(long[] bits){
+        List<JVultrPlan> result = new ArrayList<>();
+        for(int w = 0 ; w < bits.length ; w++){
+            for(long word = bits[w] ; word != 0 ; word &= word - 1)result.add(plans[(w << 6) + Long.numberOfTrailingZeros(word)]);
+        }
+        return result;
+    }
+
+    private static int[] ids(Collection<JVultrPlan> plans){
+        int[] ids = new int[plans.size()];
+        int i = 0;
+        for(JVultrPlan plan : plans)ids[i++] = plan.getId();
+        return ids;
+    }
+
+    private static int words(int bits){
+        return (bits + 63) >>> 6;
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.api.JVultrServer;
+import xyz.deltaevo.jvultr.api.JVultrServer.PowerStatus;
+import xyz.deltaevo.jvultr.api.JVultrServer.ServerState;
+import xyz.deltaevo.jvultr.api.JVultrServer.Status;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A columnar snapshot of a server list for fleet wide aggregates
+ * <p>Every field is kept in a primitive array indexed by row, rows are sorted by server id. Statuses are stored as
+ * their ordinal, regions and plans as codes into the dictionaries of the regions and plans seen in the fleet, -1
+ * standing for null. Aggregates are plain loops over the columns</p>
+ * <p>The snapshot is immutable, build a new one for each server list</p>
+ * @author DeltaEvolution
+ */
+public final class FleetSnapshot {
+    private static final Status[] STATUSES = Status.values();
+    private static final PowerStatus[] POWER_STATUSES = PowerStatus.values();
+    private static final ServerState[] SERVER_STATES = ServerState.values();
+
+    private final JVultrServer[] servers;
+    private final int[] ids;
+    private final int[] vcpus;
+    private final float[] costPerMonth;
+    private final float[] pendingCharges;
+    private final float[] currentBandwidth;
+    private final float[] allowedBandwidth;
+    private final long[] created;
+    private final byte[] status;
+    private final byte[] powerStatus;
+    private final byte[] serverState;
+    private final int[] region;
+    private final int[] plan;
+    /**
+     * Region dictionary, sorted by id
+     */
+    private final int[] regionIds;
+    private final JVultrRegion[] regions;
+    /**
+     * Plan dictionary, sorted by id
+     */
+    private final int[] planIds;
+    private final JVultrPlan[] plans;
+
+    /**
+     * Build the snapshot of a server list
+     * @param servers servers by id
+     */
+    public FleetSnapshot(Map<Integer , ? extends JVultrServer> servers) {
+        this(servers.values());
+    }
+
+    /**
+     * Build the snapshot of a server list
+     * @param servers the servers, null servers are ignored
+     */
+    public FleetSnapshot(Collection<? extends JVultrServer> servers) {
+        JVultrServer[] rows = servers.stream().filter(s -> s != null).toArray(JVultrServer[]::new);
+        Arrays.sort(rows , (a , b) -> Integer.compare(a.getId() , b.getId()));
+        int size = rows.length;
+        this.servers = rows;
+        this.ids = new int[size];
+        this.vcpus = new int[size];
+        this.costPerMonth = new float[size];
+        this.pendingCharges = new float[size];
+        this.currentBandwidth = new float[size];
+        this.allowedBandwidth = new float[size];
+        this.created = new long[size];
+        this.status = new byte[size];
+        this.powerStatus = new byte[size];
+        this.serverState = new byte[size];
+        this.region = new int[size];
+        this.plan = new int[size];
+        IntMap<JVultrRegion> regionsById = new IntMap<>();
+        IntMap<JVultrPlan> plansById = new IntMap<>();
+        for(int r = 0 ; r < size ; r++){
+            JVultrServer server = rows[r];
+            ids[r] = server.getId();
+            vcpus[r] = server.getVcpusCount();
+            costPerMonth[r] = server.getCostPerMonth();
+            pendingCharges[r] = server.getPendingCharges();
+            currentBandwidth[r] = server.getCurrentBandwidth();
+            allowedBandwidth[r] = server.getAllowedBandwidth();
+            created[r] = server.getCreatedMillis();
+            status[r] = ordinal(server.getStatus());
+            powerStatus[r] = ordinal(server.getPowerStatus());
+            serverState[r] = ordinal(server.getServerState());
+            if(server.getRegion() != null)regionsById.put(server.getRegion().getId() , server.getRegion());
+            if(server.getPlan() != null)plansById.put(server.getPlan().getId() , server.getPlan());
+        }
+        this.regionIds = regionsById.sortedKeys();
+        this.regions = new JVultrRegion[regionIds.length];
+        for(int i = 0 ; i < regionIds.length ; i++)regions[i] = regionsById.get(regionIds[i]);
+        this.planIds = plansById.sortedKeys();
+        this.plans = new JVultrPlan[planIds.length];
+        for(int i = 0 ; i < planIds.length ; i++)plans[i] = plansById.get(planIds[i]);
+        for(int r = 0 ; r < size ; r++){
+            JVultrServer server = rows[r];
+            region[r] = server.getRegion() == null ? -1 : Arrays.binarySearch(regionIds , server.getRegion().getId());
+            plan[r] = server.getPlan() == null ? -1 : Arrays.binarySearch(planIds , server.getPlan().getId());
+        }
+    }
+
+    /**
+     * Get the amount of servers
+     * @return server amount
+     */
+    public int size(){
+        return ids.length;
+    }
+
+    /**
+     * Get the row of a server
+     * @param id the server id
+     * @return the row or a negative value if the server is not in the snapshot
+     */
+    public int row(int id){
+        return Arrays.binarySearch(ids , id);
+    }
+
+    /**
+     * Get the server of a row
+     * @param row the row
+     * @return the server
+     */
+    public JVultrServer server(int row){
+        return servers[row];
+    }
+
+    /**
+     * Get the server id of a row
+     * @param row the row
+     * @return the server id
+     */
+    public int id(int row){
+        return ids[row];
+    }
+
+    /**
+     * Get the region code of a row
+     * @param row the row
+     * @return the region code or -1 if the server has no region
+     * @see #region(int)
+     */
+    public int regionCode(int row){
+        return region[row];
+    }
+
+    /**
+     * Get the plan code of a row
+     * @param row the row
+     * @return the plan code or -1 if the server has no plan
+     * @see #plan(int)
+     */
+    public int planCode(int row){
+        return plan[row];
+    }
+
+    /**
+     * Get the region of a code
+     * @param code the region code
+     * @return the region
+     */
+    public JVultrRegion region(int code){
+        return regions[code];
+    }
+
+    /**
+     * Get the plan of a code
+     * @param code the plan code
+     * @return the plan
+     */
+    public JVultrPlan plan(int code){
+        return plans[code];
+    }
+
+    /**
+     * Get the code of a region
+     * @param regionId the region id
+     * @return the region code or a negative value if no server is in this region
+     */
+    public int regionCodeOf(int regionId){
+        return Arrays.binarySearch(regionIds , regionId);
+    }
+
+    /**
+     * Get the code of a plan
+     * @param planId the plan id
+     * @return the plan code or a negative value if no server uses this plan
+     */
+    public int planCodeOf(int planId){
+        return Arrays.binarySearch(planIds , planId);
+    }
+
+    /**
+     * Get the amount of distinct regions
+     * @return region amount
+     */
+    public int regionCount(){
+        return regions.length;
+    }
+
+    /**
+     * Get the amount of distinct plans
+     * @return plan amount
+     */
+    public int planCount(){
+        return plans.length;
+    }
+
+    /**
+     * Get the total vcpu count
+     * @return vcpu count
+     */
+    public long totalVcpus(){
+        long total = 0;
+        for(int v : vcpus)total += v;
+        return total;
+    }
+
+    /**
+     * Get the total cost per month
+     * @return cost per month
+     */
+    public double totalCostPerMonth(){
+        return sum(costPerMonth , null);
+    }
+
+    /**
+     * Get the total cost per month of some rows
+     * @param rows the rows
+     * @return cost per month
+     */
+    public double totalCostPerMonth(BitSet rows){
+        return sum(costPerMonth , rows);
+    }
+
+    /**
+     * Get the total pending charges
+     * @return pending charges
+     */
+    public double totalPendingCharges(){
+        return sum(pendingCharges , null);
+    }
+
+    /**
+     * Get the total pending charges of some rows
+     * @param rows the rows
+     * @return pending charges
+     */
+    public double totalPendingCharges(BitSet rows){
+        return sum(pendingCharges , rows);
+    }
+
+    /**
+     * Get the total current bandwidth
+     * @return current bandwidth
+     */
+    public double totalCurrentBandwidth(){
+        return sum(currentBandwidth , null);
+    }
+
+    /**
+     * Get the total allowed bandwidth
+     * @return allowed bandwidth
+     */
+    public double totalAllowedBandwidth(){
+        return sum(allowedBandwidth , null);
+    }
+
+    /**
+     * Get the fleet bandwidth utilization
+     * @return total current bandwidth over total allowed bandwidth or 0 if no bandwidth is allowed
+     */
+    public double bandwidthUtilization(){
+        double allowed = totalAllowedBandwidth();
+        return allowed == 0 ? 0 : totalCurrentBandwidth() / allowed;
+    }
+
+    /**
+     * Get the bandwidth utilization of each row
+     * @return current bandwidth over allowed bandwidth by row, 0 when no bandwidth is allowed
+     */
+    public float[] bandwidthUtilizations(){
+        float[] utilizations = new float[ids.length];
+        for(int r = 0 ; r < ids.length ; r++)
+            utilizations[r] = allowedBandwidth[r] == 0 ? 0 : currentBandwidth[r] / allowedBandwidth[r];
+        return utilizations;
+    }
+
+    /**
+     * Count the servers by status
+     * @return counts by status ordinal
+     */
+    public int[] countByStatus(){
+        return histogram(status , STATUSES.length);
+    }
+
+    /**
+     * Count the servers by power status
+     * @return counts by power status ordinal
+     */
+    public int[] countByPowerStatus(){
+        return histogram(powerStatus , POWER_STATUSES.length);
+    }
+
+    /**
+     * Count the servers by server state
+     * @return counts by server state ordinal
+     */
+    public int[] countByServerState(){
+        return histogram(serverState , SERVER_STATES.length);
+    }
+
+    /**
+     * Count the servers by region and status
+     * @return counts by region code then status ordinal, servers without region or status are not counted
+     */
+    public int[][] statusCountByRegion(){
+        int[][] counts = new int[regions.length][STATUSES.length];
+        for(int r = 0 ; r < ids.length ; r++){
+            if(region[r] >= 0 && status[r] >= 0)counts[region[r]][status[r]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Get the cost per month by region
+     * @return cost per month by region code, servers without region are not counted
+     */
+    public double[] costPerMonthByRegion(){
+        double[] costs = new double[regions.length];
+        for(int r = 0 ; r < ids.length ; r++){
+            if(region[r] >= 0)costs[region[r]] += costPerMonth[r];
+        }
+        return costs;
+    }
+
+    /**
+     * Count the servers by plan
+     * @return counts by plan code, servers without plan are not counted
+     */
+    public int[] countByPlan(){
+        int[] counts = new int[plans.length];
+        for(int p : plan){
+            if(p >= 0)counts[p]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Select the rows with a status
+     * @param status the status
+     * @return the rows
+     */
+    public BitSet select(Status status){
+        return select(this.status , ordinal(status));
+    }
+
+    /**
+     * Select the rows with a power status
+     * @param powerStatus the power status
+     * @return the rows
+     */
+    public BitSet select(PowerStatus powerStatus){
+        return select(this.powerStatus , ordinal(powerStatus));
+    }
+
+    /**
+     * Select the rows with a server state
+     * @param serverState the server state
+     * @return the rows
+     */
+    public BitSet select(ServerState serverState){
+        return select(this.serverState , ordinal(serverState));
+    }
+
+    /**
+     * Select the rows in a region
+     * @param regionId the region id
+     * @return the rows, empty if no server is in this region
+     */
+    public BitSet selectRegion(int regionId){
+        BitSet rows = new BitSet(ids.length);
+        int code = regionCodeOf(regionId);
+        if(code < 0)return rows;
+        for(int r = 0 ; r < ids.length ; r++){
+            if(region[r] == code)rows.set(r);
+        }
+        return rows;
+    }
+
+    /**
+     * Select the rows created in a time range
+     * @param from lower bound in milliseconds since the epoch, inclusive
+     * @param to upper bound in milliseconds since the epoch, exclusive
+     * @return the rows, servers without creation date are never selected
+     */
+    public BitSet selectCreated(long from , long to){
+        BitSet rows = new BitSet(ids.length);
+        for(int r = 0 ; r < ids.length ; r++){
+            if(created[r] != Long.MIN_VALUE && created[r] >= from && created[r] < to)rows.set(r);
+        }
+        return rows;
+    }
+
+    private BitSet select(byte[] column , byte value){
+        BitSet rows = new BitSet(ids.length);
+        for(int r = 0 ; r < column.length ; r++){
+            if(column[r] == value)rows.set(r);
+        }
+        return rows;
+    }
+
+    private static double sum(float[] column , BitSet rows){
+        double total = 0;
+        if(rows == null){
+            for(float value : column)total += value;
+        }else {
+            for(int r = rows.nextSetBit(0) ; r >= 0 && r < column.length ; r = rows.nextSetBit(r + 1))total += column[r];
+        }
+        return total;
+    }
+
+    private static int[] histogram(byte[] column , int values){
+        int[] counts = new int[values];
+        for(byte value : column){
+            if(value >= 0)counts[value]++;
+        }
+        return counts;
+    }
+
+    private static byte ordinal(Enum<?> value){
+        return value == null ? -1 : (byte) value.ordinal();
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A map with primitive int keys
+ * <p>Keys and values are stored in two arrays with open addressing and linear probing, so {@link #get(int)} neither
+ * boxes the key nor follows entry pointers. Null values are not allowed. Maps built with {@link #copyOf(Map)} are
+ * immutable and safe to share between threads</p>
+ * @param <V> values type
+ * @author DeltaEvolution
+ */
+public class IntMap<V> extends AbstractMap<Integer , V> {
+    private static final int MIN_CAPACITY = 8;
+    private static final IntMap<Object> EMPTY = new IntMap<>(new IntMap<>() , true);
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private final boolean immutable;
+
+    /**
+     * Create an empty map
+     */
+    public IntMap() {
+        this(0);
+    }
+
+    /**
+     * Create an empty map
+     * @param expected amount of entries the map will hold without resizing
+     */
+    public IntMap(int expected) {
+        int capacity = capacity(expected);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.immutable = false;
+    }
+
+    /**
+     * Create a map holding the entries of an other map
+     * @param map the map to copy
+     */
+    public IntMap(Map<Integer , ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    private IntMap(IntMap<? extends V> map , boolean immutable) {
+        this.keys = map.keys.clone();
+        this.values = map.values.clone();
+        this.size = map.size;
+        this.immutable = immutable;
+    }
+
+    /**
+     * Get the immutable empty map
+     * @param <V> values type
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> IntMap<V> empty(){
+        return (IntMap<V>) EMPTY;
+    }
+
+    /**
+     * Get an immutable copy of a map
+     * @param map the map to copy
+     * @param <V> values type
+     * @return the copy, or the map itself if it is already an immutable IntMap
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> IntMap<V> copyOf(Map<Integer , ? extends V> map){
+        if(map instanceof IntMap){
+            IntMap<? extends V> intMap = (IntMap<? extends V>) map;
+            return intMap.immutable ? (IntMap<V>) intMap : new IntMap<>(intMap , true);
+        }
+        return new IntMap<>(new IntMap<V>(map) , true);
+    }
+
+    /**
+     * Get the value of a key
+     * @param key the key
+     * @return the value or null if there is no value for this key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key){
+        int mask = keys.length - 1;
+        for(int i = index(key , mask) ; values[i] != null ; i = (i + 1) & mask){
+            if(keys[i] == key)return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Check if the map holds a key
+     * @param key the key
+     * @return true if the map holds this key
+     */
+    public boolean containsKey(int key){
+        return get(key) != null;
+    }
+
+    /**
+     * Associate a value to a key
+     * @param key the key
+     * @param value the value, not null
+     * @return the previous value or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key , V value){
+        checkMutable();
+        if(value == null)throw new NullPointerException("value");
+        int mask = keys.length - 1;
+        int i = index(key , mask);
+        for(; values[i] != null ; i = (i + 1) & mask){
+            if(keys[i] == key){
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if(++size * 2 > keys.length)resize(keys.length * 2);
+        return null;
+    }
+
+    /**
+     * Remove a key
+     * @param key the key
+     * @return the removed value or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key){
+        checkMutable();
+        int mask = keys.length - 1;
+        for(int i = index(key , mask) ; values[i] != null ; i = (i + 1) & mask){
+            if(keys[i] == key){
+                V previous = (V) values[i];
+                shift(i , mask);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the keys of the map without boxing them
+     * @return a new array holding the keys in ascending order
+     */
+    public int[] sortedKeys(){
+        int[] sorted = new int[size];
+        int j = 0;
+        for(int i = 0 ; i < values.length ; i++){
+            if(values[i] != null)sorted[j++] = keys[i];
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public V put(Integer key , V value) {
+        return put((int) key , value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if(!(key instanceof Integer))return null;
+        return remove((int) (Integer) key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        Arrays.fill(values , null);
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Integer , ? super V> action) {
+        for(int i = 0 ; i < values.length ; i++){
+            if(values[i] != null)action.accept(keys[i] , (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<Integer , V>> entrySet() {
+        return new AbstractSet<Entry<Integer , V>>() {
+            @Override
+            public Iterator<Entry<Integer , V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterate over the entries in table order, removing through the iterator is not supported
+     */
+    private final class EntryIterator implements Iterator<Entry<Integer , V>> {
+        private int next = advance(0);
+
+        private int advance(int from){
+            while(from < values.length && values[from] == null)from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<Integer , V> next() {
+            if(!hasNext())throw new NoSuchElementException();
+            int slot = next;
+            next = advance(next + 1);
+            return new SlotEntry(slot);
+        }
+    }
+
+    /**
+     * An entry reading and writing through its table slot
+     */
+    private final class SlotEntry implements Entry<Integer , V> {
+        private final int key;
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        private SlotEntry(int slot) {
+            this.key = keys[slot];
+            this.value = (V) values[slot];
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = this.value;
+            put(key , value);
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Entry))return false;
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Integer.valueOf(key).equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Close the gap left by a removed slot by moving back the following entries of its probe sequence
+     * @param gap the removed slot
+     * @param mask table mask
+     */
+    private void shift(int gap , int mask){
+        for(int i = (gap + 1) & mask ; values[i] != null ; i = (i + 1) & mask){
+            int home = index(keys[i] , mask);
+            if(((i - home) & mask) >= ((i - gap) & mask)){
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity){
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for(int j = 0 ; j < oldValues.length ; j++){
+            if(oldValues[j] == null)continue;
+            int i = index(oldKeys[j] , mask);
+            while(values[i] != null)i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void checkMutable(){
+        if(immutable)throw new UnsupportedOperationException("Immutable IntMap");
+    }
+
+    private static int index(int key , int mask){
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int capacity(int expected){
+        int capacity = MIN_CAPACITY;
+        while(capacity < expected * 2)capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Parse Vultr api dates (yyyy-MM-dd HH:mm:ss)
+ * <p>Stateless and thread-safe: dates are decoded straight from their characters, the only allocation is the
+ * returned Date. Dates are read in the default time zone of the JVM when this class was loaded</p>
+ * @author DeltaEvolution
+ */
+public final class JVultrDates {
+    private static final TimeZone ZONE = TimeZone.getDefault();
+    private static final int LENGTH = 19;
+
+    private JVultrDates() {}
+
+    /**
+     * Parse a Vultr api date
+     * @param value the date
+     * @return the date
+     * @throws ParseException if the value is not a valid date
+     */
+    public static Date parse(CharSequence value) throws ParseException{
+        return new Date(parseMillis(value));
+    }
+
+    /**
+     * Parse a Vultr api date
+     * @param value the date
+     * @return the date in ms since epoch
+     * @throws ParseException if the value is not a valid date
+     */
+    public static long parseMillis(CharSequence value) throws ParseException{
+        if(value == null || value.length() != LENGTH || value.charAt(4) != '-' || value.charAt(7) != '-'
+                || value.charAt(10) != ' ' || value.charAt(13) != ':' || value.charAt(16) != ':')
+            throw new ParseException("Unparseable date: \"" + value + "\"" , 0);
+        int year = digits(value , 0 , 4);
+        int month = digits(value , 5 , 2);
+        int day = digits(value , 8 , 2);
+        int hour = digits(value , 11 , 2);
+        int minute = digits(value , 14 , 2);
+        int second = digits(value , 17 , 2);
+        if(month < 1 || month > 12 || day < 1 || day > daysInMonth(year , month) || hour > 23 || minute > 59 || second > 59)
+            throw new ParseException("Unparseable date: \"" + value + "\"" , 0);
+        long local = ((epochDay(year , month , day) * 24 + hour) * 60 + minute) * 60000L + second * 1000L;
+        long utc = local - ZONE.getOffset(local - ZONE.getRawOffset());
+        return local - ZONE.getOffset(utc);
+    }
+
+    private static int digits(CharSequence value , int from , int count) throws ParseException{
+        int result = 0;
+        for(int i = from ; i < from + count ; i++){
+            char c = value.charAt(i);
+            if(c < '0' || c > '9')throw new ParseException("Unparseable date: \"" + value + "\"" , i);
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int daysInMonth(int year , int month){
+        switch (month){
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days from 1970-01-01 to a proleptic gregorian date
+     */
+    private static long epochDay(int year , int month , int day){
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y , 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
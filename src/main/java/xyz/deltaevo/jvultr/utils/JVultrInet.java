@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+/**
+ * Numeric forms of the Vultr ip addresses
+ * <p>IPv4 addresses are read as an int and IPv6 addresses as two longs, high bits first. Only the canonical text
+ * forms are accepted, so formatting a parsed address gives back the text it was read from: dotted decimal without
+ * leading zeros for IPv4, RFC 5952 for IPv6</p>
+ * @author DeltaEvolution
+ */
+public final class JVultrInet {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JVultrInet() {}
+
+    /**
+     * Parse a dotted decimal IPv4 address
+     * @param value the address
+     * @return the address bits as an unsigned int or -1 if the value is not a canonical IPv4 address
+     */
+    public static long parseIpv4(CharSequence value){
+        if(value == null)return -1;
+        int length = value.length();
+        if(length < 7 || length > 15)return -1;
+        long address = 0;
+        int part = 0 , digits = 0 , parts = 0;
+        for(int i = 0 ; i < length ; i++){
+            char c = value.charAt(i);
+            if(c == '.'){
+                if(digits == 0 || parts == 3)return -1;
+                address = address << 8 | part;
+                parts++;
+                part = 0;
+                digits = 0;
+            }else if(c >= '0' && c <= '9'){
+                if(digits > 0 && part == 0)return -1;
+                part = part * 10 + c - '0';
+                if(part > 255)return -1;
+                digits++;
+            }else return -1;
+        }
+        if(digits == 0 || parts != 3)return -1;
+        return address << 8 | part;
+    }
+
+    /**
+     * Format an IPv4 address
+     * @param address the address bits
+     * @return the dotted decimal address
+     */
+    public static String formatIpv4(int address){
+        StringBuilder sb = new StringBuilder(15);
+        sb.append(address >>> 24).append('.')
+                .append(address >>> 16 & 0xFF).append('.')
+                .append(address >>> 8 & 0xFF).append('.')
+                .append(address & 0xFF);
+        return sb.toString();
+    }
+
+    /**
+     * Parse a canonical IPv6 address
+     * @param value the address
+     * @param address receive the high and the low bits of the address
+     * @return true if the value is a canonical IPv6 address, address is left in an undefined state otherwise
+     */
+    public static boolean parseIpv6(CharSequence value , long[] address){
+        if(value == null || value.length() < 2 || value.length() > 39)return false;
+        int[] groups = new int[8];
+        int length = value.length() , count = 0 , gap = -1 , i = 0;
+        if(value.charAt(0) == ':'){
+            if(value.charAt(1) != ':')return false;
+            gap = 0;
+            i = 2;
+        }
+        while(i < length){
+            int group = 0 , digits = 0 , digit;
+            while(i < length && (digit = hex(value.charAt(i))) >= 0){
+                if(++digits > 4 || (digits > 1 && group == 0))return false;
+                group = group << 4 | digit;
+                i++;
+            }
+            if(digits == 0 || count == 8)return false;
+            groups[count++] = group;
+            if(i == length)break;
+            if(value.charAt(i++) != ':' || i == length)return false;
+            if(value.charAt(i) == ':'){
+                if(gap >= 0)return false;
+                gap = count;
+                i++;
+            }
+        }
+        if(gap < 0 ? count != 8 : count > 6)return false;
+        long high = 0 , low = 0;
+        int zeros = gap < 0 ? 0 : 8 - count;
+        for(int g = 0 , k = 0 ; g < 8 ; g++){
+            int group = gap >= 0 && g >= gap && g < gap + zeros ? 0 : groups[k++];
+            if(g < 4)high = high << 16 | group;
+            else low = low << 16 | group;
+        }
+        address[0] = high;
+        address[1] = low;
+        return formatIpv6(high , low).contentEquals(value);
+    }
+
+    /**
+     * Format an IPv6 address in its RFC 5952 form
+     * @param high the high bits of the address
+     * @param low the low bits of the address
+     * @return the address
+     */
+    public static String formatIpv6(long high , long low){
+        int[] groups = new int[8];
+        for(int g = 0 ; g < 4 ; g++){
+            groups[g] = (int) (high >>> (48 - g * 16)) & 0xFFFF;
+            groups[g + 4] = (int) (low >>> (48 - g * 16)) & 0xFFFF;
+        }
+        int gap = -1 , gapLength = 1;
+        for(int g = 0 ; g < 8 ; ){
+            if(groups[g] != 0){
+                g++;
+                continue;
+            }
+            int end = g;
+            while(end < 8 && groups[end] == 0)end++;
+            if(end - g > gapLength){
+                gap = g;
+                gapLength = end - g;
+            }
+            g = end;
+        }
+        StringBuilder sb = new StringBuilder(39);
+        for(int g = 0 ; g < 8 ; g++){
+            if(g == gap){
+                sb.append("::");
+                g += gapLength - 1;
+                continue;
+            }
+            if(sb.length() > 0 && sb.charAt(sb.length() - 1) != ':')sb.append(':');
+            int group = groups[g];
+            boolean started = false;
+            for(int shift = 12 ; shift >= 0 ; shift -= 4){
+                int digit = group >>> shift & 0xF;
+                if(digit != 0 || started || shift == 0){
+                    sb.append(HEX[digit]);
+                    started = true;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int hex(char c){
+        if(c >= '0' && c <= '9')return c - '0';
+        if(c >= 'a' && c <= 'f')return c - 'a' + 10;
+        return -1;
+    }
+}
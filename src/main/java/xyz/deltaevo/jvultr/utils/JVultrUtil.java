@@ -23,34 +23,69 @@ import xyz.deltaevo.jvultr.api.JVultrPlan;
 import xyz.deltaevo.jvultr.api.JVultrRegion;
 import xyz.deltaevo.jvultr.exception.JVultrException;
 
+import java.util.Comparator;
+
 /**
  * Utils for JVultr
  * @author DeltaEvolution
  */
 public class JVultrUtil {
 
+    /**
+     * Plans order of PlanIndex, by price then id
+     */
+    private static final Comparator<JVultrPlan> PRICE_ORDER = Comparator.comparingDouble(JVultrPlan::getPricePerMonth)
+            .thenComparingInt(JVultrPlan::getId);
+
     private JVultrUtil() {}
+
+    /**
+     * Search the cheapest plan with an amount of memory in a region among the plans currently offered by Vultr
+     * <p>The plans are requested from the API on every call and scanned once, use
+     * {@link #searchCachedPlan(String, int)} to search the indexed cached ones</p>
+     * @param regionName the region name
+     * @param memory the ram amount
+     * @return the plan and the region or null if no plan match
+     * @throws JVultrException if the plans can't be retrieved
+     */
     public static BiValue<JVultrPlan , JVultrRegion> searchPlan(String regionName , int memory) throws JVultrException{
+        BiValue<JVultrPlan , JVultrRegion> cheapest = null;
         for(JVultrPlan plan : JVultrAPI.getPlans().values()){
-            if(plan.getRam() == memory){
-                for(JVultrRegion region : plan.getAvailableRegions()){
-                    if(region.getName().equals(regionName)){
-                        return new BiValue<>(plan , region);
-                    }
+            if(plan.getRam() != memory)continue;
+            if(cheapest != null && PRICE_ORDER.compare(plan , cheapest.getFirst()) >= 0)continue;
+            for(JVultrRegion region : plan.getAvailableRegions()){
+                if(region != null && region.getName().equals(regionName)){
+                    cheapest = new BiValue<>(plan , region);
+                    break;
                 }
             }
         }
-        return null;
+        return cheapest;
     }
 
+    /**
+     * Search the cheapest plan with an amount of memory in a region among the cached plans
+     * @param regionName the region name
+     * @param memory the ram amount
+     * @return the plan and the region or null if no plan match
+     */
     public static BiValue<JVultrPlan , JVultrRegion>  searchCachedPlan(String regionName , int memory) throws JVultrException{
-        for(JVultrPlan plan : JVultrCache.getCachedPlans().values()){
-            if(plan.getRam() == memory){
-                for(JVultrRegion region : plan.getAvailableRegions()){
-                    if(region.getName().equals(regionName)){
-                        return new BiValue<>(plan , region);
-                    }
-                }
+        return searchPlan(JVultrCache.getPlanIndex() , regionName , memory);
+    }
+
+    /**
+     * Search the cheapest plan with an amount of memory in a region
+     * @param index the plan index
+     * @param regionName the region name
+     * @param memory the ram amount
+     * @return the plan and the region or null if no plan match
+     */
+    public static BiValue<JVultrPlan , JVultrRegion> searchPlan(PlanIndex index , String regionName , int memory){
+        JVultrPlan plan = index.query().ram(memory , memory).region(regionName).cheapest();
+        if(plan == null)return null;
+        for(JVultrRegion region : plan.getAvailableRegions()){
+            if(region != null && region.getName().equals(regionName)){
+                return new BiValue<>(plan , region);
             }
         }
         return null;
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Find the cheapest plan and region pairs fitting some requirements
+ * <p>Candidate plans come from a {@link PlanIndex} range query, already sorted by price, and their regions are
+ * filtered by AND-ing their {@link AvailabilityMatrix} row with the allowed regions bits. Continent bits are
+ * computed once, so a placement only walks the plans fitting its ranges</p>
+ * @author DeltaEvolution
+ */
+public final class PlacementSolver {
+    private final PlanIndex index;
+    private final AvailabilityMatrix matrix;
+    /**
+     * Region bits, by continent
+     */
+    private final long[][] continents;
+    private final long[] allRegions;
+
+    /**
+     * Create a solver over a catalog
+     * @param index the plan index
+     * @param matrix the availability matrix of the same plans
+     */
+    public PlacementSolver(PlanIndex index , AvailabilityMatrix matrix) {
+        this.index = index;
+        this.matrix = matrix;
+        int words = (matrix.regionCount() + 63) >>> 6;
+        this.continents = new long[JVultrRegion.Continent.values().length][words];
+        this.allRegions = new long[words];
+        for(int r = 0 ; r < matrix.regionCount() ; r++){
+            allRegions[r >>> 6] |= 1L << r;
+            JVultrRegion.Continent continent = matrix.region(r).getContinent();
+            if(continent != null)continents[continent.ordinal()][r >>> 6] |= 1L << r;
+        }
+    }
+
+    /**
+     * Get the plan index
+     * @return the plan index
+     */
+    public PlanIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the availability matrix
+     * @return the availability matrix
+     */
+    public AvailabilityMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Get the cheapest placement fitting some requirements
+     * @param requirements the requirements
+     * @return the plan and region or null if nothing fits
+     */
+    public BiValue<JVultrPlan , JVultrRegion> cheapest(Requirements requirements){
+        List<BiValue<JVultrPlan , JVultrRegion>> placements = solve(requirements , 1);
+        return placements.isEmpty() ? null : placements.get(0);
+    }
+
+    /**
+     * Get the placements fitting some requirements
+     * @param requirements the requirements
+     * @param limit max amount of placements
+     * @return the plan and region pairs, cheapest first then by region id
+     */
+    public List<BiValue<JVultrPlan , JVultrRegion>> solve(Requirements requirements , int limit){
+        List<BiValue<JVultrPlan , JVultrRegion>> placements = new ArrayList<>(Math.min(limit , 16));
+        if(limit <= 0)return placements;
+        long[] allowed = allowedRegions(requirements);
+        PlanIndex.Query query = index.query()
+                .cpus(requirements.cpus , Integer.MAX_VALUE)
+                .ram(requirements.ram , Integer.MAX_VALUE)
+                .disk(requirements.disk , Integer.MAX_VALUE)
+                .bandwidth(requirements.bandwidth , Float.POSITIVE_INFINITY)
+                .price(Float.NEGATIVE_INFINITY , requirements.maxPrice);
+        if(requirements.types != null)query.type(requirements.types);
+        for(JVultrPlan plan : query.list()){
+            long[] row = matrix.row(plan.getId());
+            if(row == null)continue;
+            for(int w = 0 ; w < row.length ; w++){
+                for(long word = row[w] & allowed[w] ; word != 0 ; word &= word - 1){
+                    placements.add(new BiValue<>(plan , matrix.region((w << 6) + Long.numberOfTrailingZeros(word))));
+                    if(placements.size() == limit)return placements;
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Solve a batch of requirements
+     * @param batch the requirements
+     * @param limit max amount of placements per requirements
+     * @return the placements of each requirements, in the batch order
+     */
+    public List<List<BiValue<JVultrPlan , JVultrRegion>>> solve(List<Requirements> batch , int limit){
+        List<List<BiValue<JVultrPlan , JVultrRegion>>> results = new ArrayList<>(batch.size());
+        for(Requirements requirements : batch)results.add(solve(requirements , limit));
+        return results;
+    }
+
+    private long[] allowedRegions(Requirements requirements){
+        if(requirements.continents == null && requirements.regions == null)return allRegions;
+        long[] allowed = new long[allRegions.length];
+        if(requirements.continents != null){
+            for(JVultrRegion.Continent continent : requirements.continents){
+                long[] bits = continents[continent.ordinal()];
+                for(int w = 0 ; w < allowed.length ; w++)allowed[w] |= bits[w];
+            }
+        }
+        if(requirements.regions != null){
+            for(int regionId : requirements.regions){
+                int r = matrix.regionOrdinal(regionId);
+                if(r >= 0)allowed[r >>> 6] |= 1L << r;
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Requirements of a placement, every unset requirement accepts anything
+     * <p>Allowed regions and continents add up: a region is allowed if it is listed or in a listed continent</p>
+     * @author DeltaEvolution
+     */
+    public static final class Requirements {
+        private int cpus;
+        private int ram;
+        private int disk;
+        private float bandwidth;
+        private float maxPrice = Float.POSITIVE_INFINITY;
+        private JVultrPlan.Type[] types;
+        private int[] regions;
+        private JVultrRegion.Continent[] continents;
+
+        /**
+         * Require a min cpu amount
+         * @param cpus min cpu amount
+         * @return this requirements
+         */
+        public Requirements cpus(int cpus){
+            this.cpus = cpus;
+            return this;
+        }
+
+        /**
+         * Require a min ram amount
+         * @param ram min ram amount
+         * @return this requirements
+         */
+        public Requirements ram(int ram){
+            this.ram = ram;
+            return this;
+        }
+
+        /**
+         * Require a min disk space
+         * @param disk min disk space
+         * @return this requirements
+         */
+        public Requirements disk(int disk){
+            this.disk = disk;
+            return this;
+        }
+
+        /**
+         * Require a min bandwidth
+         * @param bandwidth min bandwidth
+         * @return this requirements
+         */
+        public Requirements bandwidth(float bandwidth){
+            this.bandwidth = bandwidth;
+            return this;
+        }
+
+        /**
+         * Require a max price/month
+         * @param maxPrice max price/month
+         * @return this requirements
+         */
+        public Requirements maxPrice(float maxPrice){
+            this.maxPrice = maxPrice;
+            return this;
+        }
+
+        /**
+         * Allow only some plan types
+         * @param types allowed plan types
+         * @return this requirements
+         */
+        public Requirements types(JVultrPlan.Type... types){
+            this.types = types.clone();
+            return this;
+        }
+
+        /**
+         * Allow only some regions
+         * @param regionIds allowed region ids
+         * @return this requirements
+         */
+        public Requirements regions(int... regionIds){
+            this.regions = regionIds.clone();
+            return this;
+        }
+
+        /**
+         * Allow only the regions of some continents
+         * @param continents allowed continents
+         * @return this requirements
+         */
+        public Requirements continents(JVultrRegion.Continent... continents){
+            this.continents = continents.clone();
+            return this;
+        }
+    }
+}
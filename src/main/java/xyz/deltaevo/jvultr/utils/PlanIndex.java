@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index over a plan catalog answering range queries on the plan attributes
+ * <p>Every numeric attribute keeps the plans sorted by its value, a range is found with two binary searches.
+ * Types and regions keep a bitset of their plans. A query walks the most selective range only and checks the
+ * other constraints on its plans. Results are sorted by price, cheapest first</p>
+ * @author DeltaEvolution
+ */
+public final class PlanIndex {
+    private static final int RAM = 0;
+    private static final int CPUS = 1;
+    private static final int DISK = 2;
+    private static final int BANDWIDTH = 3;
+    private static final int PRICE = 4;
+    private static final int ATTRIBUTES = 5;
+
+    private final Map<Integer , JVultrPlan> source;
+    /**
+     * Plans sorted by price then id
+     */
+    private final JVultrPlan[] plans;
+    /**
+     * Attribute values, by attribute then plan
+     */
+    private final double[][] values = new double[ATTRIBUTES][];
+    /**
+     * Plans sorted by value, by attribute
+     */
+    private final int[][] orders = new int[ATTRIBUTES][];
+    /**
+     * Sorted values, by attribute
+     */
+    private final double[][] sorted = new double[ATTRIBUTES][];
+    private final BitSet[] types = new BitSet[JVultrPlan.Type.values().length];
+    private final IntMap<BitSet> regions = new IntMap<>();
+    private final Map<String , BitSet> regionNames = new HashMap<>();
+
+    /**
+     * Build the index of a plan catalog
+     * @param catalog plans by id
+     */
+    public PlanIndex(Map<Integer , JVultrPlan> catalog) {
+        this.source = catalog;
+        this.plans = catalog.values().toArray(new JVultrPlan[0]);
+        Arrays.sort(plans , Comparator.comparingDouble(JVultrPlan::getPricePerMonth).thenComparingInt(JVultrPlan::getId));
+        for(int a = 0 ; a < ATTRIBUTES ; a++)values[a] = new double[plans.length];
+        for(int i = 0 ; i < types.length ; i++)types[i] = new BitSet(plans.length);
+        for(int p = 0 ; p < plans.length ; p++){
+            JVultrPlan plan = plans[p];
+            values[RAM][p] = plan.getRam();
+            values[CPUS][p] = plan.getCpus();
+            values[DISK][p] = plan.getDisk();
+            values[BANDWIDTH][p] = plan.getBandwidth();
+            values[PRICE][p] = plan.getPricePerMonth();
+            if(plan.getType() != null)types[plan.getType().ordinal()].set(p);
+            for(JVultrRegion region : plan.getAvailableRegions()){
+                if(region == null)continue;
+                BitSet byId = regions.get(region.getId());
+                if(byId == null)regions.put(region.getId() , byId = new BitSet(plans.length));
+                byId.set(p);
+                if(region.getName() != null)regionNames.computeIfAbsent(region.getName() , name -> new BitSet(plans.length)).set(p);
+            }
+        }
+        for(int a = 0 ; a < ATTRIBUTES ; a++){
+            double[] attribute = values[a];
+            Integer[] order = new Integer[plans.length];
+            for(int p = 0 ; p < order.length ; p++)order[p] = p;
+            Arrays.sort(order , Comparator.comparingDouble(p -> attribute[p]));
+            orders[a] = new int[order.length];
+            sorted[a] = new double[order.length];
+            for(int i = 0 ; i < order.length ; i++){
+                orders[a][i] = order[i];
+                sorted[a][i] = attribute[order[i]];
+            }
+        }
+    }
+
+    /**
+     * Get the catalog this index was built from
+     * @return plans by id
+     */
+    public Map<Integer , JVultrPlan> getPlans() {
+        return source;
+    }
+
+    /**
+     * Get the amount of indexed plans
+     * @return plan amount
+     */
+    public int size(){
+        return plans.length;
+    }
+
+    /**
+     * Start a query matching every plan
+     * @return the query
+     */
+    public Query query(){
+        return new Query();
+    }
+
+    /**
+     * A plan query, every constraint narrows the result
+     * @author DeltaEvolution
+     */
+    public final class Query {
+        private final double[] min = new double[ATTRIBUTES];
+        private final double[] max = new double[ATTRIBUTES];
+        private final List<BitSet> sets = new ArrayList<>();
+
+        private Query() {
+            Arrays.fill(min , Double.NEGATIVE_INFINITY);
+            Arrays.fill(max , Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Match plans with a ram amount in a range
+         * @param min min ram, inclusive
+         * @param max max ram, inclusive
+         * @return this query
+         */
+        public Query ram(int min , int max){
+            return range(RAM , min , max);
+        }
+
+        /**
+         * Match plans with a cpu amount in a range
+         * @param min min cpus, inclusive
+         * @param max max cpus, inclusive
+         * @return this query
+         */
+        public Query cpus(int min , int max){
+            return range(CPUS , min , max);
+        }
+
+        /**
+         * Match plans with a disk space in a range
+         * @param min min disk, inclusive
+         * @param max max disk, inclusive
+         * @return this query
+         */
+        public Query disk(int min , int max){
+            return range(DISK , min , max);
+        }
+
+        /**
+         * Match plans with a bandwidth in a range
+         * @param min min bandwidth, inclusive
+         * @param max max bandwidth, inclusive
+         * @return this query
+         */
+        public Query bandwidth(float min , float max){
+            return range(BANDWIDTH , min , max);
+        }
+
+        /**
+         * Match plans with a price/month in a range
+         * @param min min price, inclusive
+         * @param max max price, inclusive
+         * @return this query
+         */
+        public Query price(float min , float max){
+            return range(PRICE , min , max);
+        }
+
+        /**
+         * Match plans of some types
+         * @param types accepted types
+         * @return this query
+         */
+        public Query type(JVultrPlan.Type... types){
+            BitSet set = new BitSet(plans.length);
+            for(JVultrPlan.Type type : types)set.or(PlanIndex.this.types[type.ordinal()]);
+            sets.add(set);
+            return this;
+        }
+
+        /**
+         * Match plans available in a region
+         * @param regionId the region id
+         * @return this query
+         */
+        public Query region(int regionId){
+            BitSet set = regions.get(regionId);
+            sets.add(set != null ? set : new BitSet(0));
+            return this;
+        }
+
+        /**
+         * Match plans available in a region
+         * @param region the region
+         * @return this query
+         */
+        public Query region(JVultrRegion region){
+            return region(region.getId());
+        }
+
+        /**
+         * Match plans available in a region
+         * @param regionName the region name
+         * @return this query
+         */
+        public Query region(String regionName){
+            BitSet set = regionNames.get(regionName);
+            sets.add(set != null ? set : new BitSet(0));
+            return this;
+        }
+
+        /**
+         * Get the matching plans
+         * @return the plans, cheapest first
+         */
+        public List<JVultrPlan> list(){
+            BitSet matches = matches();
+            List<JVultrPlan> result = new ArrayList<>(matches.cardinality());
+            for(int p = matches.nextSetBit(0) ; p >= 0 ; p = matches.nextSetBit(p + 1))result.add(plans[p]);
+            return result;
+        }
+
+        /**
+         * Get the cheapest matching plan
+         * @return the plan or null if no plan matches
+         */
+        public JVultrPlan cheapest(){
+            int p = matches().nextSetBit(0);
+            return p < 0 ? null : plans[p];
+        }
+
+        /**
+         * Get the amount of matching plans
+         * @return matching plan amount
+         */
+        public int count(){
+            return matches().cardinality();
+        }
+
+        private Query range(int attribute , double min , double max){
+            this.min[attribute] = Math.max(this.min[attribute] , min);
+            this.max[attribute] = Math.min(this.max[attribute] , max);
+            return this;
+        }
+
+        private BitSet matches(){
+            int best = -1;
+            int bestFrom = 0;
+            int bestTo = plans.length;
+            for(int a = 0 ; a < ATTRIBUTES ; a++){
+                if(min[a] == Double.NEGATIVE_INFINITY && max[a] == Double.POSITIVE_INFINITY)continue;
+                int from = lowerBound(sorted[a] , min[a]);
+                int to = upperBound(sorted[a] , max[a]);
+                if(to - from < bestTo - bestFrom || best < 0){
+                    best = a;
+                    bestFrom = from;
+                    bestTo = Math.max(from , to);
+                }
+            }
+            BitSet result = new BitSet(plans.length);
+            if(best < 0){
+                result.set(0 , plans.length);
+            }else{
+                for(int i = bestFrom ; i < bestTo ; i++){
+                    int p = orders[best][i];
+                    if(inRanges(p , best))result.set(p);
+                }
+            }
+            for(BitSet set : sets)result.and(set);
+            return result;
+        }
+
+        private boolean inRanges(int plan , int skip){
+            for(int a = 0 ; a < ATTRIBUTES ; a++){
+                if(a == skip)continue;
+                double value = values[a][plan];
+                if(value < min[a] || value > max[a])return false;
+            }
+            return true;
+        }
+    }
+
+    private static int lowerBound(double[] sorted , double value){
+        int low = 0 , high = sorted.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(sorted[mid] < value)low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted , double value){
+        int low = 0 , high = sorted.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(sorted[mid] <= value)low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -17,8 +17,14 @@
  */
 package xyz.deltaevo.jvultr.utils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Utils for Reflection
@@ -27,26 +33,63 @@ import java.util.Arrays;
 public class Reflection {
 
     /**
-     * Print all field of an object
+     * Field getters by class, looked up once per class
+     */
+    private static final ClassValue<Accessor[]> ACCESSORS = new ClassValue<Accessor[]>() {
+        @Override
+        protected Accessor[] computeValue(Class<?> type) {
+            return accessors(type);
+        }
+    };
+
+    /**
+     * A field name with its getter
+     */
+    private static final class Accessor {
+        private final String prefix;
+        private final MethodHandle getter;
+
+        private Accessor(String name , MethodHandle getter) {
+            this.prefix = name + ':';
+            this.getter = getter;
+        }
+    }
+
+    /**
+     * Print all instance field of an object
      * @param o the object
      * @return string with all field
      */
     public static String toString(Object o){
         StringBuilder sb = new StringBuilder();
-        Class<?> clazz = o.getClass();
-        for(Field f : clazz.getDeclaredFields()){
-            sb.append(f.getName());
-            sb.append(':');
+        for(Accessor accessor : ACCESSORS.get(o.getClass())){
+            sb.append(accessor.prefix);
             try {
-                f.setAccessible(true);
-                if(f.get(o) != null &&f.get(o).getClass().isArray())sb.append(Arrays.toString((Object[]) f.get(o)));
-                else sb.append(f.get(o));
-            } catch (IllegalAccessException e) {
+                Object value = accessor.getter.invokeExact(o);
+                if(value instanceof Object[])sb.append(Arrays.toString((Object[]) value));
+                else sb.append(value);
+            } catch (Throwable e) {
                 e.printStackTrace();
             }
             sb.append(',');
         }
-        sb.deleteCharAt(sb.length() -1);
+        if(sb.length() > 0)sb.deleteCharAt(sb.length() -1);
         return sb.toString();
     }
+
+    private static Accessor[] accessors(Class<?> type){
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Accessor> accessors = new ArrayList<>();
+        for(Field f : type.getDeclaredFields()){
+            if(Modifier.isStatic(f.getModifiers()))continue;
+            try {
+                f.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(f);
+                accessors.add(new Accessor(f.getName() , getter.asType(MethodType.methodType(Object.class , Object.class))));
+            } catch (IllegalAccessException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        return accessors.toArray(new Accessor[0]);
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicate the strings of low cardinality fields
+ * <p>Equal strings share one instance once interned. The table stops growing at its capacity, strings interned
+ * past it are returned as they are</p>
+ * @author DeltaEvolution
+ */
+public class StringTable {
+
+    /**
+     * Interned strings
+     */
+    private final ConcurrentHashMap<String , String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum amount of interned strings
+     */
+    private final int capacity;
+
+    /**
+     * @param capacity maximum amount of interned strings
+     */
+    public StringTable(int capacity) {
+        if(capacity < 0)throw new IllegalArgumentException("capacity < 0");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the shared instance of a string
+     * @param value the string
+     * @return the shared instance equal to value, value itself if the table is full or null if value is null
+     */
+    public String intern(String value){
+        if(value == null)return null;
+        String shared = strings.get(value);
+        if(shared != null)return shared;
+        if(strings.size() >= capacity)return value;
+        shared = strings.putIfAbsent(value , value);
+        return shared != null ? shared : value;
+    }
+
+    /**
+     * Get the amount of interned strings
+     * @return interned strings
+     */
+    public int size(){
+        return strings.size();
+    }
+
+    /**
+     * Forget every interned string
+     */
+    public void clear(){
+        strings.clear();
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.api.JVultrServer;
+import xyz.deltaevo.jvultr.utils.IntMap;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of FleetTracker
+ * @author DeltaEvolution
+ */
+public class FleetTrackerTest {
+
+    @BeforeClass
+    public static void cacheCatalog(){
+        Map<Integer , JVultrRegion> regions = new HashMap<>();
+        regions.put(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false));
+        regions.put(2 , new JVultrRegion(2 , "Chicago" , null , null , null , false));
+        JVultrCache.setCachedRegions(regions);
+        Map<Integer , JVultrPlan> plans = new HashMap<>();
+        plans.put(201 , new JVultrPlan(201 , "768 MB RAM" , 1 , 768 , 15 , 1000 , 5 , false , JVultrPlan.Type.SSD , new JVultrRegion[0]));
+        plans.put(202 , new JVultrPlan(202 , "1024 MB RAM" , 1 , 1024 , 20 , 2000 , 8 , false , JVultrPlan.Type.SSD , new JVultrRegion[0]));
+        JVultrCache.setCachedPlans(plans);
+    }
+
+    private static String json(int id , String fields){
+        return "{\"SUBID\":\"" + id + "\",\"status\":\"active\",\"power_status\":\"running\",\"server_state\":\"ok\"," +
+                "\"label\":\"web\",\"main_ip\":\"10.0.0." + id + "\",\"pending_charges\":\"1.5\",\"cost_per_month\":\"5\"," +
+                "\"DCID\":\"1\",\"VPSPLANID\":\"201\"" + fields + "}";
+    }
+
+    private static JVultrServer server(int id , String fields) throws IOException{
+        return JVultrServer.BINDER.read(new JsonReader(new StringReader(json(id , fields))));
+    }
+
+    private static Map<Integer , JVultrServer> fleet(JVultrServer... servers){
+        Map<Integer , JVultrServer> fleet = new HashMap<>();
+        for(JVultrServer server : servers)fleet.put(server.getId() , server);
+        return fleet;
+    }
+
+    @Test
+    public void firstPollAddsEveryServer() throws Exception{
+        FleetTracker tracker = new FleetTracker();
+        Map<Integer , JVultrServer> fleet = fleet(server(3 , "") , server(1 , "") , server(2 , ""));
+        fleet.put(9 , null);
+        List<FleetTracker.Change> changes = tracker.update(fleet);
+        assertEquals(3 , changes.size());
+        for(int i = 0 ; i < 3 ; i++){
+            FleetTracker.Change change = changes.get(i);
+            assertEquals(i + 1 , change.getId());
+            assertEquals(FleetTracker.Change.Kind.ADDED , change.getKind());
+            assertNull(change.getPrevious());
+            assertSame(fleet.get(i + 1) , change.getCurrent());
+            assertTrue(change.getFields().isEmpty());
+        }
+        assertEquals(3 , tracker.getServers().size());
+        assertTrue(tracker.update(fleet).isEmpty());
+    }
+
+    @Test
+    public void changesAreReportedByField() throws Exception{
+        FleetTracker tracker = new FleetTracker();
+        JVultrServer same = server(1 , "");
+        JVultrServer changed = server(2 , "");
+        JVultrServer removed = server(3 , "");
+        tracker.update(fleet(same , changed , removed));
+
+        JVultrServer after = server(2 , ",\"status\":\"pending\",\"label\":\"db\",\"tag\":\"x\",\"DCID\":\"2\"," +
+                "\"VPSPLANID\":\"202\",\"pending_charges\":\"2\"");
+        JVultrServer added = server(4 , "");
+        List<FleetTracker.Change> changes = tracker.update(fleet(server(1 , "") , after , added));
+        assertEquals(3 , changes.size());
+
+        assertEquals(FleetTracker.Change.Kind.CHANGED , changes.get(0).getKind());
+        assertSame(changed , changes.get(0).getPrevious());
+        assertSame(after , changes.get(0).getCurrent());
+        assertEquals(EnumSet.of(FleetTracker.Field.STATUS , FleetTracker.Field.LABEL , FleetTracker.Field.TAG ,
+                FleetTracker.Field.REGION , FleetTracker.Field.PLAN , FleetTracker.Field.PENDING_CHARGES) , changes.get(0).getFields());
+
+        assertEquals(FleetTracker.Change.Kind.REMOVED , changes.get(1).getKind());
+        assertEquals(3 , changes.get(1).getId());
+        assertSame(removed , changes.get(1).getPrevious());
+        assertNull(changes.get(1).getCurrent());
+
+        assertEquals(FleetTracker.Change.Kind.ADDED , changes.get(2).getKind());
+        assertSame(added , changes.get(2).getCurrent());
+        assertEquals(3 , tracker.getServers().size());
+    }
+
+    @Test
+    public void diffComparesEveryField() throws Exception{
+        JVultrServer base = server(1 , "");
+        assertTrue(FleetTracker.diff(base , server(1 , "")).isEmpty());
+        assertEquals(EnumSet.of(FleetTracker.Field.POWER_STATUS) , FleetTracker.diff(base , server(1 , ",\"power_status\":\"stopped\"")));
+        assertEquals(EnumSet.of(FleetTracker.Field.SERVER_STATE) , FleetTracker.diff(base , server(1 , ",\"server_state\":\"locked\"")));
+        assertEquals(EnumSet.of(FleetTracker.Field.MAIN_IP) , FleetTracker.diff(base , server(1 , ",\"main_ip\":\"10.0.1.1\"")));
+        assertEquals(EnumSet.of(FleetTracker.Field.INTERNAL_IP) , FleetTracker.diff(base , server(1 , ",\"internal_ip\":\"10.99.0.1\"")));
+        assertTrue(FleetTracker.diff(server(1 , ",\"internal_ip\":\"pending\"") , server(1 , ",\"internal_ip\":\"pending\"")).isEmpty());
+        assertEquals(EnumSet.of(FleetTracker.Field.INTERNAL_IP) , FleetTracker.diff(base , server(1 , ",\"internal_ip\":\"pending\"")));
+        assertEquals(EnumSet.of(FleetTracker.Field.COST_PER_MONTH) , FleetTracker.diff(base , server(1 , ",\"cost_per_month\":\"10\"")));
+        assertEquals(EnumSet.of(FleetTracker.Field.REGION) , FleetTracker.diff(base , server(1 , ",\"DCID\":\"7\"")));
+    }
+
+    @Test
+    public void diffComparesTheV6Networks() throws Exception{
+        String v6 = ",\"v6_network\":\"2001:db8:1000::\",\"v6_main_ip\":\"2001:db8:1000::100\",\"v6_network_size\":\"64\"," +
+                "\"v6_network_ip\":\"2001:db8:1000::\",\"v6_networks\":[{\"v6_network\":\"2001:db8:1000::\"," +
+                "\"v6_main_ip\":\"2001:db8:1000::100\",\"v6_network_size\":\"64\"}]";
+        JVultrServer base = server(1 , v6);
+        assertTrue(FleetTracker.diff(base , server(1 , v6)).isEmpty());
+        assertEquals(EnumSet.of(FleetTracker.Field.V6_NETWORKS) , FleetTracker.diff(base , server(1 , "")));
+        assertEquals(EnumSet.of(FleetTracker.Field.V6_NETWORKS) , FleetTracker.diff(base , server(1 , v6.replace("::100" , "::200"))));
+        assertEquals(EnumSet.of(FleetTracker.Field.V6_NETWORKS) , FleetTracker.diff(base , server(1 , v6.replace("]" , ",{}]"))));
+    }
+
+    @Test
+    public void listenersAreCalledWithoutTheTrackerLock() throws Exception{
+        FleetTracker tracker = new FleetTracker();
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        tracker.addListener(changes -> {
+            if(!sizes.isEmpty())return;
+            Thread other = new Thread(() -> sizes.add(tracker.update(fleet()).size()));
+            other.start();
+            try {
+                other.join(10000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertTrue("the listener held the tracker lock" , !other.isAlive());
+        });
+        tracker.update(fleet(server(1 , "")));
+        assertEquals(Collections.singletonList(1) , sizes);
+        assertTrue(tracker.getServers().isEmpty());
+    }
+
+    @Test
+    public void listenersAreOnlyNotifiedOfChanges() throws Exception{
+        FleetTracker tracker = new FleetTracker();
+        List<List<FleetTracker.Change>> notified = new ArrayList<>();
+        FleetTracker.Listener failing = changes -> {
+            throw new IllegalStateException("listener failure");
+        };
+        FleetTracker.Listener recording = notified::add;
+        tracker.addListener(failing);
+        tracker.addListener(recording);
+
+        Map<Integer , JVultrServer> fleet = fleet(server(1 , ""));
+        List<FleetTracker.Change> changes = tracker.update(fleet);
+        assertEquals(1 , notified.size());
+        assertSame(changes , notified.get(0));
+        tracker.update(fleet);
+        assertEquals(1 , notified.size());
+
+        tracker.reset();
+        assertTrue(tracker.getServers().isEmpty());
+        assertEquals(FleetTracker.Change.Kind.ADDED , tracker.update(fleet).get(0).getKind());
+        assertEquals(2 , notified.size());
+
+        tracker.removeListener(recording);
+        tracker.update(Collections.emptyMap());
+        assertEquals(2 , notified.size());
+    }
+
+    @Test
+    public void listenerFailuresAreReported() throws Exception{
+        FleetTracker tracker = new FleetTracker();
+        IllegalStateException failure = new IllegalStateException("listener failure");
+        List<Throwable> errors = new ArrayList<>();
+        List<List<FleetTracker.Change>> notified = new ArrayList<>();
+        tracker.addListener(changes -> {
+            throw failure;
+        });
+        tracker.addListener(notified::add);
+        tracker.setErrorHandler(errors::add);
+
+        tracker.update(fleet(server(1 , "")));
+        assertEquals(1 , errors.size());
+        assertSame(failure , errors.get(0));
+        assertEquals(1 , notified.size());
+
+        // a failing handler does not stop the other listeners
+        tracker.setErrorHandler(error -> {
+            throw new IllegalStateException("handler failure");
+        });
+        tracker.update(fleet(server(2 , "")));
+        assertEquals(2 , notified.size());
+
+        tracker.setErrorHandler(null);
+        assertNotNull(tracker.getErrorHandler());
+        tracker.update(fleet(server(3 , "")));
+        assertEquals(1 , errors.size());
+        assertEquals(3 , notified.size());
+    }
+
+    @Test
+    public void pollReadsTheClientServers() throws Exception{
+        AtomicInteger poll = new AtomicInteger();
+        TestTransport transport = new TestTransport(request -> poll.getAndIncrement() == 0
+                ? "{\"1\":" + json(1 , "") + ",\"2\":" + json(2 , "") + "}"
+                : "{\"2\":" + json(2 , ",\"power_status\":\"stopped\"") + "}");
+        JVultrClient client = new JVultrClient("key" , transport);
+        FleetTracker tracker = new FleetTracker();
+        assertEquals(2 , tracker.poll(client).size());
+
+        List<FleetTracker.Change> changes = tracker.poll(client);
+        assertEquals(2 , changes.size());
+        assertEquals(FleetTracker.Change.Kind.REMOVED , changes.get(0).getKind());
+        assertEquals(EnumSet.of(FleetTracker.Field.POWER_STATUS) , changes.get(1).getFields());
+        assertEquals(2 , transport.getCalls());
+    }
+
+    @Test
+    public void concurrentUpdatesAreSerialized() throws Exception{
+        int threads = 4;
+        int polls = 200;
+        List<Map<Integer , JVultrServer>> fleets = new ArrayList<>();
+        for(int i = 0 ; i < threads ; i++){
+            Map<Integer , JVultrServer> fleet = new HashMap<>();
+            for(int id = i ; id < i + 20 ; id++)fleet.put(id , server(id , ",\"label\":\"fleet" + i + "\""));
+            fleets.add(fleet);
+        }
+        FleetTracker tracker = new FleetTracker();
+        List<List<FleetTracker.Change>> notified = new CopyOnWriteArrayList<>();
+        tracker.addListener(notified::add);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier start = new CyclicBarrier(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for(int i = 0 ; i < threads ; i++){
+                Map<Integer , JVultrServer> fleet = fleets.get(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for(int j = 0 ; j < polls ; j++)tracker.update(fleet);
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures)future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Replaying the notified changes in order must rebuild the tracked fleet
+        Map<Integer , JVultrServer> replayed = new HashMap<>();
+        for(List<FleetTracker.Change> changes : notified){
+            for(FleetTracker.Change change : changes){
+                if(change.getKind() == FleetTracker.Change.Kind.ADDED)assertNull(replayed.put(change.getId() , change.getCurrent()));
+                else assertSame(change.getPrevious() , change.getKind() == FleetTracker.Change.Kind.REMOVED
+                        ? replayed.remove(change.getId()) : replayed.put(change.getId() , change.getCurrent()));
+            }
+        }
+        IntMap<JVultrServer> tracked = tracker.getServers();
+        assertEquals(tracked.size() , replayed.size());
+        for(Map.Entry<Integer , JVultrServer> entry : replayed.entrySet())assertSame(entry.getValue() , tracked.get(entry.getKey()));
+        assertTrue(fleets.contains(new HashMap<>(tracked)));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.api.JVultrServer;
+import xyz.deltaevo.jvultr.exception.InvalidAPIKey;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+import xyz.deltaevo.jvultr.http.JVultrRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of JVultrAsyncClient
+ * @author DeltaEvolution
+ */
+public class JVultrAsyncClientTest {
+    private static final String SERVERS = "{\"1\":{\"SUBID\":\"1\",\"DCID\":\"1\",\"VPSPLANID\":\"201\",\"label\":\"web\"}," +
+            "\"2\":{\"SUBID\":\"2\",\"DCID\":\"1\",\"VPSPLANID\":\"201\",\"label\":\"db\"}}";
+
+    @BeforeClass
+    public static void cacheCatalog(){
+        JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false)));
+        JVultrCache.setCachedPlans(Collections.singletonMap(201 , new JVultrPlan(201 , "768 MB RAM" , 1 , 768 , 15 ,
+                1000 , 5 , false , JVultrPlan.Type.SSD , new JVultrRegion[0])));
+    }
+
+    @Test
+    public void callsReturnBeforeTheResponse() throws Exception{
+        CountDownLatch release = new CountDownLatch(1);
+        TestTransport transport = new TestTransport(request -> {
+            try {
+                if(!release.await(10 , TimeUnit.SECONDS))throw new RequestFailed();
+            } catch (InterruptedException e) {
+                throw new RequestFailed(e);
+            }
+            return SERVERS;
+        });
+        JVultrAsyncClient client = new JVultrAsyncClient("key" , transport);
+        CompletableFuture<HashMap<Integer , JVultrServer>> servers = client.getSevers();
+        assertFalse(servers.isDone());
+        release.countDown();
+        HashMap<Integer , JVultrServer> result = servers.get(10 , TimeUnit.SECONDS);
+        assertEquals(2 , result.size());
+        assertEquals("web" , result.get(1).getLabel());
+        assertEquals("db" , result.get(2).getLabel());
+    }
+
+    @Test
+    public void requestsCarryTheApiKeyAndParameters() throws Exception{
+        List<JVultrRequest> requests = new CopyOnWriteArrayList<>();
+        TestTransport transport = new TestTransport(request -> {
+            requests.add(request);
+            return "";
+        });
+        JVultrAsyncClient client = new JVultrAsyncClient("key" , transport);
+        assertNull(client.destroyServer(42).get(10 , TimeUnit.SECONDS));
+        assertEquals(1 , requests.size());
+        JVultrRequest request = requests.get(0);
+        assertEquals("POST" , request.getMethod());
+        assertEquals(JVultrAPI.ENDPOINT + "v1/server/destroy" , request.getUrl());
+        assertEquals("key" , request.getApiKey());
+        assertEquals("SUBID=42" , request.getParameters());
+        assertFalse(request.isIdempotent());
+    }
+
+    @Test
+    public void createServerResolvesTheCreatedServer() throws Exception{
+        TestTransport transport = new TestTransport(request -> request.getMethod().equals("POST") ? "{\"SUBID\":\"2\"}" : SERVERS);
+        JVultrAsyncClient client = new JVultrAsyncClient("key" , transport);
+        JVultrServer server = client.createServer(1 , 201 , 127).get(10 , TimeUnit.SECONDS);
+        assertEquals(2 , server.getId());
+        assertEquals("db" , server.getLabel());
+        assertEquals(2 , transport.getCalls());
+    }
+
+    @Test
+    public void failuresCompleteTheFutureExceptionally() throws Exception{
+        TestTransport transport = new TestTransport(request -> {
+            throw new InvalidAPIKey();
+        });
+        JVultrAsyncClient client = new JVultrAsyncClient("key" , transport);
+        try {
+            client.getSevers().get(10 , TimeUnit.SECONDS);
+            fail("the request didn't fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InvalidAPIKey);
+        }
+        try {
+            client.createSnapshot(1).get(10 , TimeUnit.SECONDS);
+            fail("the request didn't fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InvalidAPIKey);
+        }
+    }
+}
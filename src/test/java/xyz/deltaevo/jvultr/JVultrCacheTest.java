@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrOS;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.exception.InternalServerError;
+import xyz.deltaevo.jvultr.http.JVultrTransport;
+import xyz.deltaevo.jvultr.http.RateLimiter;
+import xyz.deltaevo.jvultr.http.RetryPolicy;
+import xyz.deltaevo.jvultr.utils.PlanIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of JVultrCache
+ * @author DeltaEvolution
+ */
+public class JVultrCacheTest {
+    private static final String REGIONS = "{\"1\":{\"DCID\":\"1\",\"name\":\"New Jersey\"},\"2\":{\"DCID\":\"2\",\"name\":\"Chicago\"}}";
+    private static final String PLANS = "{\"201\":{\"VPSPLANID\":\"201\",\"name\":\"768 MB RAM\",\"available_locations\":[1,2]}}";
+    private static final String OSS = "{\"127\":{\"OSID\":\"127\",\"name\":\"CentOS 6 x64\"},\"159\":{\"OSID\":\"159\",\"name\":\"Custom\"}}";
+
+    /**
+     * Answer the catalog requests
+     */
+    private static String catalog(String url){
+        if(url.endsWith("v1/regions/list"))return REGIONS;
+        if(url.endsWith("v1/plans/list"))return PLANS;
+        if(url.endsWith("v1/os/list"))return OSS;
+        return "";
+    }
+
+    private JVultrTransport transport;
+    private RetryPolicy retryPolicy;
+    private RateLimiter limiter;
+
+    @Before
+    public void setUp(){
+        transport = JVultrAPI.getTransport();
+        retryPolicy = JVultrAPI.getRetryPolicy();
+        limiter = JVultrAPI.getRateLimiter();
+        JVultrAPI.setRetryPolicy(RetryPolicy.NONE);
+        JVultrAPI.setRateLimiter(new RateLimiter(1000 , 1000 , 0));
+        JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false)));
+    }
+
+    @After
+    public void tearDown(){
+        JVultrAPI.setTransport(transport);
+        JVultrAPI.setRetryPolicy(retryPolicy);
+        JVultrAPI.setRateLimiter(limiter);
+        JVultrCache.forgetMissing();
+        JVultrCache.setErrorHandler(null);
+    }
+
+    @Test
+    public void failedReloadIsNotRemembered(){
+        TestTransport failing = new TestTransport(request -> {
+            throw new InternalServerError();
+        });
+        JVultrAPI.setTransport(failing);
+        assertNull(JVultrCache.getCachedRegion(2));
+        assertNull(JVultrCache.getCachedRegion(2));
+        assertEquals(2 , failing.getCalls());
+
+        TestTransport working = new TestTransport(request -> REGIONS);
+        JVultrAPI.setTransport(working);
+        assertNotNull(JVultrCache.getCachedRegion(2));
+        assertEquals(1 , working.getCalls());
+    }
+
+    @Test
+    public void idsAreNotRememberedMissingWhileTheCatalogCantLoad(){
+        JVultrCache.reset();
+        TestTransport failing = new TestTransport(request -> {
+            throw new InternalServerError();
+        });
+        JVultrAPI.setTransport(failing);
+        assertNull(JVultrCache.getCachedPlan(201));
+        assertNull(JVultrCache.getCachedRegion(1));
+        assertNull(JVultrCache.getCachedPlan(201));
+        assertEquals(3 , failing.getCalls());
+
+        // the first catalog loaded lacks the plan, which must still be looked up again
+        AtomicInteger plans = new AtomicInteger();
+        TestTransport working = new TestTransport(request -> request.getUrl().endsWith("v1/plans/list")
+                && plans.getAndIncrement() == 0 ? "{}" : catalog(request.getUrl()));
+        JVultrAPI.setTransport(working);
+        assertNotNull(JVultrCache.getCachedPlan(201));
+        assertEquals(2 , plans.get());
+    }
+
+    @Test
+    public void missingIdIsRememberedAfterReload(){
+        TestTransport working = new TestTransport(request -> REGIONS);
+        JVultrAPI.setTransport(working);
+        assertNull(JVultrCache.getCachedRegion(42));
+        assertNull(JVultrCache.getCachedRegion(42));
+        assertEquals(1 , working.getCalls());
+
+        JVultrCache.forgetMissing();
+        assertNull(JVultrCache.getCachedRegion(42));
+        assertEquals(2 , working.getCalls());
+    }
+
+    @Test
+    public void planIndexIsReusedUntilPlansChange(){
+        JVultrCache.setCachedPlans(Collections.singletonMap(201 , new JVultrPlan(201 , "768 MB RAM" , 1 , 768 , 15 , 1000 , 5 ,
+                false , JVultrPlan.Type.SSD , new JVultrRegion[0])));
+        PlanIndex index = JVultrCache.getPlanIndex();
+        assertSame(index , JVultrCache.getPlanIndex());
+        assertEquals(1 , index.size());
+
+        JVultrCache.setCachedPlans(Collections.emptyMap());
+        assertNotSame(index , JVultrCache.getPlanIndex());
+        assertEquals(0 , JVultrCache.getPlanIndex().size());
+    }
+
+    @Test
+    public void catalogsAreLoadedOnFirstAccess(){
+        JVultrCache.reset();
+        TestTransport working = new TestTransport(request -> catalog(request.getUrl()));
+        JVultrAPI.setTransport(working);
+        assertFalse(JVultrCache.regionsReady().isDone());
+        assertEquals(0 , working.getCalls());
+
+        assertEquals(2 , JVultrCache.getCachedRegions().size());
+        assertEquals(1 , working.getCalls());
+        assertSame(JVultrCache.getCachedRegions() , JVultrCache.regionsReady().getNow(null));
+        assertFalse(JVultrCache.plansReady().isDone());
+        assertEquals(1 , working.getCalls());
+    }
+
+    @Test
+    public void prefetchLoadsTheCatalogsInTheBackground() throws Exception{
+        JVultrCache.reset();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> urls = new CopyOnWriteArrayList<>();
+        JVultrAPI.setTransport(new TestTransport(request -> {
+            urls.add(request.getUrl());
+            try {
+                if(!release.await(10 , TimeUnit.SECONDS))throw new InternalServerError();
+            } catch (InterruptedException e) {
+                throw new InternalServerError();
+            }
+            return catalog(request.getUrl());
+        }));
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            CompletableFuture<Void> prefetch = JVultrCache.prefetch(executor);
+            assertFalse(prefetch.isDone());
+            assertFalse(JVultrCache.ready().isDone());
+            release.countDown();
+            prefetch.get(10 , TimeUnit.SECONDS);
+
+            assertTrue(JVultrCache.ready().isDone());
+            assertEquals(2 , JVultrCache.regionsReady().getNow(null).size());
+            JVultrPlan plan = JVultrCache.plansReady().getNow(null).get(201);
+            assertEquals(2 , plan.getAvailableRegions().length);
+            JVultrOS custom = JVultrCache.customReady().getNow(null);
+            assertEquals(159 , custom.getId());
+            assertTrue(urls.indexOf(JVultrAPI.ENDPOINT + "v1/regions/list") < urls.indexOf(JVultrAPI.ENDPOINT + "v1/plans/list"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedPrefetchLeavesTheCatalogsUnloaded(){
+        JVultrCache.reset();
+        JVultrAPI.setTransport(new TestTransport(request -> {
+            throw new InternalServerError();
+        }));
+        CompletableFuture<Void> prefetch = JVultrCache.prefetch(Runnable::run);
+        assertTrue(prefetch.isCompletedExceptionally());
+        assertFalse(JVultrCache.regionsReady().isDone());
+        assertFalse(JVultrCache.customReady().isDone());
+        assertTrue(JVultrCache.getCachedRegions().isEmpty());
+        assertEquals(-1 , JVultrCache.getSnapshotAge());
+    }
+
+    @Test
+    public void concurrentMissesShareOneReload() throws Exception{
+        int threads = 16;
+        CountDownLatch release = new CountDownLatch(1);
+        TestTransport blocking = new TestTransport(request -> {
+            try {
+                if(!release.await(10 , TimeUnit.SECONDS))throw new InternalServerError();
+            } catch (InterruptedException e) {
+                throw new InternalServerError();
+            }
+            return REGIONS;
+        });
+        JVultrAPI.setTransport(blocking);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch missing = new CountDownLatch(threads);
+            List<Future<JVultrRegion>> regions = new ArrayList<>();
+            for(int i = 0 ; i < threads ; i++){
+                regions.add(executor.submit(() -> {
+                    missing.countDown();
+                    return JVultrCache.getCachedRegion(2);
+                }));
+            }
+            assertTrue(missing.await(10 , TimeUnit.SECONDS));
+            Thread.sleep(100);
+            for(Future<JVultrRegion> region : regions)assertFalse(region.isDone());
+            release.countDown();
+            for(Future<JVultrRegion> region : regions)assertEquals("Chicago" , region.get(10 , TimeUnit.SECONDS).getName());
+            assertEquals(1 , blocking.getCalls());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reloadedEntryIsServedWithoutAnotherRequest(){
+        TestTransport working = new TestTransport(request -> REGIONS);
+        JVultrAPI.setTransport(working);
+        assertNotNull(JVultrCache.getCachedRegion(2));
+        assertNotNull(JVultrCache.getCachedRegion(2));
+        assertEquals(1 , working.getCalls());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void publishedCatalogsAreImmutable(){
+        JVultrCache.getCachedRegions().put(3 , new JVultrRegion(3 , "Dallas" , null , null , null , false));
+    }
+
+    @Test
+    public void failedLookupsAreReportedToTheErrorHandler(){
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        JVultrCache.setErrorHandler(errors::add);
+        JVultrAPI.setTransport(new TestTransport(request -> {
+            throw new InternalServerError();
+        }));
+        assertNull(JVultrCache.getCachedRegion(2));
+        assertEquals(1 , errors.size());
+        assertTrue(errors.get(0) instanceof InternalServerError);
+
+        JVultrCache.setErrorHandler(error -> {
+            throw new IllegalStateException();
+        });
+        assertNull(JVultrCache.getCachedRegion(2));
+    }
+
+    @Test
+    public void everyChangeIsAnnounced(){
+        AtomicInteger changes = new AtomicInteger();
+        JVultrCache.Listener listener = (regions , plans) -> changes.incrementAndGet();
+        JVultrCache.addListener(listener);
+        try {
+            JVultrAPI.setTransport(new TestTransport(request -> REGIONS));
+            assertNotNull(JVultrCache.getCachedRegion(2));
+            assertEquals(1 , changes.get());
+
+            JVultrCache.reloadCachedRegions();
+            assertEquals(1 , changes.get());
+
+            JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false)));
+            assertEquals(2 , changes.get());
+            JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false)));
+            assertEquals(2 , changes.get());
+        } finally {
+            JVultrCache.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void unchangedRefreshOnlyTouchesTheSnapshot() throws Exception{
+        JVultrCache.reset();
+        Path file = Files.createTempFile("jvultr" , ".catalog");
+        Files.delete(file);
+        AtomicInteger changes = new AtomicInteger();
+        JVultrCache.Listener listener = (regions , plans) -> changes.incrementAndGet();
+        JVultrCache.addListener(listener);
+        try {
+            JVultrAPI.setTransport(new TestTransport(request -> catalog(request.getUrl())));
+            JVultrCache.persistTo(file , Runnable::run).get(10 , TimeUnit.SECONDS);
+            byte[] written = Files.readAllBytes(file);
+            assertEquals(2 , changes.get());
+
+            Files.setLastModifiedTime(file , FileTime.fromMillis(0));
+            JVultrCache.refresh(Runnable::run).get(10 , TimeUnit.SECONDS);
+            assertArrayEquals(written , Files.readAllBytes(file));
+            assertTrue(Files.getLastModifiedTime(file).toMillis() > 0);
+            assertEquals(2 , changes.get());
+
+            JVultrAPI.setTransport(new TestTransport(request -> request.getUrl().endsWith("v1/plans/list") ?
+                    PLANS.replace("768 MB RAM" , "1024 MB RAM") : catalog(request.getUrl())));
+            JVultrCache.refresh(Runnable::run).get(10 , TimeUnit.SECONDS);
+            assertFalse(Arrays.equals(written , Files.readAllBytes(file)));
+            assertEquals(3 , changes.get());
+        } finally {
+            JVultrCache.removeListener(listener);
+            JVultrCache.reset();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void failingListenersAreReportedToTheErrorHandler(){
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        JVultrCache.setErrorHandler(errors::add);
+        JVultrCache.Listener listener = (regions , plans) -> {
+            throw new IllegalStateException("listener failure");
+        };
+        JVultrCache.addListener(listener);
+        try {
+            JVultrCache.setCachedRegions(Collections.emptyMap());
+            assertEquals(1 , errors.size());
+            assertEquals("listener failure" , errors.get(0).getMessage());
+        } finally {
+            JVultrCache.removeListener(listener);
+        }
+    }
+}
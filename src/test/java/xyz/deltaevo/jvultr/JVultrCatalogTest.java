@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrOS;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.utils.IntMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the JVultrCatalog snapshot format
+ * @author DeltaEvolution
+ */
+public class JVultrCatalogTest {
+    private static final JVultrRegion NEW_JERSEY = new JVultrRegion(1 , "New Jersey" , "US" , JVultrRegion.Continent.NORTH_AMERICA , "NJ" , true);
+    private static final JVultrRegion TOKYO = new JVultrRegion(25 , "Tokyo" , "JP" , JVultrRegion.Continent.ASIA , null , false);
+
+    private static JVultrCatalog catalog(){
+        IntMap<JVultrRegion> regions = new IntMap<>();
+        regions.put(TOKYO.getId() , TOKYO);
+        regions.put(NEW_JERSEY.getId() , NEW_JERSEY);
+        IntMap<JVultrPlan> plans = new IntMap<>();
+        plans.put(201 , new JVultrPlan(201 , "768 MB RAM,15 GB SSD,1.00 TB BW" , 1 , 768 , 15 , 1.5f , 5 , false ,
+                JVultrPlan.Type.SSD , new JVultrRegion[]{NEW_JERSEY , TOKYO}));
+        plans.put(87 , new JVultrPlan(87 , "512 MB RAM,125 GB HDD" , 1 , 512 , 125 , 1 , 7.5f , true ,
+                JVultrPlan.Type.SATA , new JVultrRegion[]{NEW_JERSEY}));
+        return new JVultrCatalog(regions , plans , new JVultrOS(159 , "Custom" , JVultrOS.Arch.x64 , "iso" , false));
+    }
+
+    private static void assertRejected(byte[] bytes , String message){
+        try {
+            JVultrCatalog.decode(ByteBuffer.wrap(bytes));
+            fail("the snapshot was accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage() , e.getMessage().contains(message));
+        }
+    }
+
+    private static int indexOf(byte[] bytes , byte[] part){
+        for(int i = 0 ; i <= bytes.length - part.length ; i++){
+            if(Arrays.equals(Arrays.copyOfRange(bytes , i , i + part.length) , part))return i;
+        }
+        return -1;
+    }
+
+    @Test
+    public void roundTrip() throws IOException{
+        JVultrCatalog catalog = catalog();
+        byte[] encoded = catalog.encode();
+        JVultrCatalog decoded = JVultrCatalog.decode(ByteBuffer.wrap(encoded));
+        assertArrayEquals(encoded , decoded.encode());
+
+        JVultrRegion tokyo = decoded.regions.get(25);
+        assertEquals("Tokyo" , tokyo.getName());
+        assertEquals(JVultrRegion.Continent.ASIA , tokyo.getContinent());
+        assertNull(tokyo.getState());
+        assertTrue(decoded.regions.get(1).haveDDOSProtection());
+
+        JVultrPlan plan = decoded.plans.get(201);
+        assertEquals(768 , plan.getRam());
+        assertEquals(1.5f , plan.getBandwidth() , 0);
+        assertEquals(JVultrPlan.Type.SSD , plan.getType());
+        assertEquals(2 , plan.getAvailableRegions().length);
+        assertSame(tokyo , plan.getAvailableRegions()[1]);
+        assertTrue(decoded.plans.get(87).isWindows());
+
+        assertEquals(159 , decoded.custom.getId());
+        assertEquals(JVultrOS.Arch.x64 , decoded.custom.getArch());
+    }
+
+    @Test
+    public void emptyCatalog() throws IOException{
+        JVultrCatalog decoded = JVultrCatalog.decode(ByteBuffer.wrap(new JVultrCatalog(IntMap.empty() , IntMap.empty() , null).encode()));
+        assertTrue(decoded.regions.isEmpty());
+        assertTrue(decoded.plans.isEmpty());
+        assertNull(decoded.custom);
+    }
+
+    @Test
+    public void equalCatalogsHaveEqualEncodings(){
+        JVultrCatalog catalog = catalog();
+        IntMap<JVultrRegion> regions = new IntMap<>();
+        regions.put(NEW_JERSEY.getId() , NEW_JERSEY);
+        regions.put(TOKYO.getId() , TOKYO);
+        assertArrayEquals(catalog.encode() , new JVultrCatalog(regions , catalog.plans , catalog.custom).encode());
+    }
+
+    @Test
+    public void enumsAreStoredByName() throws IOException{
+        byte[] encoded = catalog().encode();
+        assertTrue(indexOf(encoded , "NORTH_AMERICA".getBytes(StandardCharsets.UTF_8)) >= 0);
+        assertTrue(indexOf(encoded , "SATA".getBytes(StandardCharsets.UTF_8)) >= 0);
+        assertEquals(JVultrPlan.Type.SATA , JVultrCatalog.decode(ByteBuffer.wrap(encoded)).plans.get(87).getType());
+    }
+
+    @Test
+    public void otherVersionIsRejected(){
+        byte[] encoded = catalog().encode();
+        encoded[5]++;
+        assertRejected(encoded , "version");
+    }
+
+    @Test
+    public void otherFileIsRejected(){
+        byte[] encoded = catalog().encode();
+        encoded[0] = 'X';
+        assertRejected(encoded , "Not a catalog");
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected(){
+        byte[] encoded = catalog().encode();
+        for(int length : new int[]{0 , 3 , 12 , encoded.length / 2 , encoded.length - 1}){
+            assertRejected(Arrays.copyOf(encoded , length) , "Corrupted");
+        }
+    }
+
+    @Test
+    public void unknownConstantIsRejected(){
+        byte[] encoded = catalog().encode();
+        int index = indexOf(encoded , "SATA".getBytes(StandardCharsets.UTF_8));
+        encoded[index] = 'X';
+        assertRejected(encoded , "Corrupted");
+    }
+
+    @Test
+    public void fileRoundTrip() throws IOException{
+        Path directory = Files.createTempDirectory("jvultr");
+        Path file = directory.resolve("catalog.bin");
+        try {
+            assertNull(JVultrCatalog.read(file));
+            JVultrCatalog catalog = catalog();
+            catalog.write(file);
+            assertArrayEquals(catalog.encode() , JVultrCatalog.read(file).encode());
+
+            new JVultrCatalog(IntMap.empty() , IntMap.empty() , null).write(file);
+            assertTrue(JVultrCatalog.read(file).plans.isEmpty());
+            try(Stream<Path> files = Files.list(directory)){
+                assertEquals(1 , files.count());
+            }
+
+            Files.write(file , Arrays.copyOf(catalog.encode() , 20));
+            try {
+                JVultrCatalog.read(file);
+                fail("the truncated file was accepted");
+            } catch (IOException expected) {
+                assertFalse(expected.getMessage().isEmpty());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.api.JVultrServer;
+import xyz.deltaevo.jvultr.api.LazyJVultrServer;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the JVultrClient request coalescing
+ * @author DeltaEvolution
+ */
+public class JVultrClientTest {
+    private static final String SERVERS = "{\"1\":{\"SUBID\":\"1\",\"DCID\":\"1\",\"VPSPLANID\":\"201\",\"label\":\"web\"}}";
+
+    @BeforeClass
+    public static void cacheCatalog(){
+        JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false)));
+        JVultrCache.setCachedPlans(Collections.singletonMap(201 , new JVultrPlan(201 , "768 MB RAM" , 1 , 768 , 15 ,
+                1000 , 5 , false , JVultrPlan.Type.SSD , new JVultrRegion[0])));
+    }
+
+    @Test
+    public void sameUrlWithDifferentValueTypesIsNotShared() throws Exception{
+        CountDownLatch release = new CountDownLatch(1);
+        TestTransport transport = new TestTransport(request -> {
+            try {
+                if(!release.await(10 , TimeUnit.SECONDS))throw new RequestFailed();
+            } catch (InterruptedException e) {
+                throw new RequestFailed(e);
+            }
+            return SERVERS;
+        });
+        JVultrClient client = JVultrAPI.newClient("key" , transport);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<HashMap<Integer , JVultrServer>> eager = executor.submit((Callable<HashMap<Integer , JVultrServer>>) client::getSevers);
+            awaitCalls(transport , 1);
+            Future<HashMap<Integer , LazyJVultrServer>> lazy = executor.submit((Callable<HashMap<Integer , LazyJVultrServer>>) client::getLazyServers);
+            awaitCalls(transport , 2);
+            Future<HashMap<Integer , JVultrServer>> joined = executor.submit((Callable<HashMap<Integer , JVultrServer>>) client::getSevers);
+            Thread.sleep(100);
+            release.countDown();
+
+            JVultrServer server = eager.get(10 , TimeUnit.SECONDS).get(1);
+            LazyJVultrServer lazyServer = lazy.get(10 , TimeUnit.SECONDS).get(1);
+            JVultrServer joinedServer = joined.get(10 , TimeUnit.SECONDS).get(1);
+            assertEquals("web" , server.getLabel());
+            assertEquals("web" , lazyServer.getLabel());
+            assertEquals(server.toString() , lazyServer.toString());
+            assertEquals(server.toString() , joinedServer.toString());
+            assertEquals(2 , transport.getCalls());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void joinersGetTheirOwnCopy() throws Exception{
+        CountDownLatch release = new CountDownLatch(1);
+        TestTransport transport = new TestTransport(request -> {
+            try {
+                if(!release.await(10 , TimeUnit.SECONDS))throw new RequestFailed();
+            } catch (InterruptedException e) {
+                throw new RequestFailed(e);
+            }
+            return SERVERS;
+        });
+        JVultrClient client = JVultrAPI.newClient("key" , transport);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<HashMap<Integer , JVultrServer>> first = executor.submit((Callable<HashMap<Integer , JVultrServer>>) client::getSevers);
+            awaitCalls(transport , 1);
+            Future<HashMap<Integer , JVultrServer>> second = executor.submit((Callable<HashMap<Integer , JVultrServer>>) client::getSevers);
+            Thread.sleep(100);
+            release.countDown();
+            HashMap<Integer , JVultrServer> a = first.get(10 , TimeUnit.SECONDS) , b = second.get(10 , TimeUnit.SECONDS);
+            assertEquals(1 , transport.getCalls());
+            assertNotSame(a , b);
+            assertEquals(a , b);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitCalls(TestTransport transport , int calls) throws InterruptedException{
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(transport.getCalls() < calls && System.nanoTime() < end)Thread.sleep(1);
+        assertTrue("expected " + calls + " requests, got " + transport.getCalls() , transport.getCalls() >= calls);
+    }
+}
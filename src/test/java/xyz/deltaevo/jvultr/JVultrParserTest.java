@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrAccountInfo;
+import xyz.deltaevo.jvultr.api.JVultrDnsRecord;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.api.JVultrServer;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+import xyz.deltaevo.jvultr.http.JVultrTransport;
+import xyz.deltaevo.jvultr.http.RateLimiter;
+import xyz.deltaevo.jvultr.http.RetryPolicy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the JVultrParser streaming response handlers
+ * @author DeltaEvolution
+ */
+public class JVultrParserTest {
+    private static final String REGIONS = "{\"1\":{\"DCID\":\"1\",\"name\":\"New Jersey\"},\"2\":{\"DCID\":\"2\",\"name\":\"Chicago\"}}";
+    private static final String RECORDS = "[{\"type\":\"A\",\"name\":\"\",\"data\":\"127.0.0.1\",\"priority\":0,\"RECORDID\":1265276}," +
+            "{\"type\":\"CNAME\",\"name\":\"*\",\"data\":\"example.com\",\"priority\":0,\"RECORDID\":1265277}]";
+
+    /**
+     * A reader handing out one char per read, failing if it is read past its content
+     */
+    private static final class TrickleReader extends Reader {
+        private final String content;
+        private int position;
+
+        private TrickleReader(String content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read(char[] buffer , int offset , int length) throws IOException {
+            if(length == 0)return 0;
+            if(position >= content.length())throw new IOException("read past the response");
+            buffer[offset] = content.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    @Test
+    public void keyedResponsesAreReadFromTheStream() throws IOException{
+        HashMap<Integer , JVultrRegion> regions = JVultrParser.intKeyed(JVultrRegion.BINDER).handle(new TrickleReader(REGIONS));
+        assertEquals(2 , regions.size());
+        assertEquals("New Jersey" , regions.get(1).getName());
+        assertEquals("Chicago" , regions.get(2).getName());
+        assertEquals(2 , JVultrParser.intMap(JVultrRegion.BINDER).handle(new TrickleReader(REGIONS)).size());
+        assertEquals(2 , JVultrParser.stringKeyed(JVultrRegion.BINDER).handle(new TrickleReader(REGIONS)).size());
+    }
+
+    @Test
+    public void arrayResponsesAreReadFromTheStream() throws IOException{
+        List<JVultrDnsRecord> records = JVultrParser.array(JVultrDnsRecord.BINDER).handle(new TrickleReader(RECORDS));
+        assertEquals(2 , records.size());
+        assertEquals(1265276 , records.get(0).getId());
+        assertEquals(JVultrDnsRecord.Type.A , records.get(0).getType());
+        assertEquals("example.com" , records.get(1).getData());
+        assertEquals(JVultrDnsRecord.Type.CNAME , records.get(1).getType());
+    }
+
+    @Test
+    public void emptyResponsesAreEmptyValues() throws IOException{
+        assertTrue(JVultrParser.intKeyed(JVultrRegion.BINDER).handle(new StringReader("[]")).isEmpty());
+        assertTrue(JVultrParser.stringKeyed(JVultrRegion.BINDER).handle(new StringReader("")).isEmpty());
+        assertTrue(JVultrParser.array(JVultrDnsRecord.BINDER).handle(new StringReader("")).isEmpty());
+        assertNull(JVultrParser.object(JVultrAccountInfo.BINDER).handle(new StringReader("")));
+    }
+
+    @Test
+    public void nonObjectValuesAreSkipped() throws IOException{
+        String regions = "{\"1\":{\"DCID\":\"1\",\"name\":\"New Jersey\"},\"2\":null,\"3\":[1,2]}";
+        assertEquals(1 , JVultrParser.intKeyed(JVultrRegion.BINDER).handle(new StringReader(regions)).size());
+        assertEquals(1 , JVultrParser.array(JVultrDnsRecord.BINDER).handle(new StringReader("[1,{\"RECORDID\":1},\"a\"]")).size());
+    }
+
+    @Test
+    public void objectResponse() throws IOException{
+        JVultrAccountInfo info = JVultrParser.object(JVultrAccountInfo.BINDER).handle(new TrickleReader(
+                "{\"balance\":\"-5519.11\",\"pending_charges\":\"57.03\",\"last_payment_date\":\"2014-07-18 15:31:01\"," +
+                        "\"last_payment_amount\":\"-1.00\"}"));
+        assertEquals(-5519.11f , info.getBalance() , 0);
+        assertEquals(57.03f , info.getPendingCharges() , 0);
+        assertEquals(-1f , info.getLastPaymentAmount() , 0);
+    }
+
+    @Test
+    public void intField() throws JVultrException{
+        assertEquals(1312965 , JVultrParser.intField("{\"label\":\"a\",\"SUBID\":\"1312965\"}" , "SUBID"));
+        assertEquals(-1 , JVultrParser.intField("" , "SUBID"));
+        assertEquals(-1 , JVultrParser.intField("[]" , "SUBID"));
+    }
+
+    @Test
+    public void invalidIntFieldFails() throws JVultrException{
+        for(String response : new String[]{"{\"label\":\"a\"}" , "{\"SUBID\":\"abc\"}" , "{\"SUBID\":{}}" , "{\"SUBID\":"}){
+            try {
+                JVultrParser.intField(response , "SUBID");
+                fail(response + " was accepted");
+            } catch (RequestFailed expected) {
+                assertNotNull(expected.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void idsAreResolvedAfterTheResponseIsRead() throws Exception{
+        JVultrTransport transport = JVultrAPI.getTransport();
+        RetryPolicy retryPolicy = JVultrAPI.getRetryPolicy();
+        RateLimiter limiter = JVultrAPI.getRateLimiter();
+        JVultrCache.reset();
+        try {
+            TestTransport catalog = new TestTransport(request -> request.getUrl().endsWith("v1/plans/list")
+                    ? "{\"201\":{\"VPSPLANID\":\"201\",\"name\":\"768 MB RAM\",\"available_locations\":[]}}"
+                    : "{\"1\":{\"DCID\":\"1\",\"name\":\"New Jersey\"}}");
+            JVultrAPI.setTransport(catalog);
+            JVultrAPI.setRetryPolicy(RetryPolicy.NONE);
+            JVultrAPI.setRateLimiter(new RateLimiter(1000 , 1000 , 0));
+
+            HashMap<Integer , JVultrServer> servers = JVultrParser.intKeyed(JVultrServer.BINDER).handle(new TrickleReader(
+                    "{\"7\":{\"SUBID\":\"7\",\"DCID\":\"1\",\"VPSPLANID\":\"201\"}}"));
+            int[] ids = JVultrParser.ids().handle(new TrickleReader("[201,202]"));
+            assertEquals(0 , catalog.getCalls());
+
+            JVultrServer server = servers.get(7);
+            assertEquals(1 , server.getRegionId());
+            assertEquals(201 , server.getPlanId());
+            assertEquals("New Jersey" , server.getRegion().getName());
+            assertEquals("768 MB RAM" , server.getPlan().getName());
+            List<JVultrPlan> plans = JVultrParser.plans(ids);
+            assertEquals(201 , plans.get(0).getId());
+            assertNull(plans.get(1));
+        } finally {
+            JVultrAPI.setTransport(transport);
+            JVultrAPI.setRetryPolicy(retryPolicy);
+            JVultrAPI.setRateLimiter(limiter);
+            JVultrCache.reset();
+        }
+    }
+
+    @Test
+    public void handlersAreEqualForTheSameShapeAndBinder(){
+        assertEquals(JVultrParser.intKeyed(JVultrRegion.BINDER) , JVultrParser.intKeyed(JVultrRegion.BINDER));
+        assertEquals(JVultrParser.intKeyed(JVultrRegion.BINDER).hashCode() , JVultrParser.intKeyed(JVultrRegion.BINDER).hashCode());
+        assertNotEquals(JVultrParser.intKeyed(JVultrRegion.BINDER) , JVultrParser.intMap(JVultrRegion.BINDER));
+        assertNotEquals(JVultrParser.array(JVultrRegion.BINDER) , JVultrParser.array(JVultrDnsRecord.BINDER));
+    }
+}
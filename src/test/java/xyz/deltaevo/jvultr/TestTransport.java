@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr;
+
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+import xyz.deltaevo.jvultr.http.JVultrRequest;
+import xyz.deltaevo.jvultr.http.JVultrTransport;
+import xyz.deltaevo.jvultr.http.ResponseHandler;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A transport answering requests without the network, counting the calls
+ * @author DeltaEvolution
+ */
+final class TestTransport implements JVultrTransport {
+
+    /**
+     * Answer a request
+     */
+    interface Responder{
+        /**
+         * Get the response body of a request
+         * @param request the request
+         * @return the response body
+         * @throws JVultrException to fail the request
+         */
+        String respond(JVultrRequest request) throws JVultrException;
+    }
+
+    private final Responder responder;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    TestTransport(Responder responder) {
+        this.responder = responder;
+    }
+
+    @Override
+    public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+        calls.incrementAndGet();
+        String body = responder.respond(request);
+        try {
+            return handler.handle(new StringReader(body));
+        } catch (IOException e) {
+            throw new RequestFailed(e);
+        }
+    }
+
+    /**
+     * Get the amount of requests executed
+     * @return the amount of requests
+     */
+    int getCalls() {
+        return calls.get();
+    }
+}
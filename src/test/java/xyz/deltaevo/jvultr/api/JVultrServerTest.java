@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.api;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.JVultrCache;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of the JVultrServer compact fields
+ * @author DeltaEvolution
+ */
+public class JVultrServerTest {
+
+    @BeforeClass
+    public static void cacheCatalog(){
+        JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , null , null , null , false)));
+        JVultrCache.setCachedPlans(Collections.singletonMap(201 , new JVultrPlan(201 , "768 MB RAM" , 1 , 768 , 15 ,
+                1000 , 5 , false , JVultrPlan.Type.SSD , new JVultrRegion[0])));
+    }
+
+    private static String server(String mainIp , String internalIp , String netmask , String gateway , String v6Ip ,
+                                 String created){
+        return "{\"SUBID\":\"1\",\"os\":\"CentOS 6 x64\",\"ram\":\"4096 MB\",\"disk\":\"Virtual 60 GB\",\"tag\":\"web\"," +
+                "\"vcpu_count\":\"2\",\"DCID\":\"1\",\"VPSPLANID\":\"201\",\"default_password\":\"secret\"," +
+                "\"pending_charges\":\"0.5\",\"status\":\"active\",\"cost_per_month\":\"5\",\"current_bandwidth_gb\":1," +
+                "\"allowed_bandwidth_gb\":\"1000\",\"power_status\":\"running\",\"server_state\":\"ok\",\"v6_networks\":[]," +
+                "\"label\":\"web 1\",\"kvm_url\":\"\",\"auto_backups\":\"no\"," +
+                "\"main_ip\":\"" + mainIp + "\",\"internal_ip\":\"" + internalIp + "\",\"netmask_v4\":\"" + netmask + "\"," +
+                "\"gateway_v4\":\"" + gateway + "\",\"v6_network\":\"2001:db8:1000::\",\"v6_network_ip\":\"" + v6Ip + "\",\"v6_main_ip\":\"" + v6Ip + "\"," +
+                "\"v6_network_size\":\"64\",\"date_created\":\"" + created + "\"}";
+    }
+
+    private static JVultrServer read(String json) throws IOException{
+        return JVultrServer.BINDER.read(new JsonReader(new StringReader(json)));
+    }
+
+    @Test
+    public void addressesReadBackAsTheirText() throws Exception{
+        String[][] cases = {
+                {"123.123.123.123" , "10.99.0.10" , "255.255.255.248" , "123.123.123.1" , "2001:db8:1000::100"} ,
+                {"0.0.0.0" , "" , "255.255.255.255" , "1.2.3.4" , "::"} ,
+                // non canonical text is kept as it was read
+                {"010.0.0.1" , "not an ip" , "1.2.3" , "" , "2001:DB8:1000::100"}
+        };
+        for(String[] addresses : cases){
+            String json = server(addresses[0] , addresses[1] , addresses[2] , addresses[3] , addresses[4] , "2013-12-19 14:45:41");
+            for(JVultrServer server : new JVultrServer[]{read(json) , new JVultrServer(new JsonParser().parse(json).getAsJsonObject())}){
+                assertEquals(addresses[0] , server.getMainIp());
+                assertEquals(addresses[1] , server.getInternalIp());
+                assertEquals(addresses[2] , server.getNetmask());
+                assertEquals(addresses[3] , server.getGateway());
+                assertEquals(addresses[4] , server.getV6Network().getIp());
+                assertEquals("2001:db8:1000::" , server.getV6Network().getNetwork());
+                assertEquals(64 , server.getV6Network().getSize());
+            }
+        }
+    }
+
+    @Test
+    public void createdDate() throws Exception{
+        JVultrServer server = read(server("1.2.3.4" , "" , "" , "" , "::1" , "2013-12-19 14:45:41"));
+        long expected = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2013-12-19 14:45:41").getTime();
+        assertEquals(expected , server.getCreatedMillis());
+        assertEquals(expected , server.getCreated().getTime());
+
+        JVultrServer unknown = read(server("1.2.3.4" , "" , "" , "" , "::1" , "yesterday"));
+        assertEquals(Long.MIN_VALUE , unknown.getCreatedMillis());
+        assertNull(unknown.getCreated());
+    }
+
+    @Test
+    public void repeatedStringsAreShared() throws Exception{
+        String json = server("1.2.3.4" , "" , "" , "" , "::1" , "2013-12-19 14:45:41");
+        JVultrServer a = read(json) , b = read(json);
+        assertSame(a.getOs() , b.getOs());
+        assertSame(a.getRam() , b.getRam());
+        assertSame(a.getDisk() , b.getDisk());
+        assertEquals("web" , a.getTag());
+        assertNotSame(a.getTag() , b.getTag());
+        assertEquals("CentOS 6 x64" , a.getOs());
+    }
+}
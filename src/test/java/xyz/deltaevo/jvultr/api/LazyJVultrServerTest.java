@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.JVultrCache;
+
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of LazyJVultrServer
+ * @author DeltaEvolution
+ */
+public class LazyJVultrServerTest {
+    private static final String SERVER = "{\"SUBID\":\"576965\",\"os\":\"CentOS 6 x64\",\"ram\":\"4096 MB\"," +
+            "\"disk\":\"Virtual 60 GB\",\"main_ip\":\"123.123.123.123\",\"vcpu_count\":\"2\",\"location\":\"New Jersey\"," +
+            "\"DCID\":\"1\",\"default_password\":\"nre\\\"q\\u00e9\",\"date_created\":\"2013-12-19 14:45:41\"," +
+            "\"pending_charges\":\"46.67\",\"status\":\"active\",\"cost_per_month\":\"10.05\"," +
+            "\"current_bandwidth_gb\":131.512,\"allowed_bandwidth_gb\":\"1000\",\"netmask_v4\":\"255.255.255.248\"," +
+            "\"gateway_v4\":\"123.123.123.1\",\"power_status\":\"running\",\"server_state\":\"ok\",\"VPSPLANID\":\"201\"," +
+            "\"v6_main_ip\":\"2001:db8:1000::100\",\"v6_network_size\":\"64\",\"v6_network\":\"2001:db8:1000::\"," +
+            "\"v6_networks\":[{\"v6_network\":\"2001:db8:1000::\",\"v6_main_ip\":\"2001:db8:1000::100\"," +
+            "\"v6_network_size\":\"64\",\"x\":[1,{\"y\":\"]}\"}]}],\"label\":\"my new server\",\"internal_ip\":\"\"," +
+            "\"kvm_url\":\"https://x/?a=b\",\"auto_backups\":\"yes\",\"tag\":null,\"APPID\":{\"a\":1}}";
+
+    @BeforeClass
+    public static void cacheCatalog(){
+        JVultrCache.setCachedRegions(Collections.singletonMap(1 , new JVultrRegion(1 , "New Jersey" , "US" ,
+                JVultrRegion.Continent.NORTH_AMERICA , "NJ" , false)));
+        JVultrCache.setCachedPlans(Collections.singletonMap(201 , new JVultrPlan(201 , "768 MB RAM" , 1 , 768 , 15 ,
+                1000 , 5 , false , JVultrPlan.Type.SSD , new JVultrRegion[0])));
+    }
+
+    @Test
+    public void gettersMatchEagerServer() throws Exception{
+        String[] records = {SERVER , "{\"SUBID\":7}" ,
+                "{ \"SUBID\" : \"-3\" , \"auto_backups\" : true , \"vcpu_count\" : 4 , \"status\":\"pending\" }" , "{}"};
+        StringBuilder list = new StringBuilder(" {\n");
+        for(int i = 0 ; i < records.length ; i++)list.append(i > 0 ? " ," : "").append('"').append(i + 10).append("\" : ").append(records[i]);
+        HashMap<Integer , LazyJVultrServer> servers = LazyJVultrServer.readAll(new StringReader(list.append(",\"99\":[1,2] }").toString()));
+        assertEquals(records.length , servers.size());
+        for(int i = 0 ; i < records.length ; i++){
+            JVultrServer eager = JVultrServer.BINDER.read(new JsonReader(new StringReader(records[i])));
+            LazyJVultrServer lazy = servers.get(i + 10);
+            assertSameFields(eager , lazy);
+            assertEquals(eager.toString() , lazy.toString());
+            assertEquals(eager.toString() , lazy.toServer().toString());
+        }
+        assertEquals("nre\"qé" , servers.get(10).getDefaultPassword());
+    }
+
+    @Test
+    public void nonAsciiTextAcrossChunks() throws Exception{
+        // enough servers for the response text to span several chunks
+        StringBuilder list = new StringBuilder("{");
+        for(int i = 0 ; i < 300 ; i++){
+            list.append(i > 0 ? "," : "").append('"').append(i + 1).append("\":{\"SUBID\":\"").append(i + 1)
+                    .append("\",\"label\":\"").append(label(i)).append("\"}");
+        }
+        HashMap<Integer , LazyJVultrServer> servers = LazyJVultrServer.readAll(new StringReader(list.append('}').toString()));
+        for(int i = 0 ; i < 300 ; i++){
+            LazyJVultrServer server = servers.get(i + 1);
+            assertEquals(i + 1 , server.getId());
+            assertEquals(label(i) , server.getLabel());
+            assertEquals(label(i) , server.toServer().getLabel());
+        }
+    }
+
+    @Test
+    public void rejectsMalformedLists() throws Exception{
+        for(String malformed : new String[]{"{\"1\":{\"a\":}" , "{\"1\":{\"a\" 1}}" , "{\"1\":{\"a\":\"x}}"}){
+            try {
+                LazyJVultrServer.readAll(new StringReader(malformed));
+                fail(malformed);
+            } catch (MalformedJsonException expected) {}
+        }
+        assertTrue(LazyJVultrServer.readAll(new StringReader("")).isEmpty());
+        assertTrue(LazyJVultrServer.readAll(new StringReader("[]")).isEmpty());
+        assertTrue(LazyJVultrServer.readAll(new StringReader("{ }")).isEmpty());
+    }
+
+    @Test
+    public void concurrentFirstReadsShareOneValue() throws Exception{
+        int threads = 4;
+        for(int round = 0 ; round < 500 ; round++){
+            LazyJVultrServer server = LazyJVultrServer.readAll(new StringReader("{\"1\":" + SERVER + "}")).get(1);
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            AtomicReferenceArray<Object> seen = new AtomicReferenceArray<>(threads * 2);
+            Thread[] workers = new Thread[threads];
+            for(int t = 0 ; t < threads ; t++){
+                int index = t;
+                workers[t] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        server.getOs();
+                        seen.set(index * 2 , server.getV6Network());
+                        seen.set(index * 2 + 1 , server.getLabel());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                workers[t].start();
+            }
+            for(Thread worker : workers)worker.join();
+            for(int t = 0 ; t < threads ; t++){
+                assertSame(seen.get(0) , seen.get(t * 2));
+                assertSame(seen.get(1) , seen.get(t * 2 + 1));
+            }
+        }
+    }
+
+    private static String label(int i){
+        return "lab é€😀 " + i + " " + "x".repeat(i % 37);
+    }
+
+    /**
+     * Compare every getter of a lazy server with the same getter of an eager one
+     */
+    private static void assertSameFields(JVultrServer eager , LazyJVultrServer lazy) throws Exception{
+        int compared = 0;
+        for(Method getter : LazyJVultrServer.class.getMethods()){
+            if(getter.getParameterCount() != 0 || getter.getDeclaringClass() != LazyJVultrServer.class
+                    || !(getter.getName().startsWith("get") || getter.getName().startsWith("has")))continue;
+            Object expected = JVultrServer.class.getMethod(getter.getName()).invoke(eager);
+            Object actual = getter.invoke(lazy);
+            assertEquals(getter.getName() , Arrays.deepToString(new Object[]{expected}) , Arrays.deepToString(new Object[]{actual}));
+            compared++;
+        }
+        assertTrue(compared > 25);
+    }
+}
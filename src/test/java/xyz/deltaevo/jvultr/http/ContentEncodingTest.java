@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of ContentEncoding
+ * @author DeltaEvolution
+ */
+public class ContentEncodingTest {
+    private static final String BODY = "{\"1\":{\"DCID\":\"1\",\"name\":\"New Jersey\",\"country\":\"US\"}}";
+
+    /**
+     * A stream remembering if it was closed
+     */
+    private static final class TrackedStream extends ByteArrayInputStream {
+        private boolean closed;
+
+        private TrackedStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private interface Compressor{
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+
+    private static byte[] compress(Compressor compressor) throws IOException{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(OutputStream out = compressor.wrap(bytes)){
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String read(InputStream in) throws IOException{
+        try(InputStream body = in){
+            return new String(body.readAllBytes() , StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void gzip() throws IOException{
+        byte[] gzip = compress(GZIPOutputStream::new);
+        assertEquals(BODY , read(ContentEncoding.decode(new ByteArrayInputStream(gzip) , "gzip")));
+        assertEquals(BODY , read(ContentEncoding.decode(new ByteArrayInputStream(gzip) , " x-gzip ")));
+    }
+
+    @Test
+    public void zlibDeflate() throws IOException{
+        byte[] zlib = compress(DeflaterOutputStream::new);
+        assertEquals(BODY , read(ContentEncoding.decode(new ByteArrayInputStream(zlib) , "deflate")));
+    }
+
+    @Test
+    public void rawDeflate() throws IOException{
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION , true);
+        try {
+            byte[] raw = compress(out -> new DeflaterOutputStream(out , deflater));
+            assertEquals(BODY , read(ContentEncoding.decode(new ByteArrayInputStream(raw) , "deflate")));
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Test
+    public void closingTheInflatedStreamClosesTheBody() throws IOException{
+        TrackedStream body = new TrackedStream(compress(DeflaterOutputStream::new));
+        assertEquals(BODY , read(ContentEncoding.decode(body , "deflate")));
+        assertTrue(body.closed);
+    }
+
+    @Test
+    public void identityAndUnknownEncodingsAreUntouched() throws IOException{
+        InputStream body = new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8));
+        assertSame(body , ContentEncoding.decode(body , null));
+        assertSame(body , ContentEncoding.decode(body , "identity"));
+        assertSame(body , ContentEncoding.decode(body , "br"));
+        assertEquals(BODY , read(body));
+    }
+
+    @Test
+    public void encodingIsMatchedWhateverTheLocale() throws IOException{
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr" , "TR"));
+        try {
+            byte[] gzip = compress(GZIPOutputStream::new);
+            assertEquals(BODY , read(ContentEncoding.decode(new ByteArrayInputStream(gzip) , "GZIP")));
+            byte[] zlib = compress(DeflaterOutputStream::new);
+            assertEquals(BODY , read(ContentEncoding.decode(new ByteArrayInputStream(zlib) , "DEFLATE")));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.exception.InvalidAPIKey;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of ExecutorTransport
+ * @author DeltaEvolution
+ */
+public class ExecutorTransportTest {
+
+    /**
+     * A transport answering the request url and the name of the thread sending it
+     */
+    private static final class ThreadTransport implements JVultrTransport {
+        @Override
+        public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+            if(request.getUrl().equals("fail"))throw new InvalidAPIKey();
+            try {
+                return handler.handle(new StringReader(request.getUrl() + ' ' + Thread.currentThread().getName()));
+            } catch (IOException e) {
+                throw new RequestFailed(e);
+            }
+        }
+    }
+
+    @Test
+    public void asyncRequestsRunOnTheExecutor() throws Exception{
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task , "executor-thread"));
+        try {
+            ExecutorTransport transport = new ExecutorTransport(new ThreadTransport() , executor);
+            assertEquals("a executor-thread" , transport.executeAsync(JVultrRequest.get("a" , null)).get(10 , TimeUnit.SECONDS));
+            assertEquals("b " + Thread.currentThread().getName() , transport.execute(JVultrRequest.get("b" , null)));
+            assertSame(executor , transport.getExecutor());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncFailuresCompleteExceptionally() throws Exception{
+        ExecutorTransport transport = new ExecutorTransport(new ThreadTransport() , Runnable::run);
+        try {
+            transport.executeAsync(JVultrRequest.get("fail" , null)).get(10 , TimeUnit.SECONDS);
+            fail("the request didn't fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InvalidAPIKey);
+        }
+    }
+
+    @Test
+    public void virtualThreadExecutorRunsEveryBlockingTaskConcurrently() throws Exception{
+        int tasks = 200;
+        CountDownLatch started = new CountDownLatch(tasks);
+        CountDownLatch release = new CountDownLatch(1);
+        JVultrTransport blocking = new JVultrTransport() {
+            @Override
+            public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+                started.countDown();
+                try {
+                    if(!release.await(10 , TimeUnit.SECONDS))throw new RequestFailed();
+                    return handler.handle(new StringReader(request.getUrl()));
+                } catch (InterruptedException | IOException e) {
+                    throw new RequestFailed(e);
+                }
+            }
+        };
+        ExecutorService executor = ExecutorTransport.newVirtualThreadExecutor();
+        try {
+            ExecutorTransport transport = new ExecutorTransport(blocking , executor);
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for(int i = 0 ; i < tasks ; i++)futures.add(transport.executeAsync(JVultrRequest.get(Integer.toString(i) , null)));
+            assertTrue(started.await(10 , TimeUnit.SECONDS));
+            release.countDown();
+            for(int i = 0 ; i < tasks ; i++)assertEquals(Integer.toString(i) , futures.get(i).get(10 , TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void virtualThreadExecutorUsesVirtualOrDaemonThreads() throws Exception{
+        ExecutorService executor = ExecutorTransport.newVirtualThreadExecutor();
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10 , TimeUnit.SECONDS);
+            Method isVirtual;
+            try {
+                isVirtual = Thread.class.getMethod("isVirtual");
+            } catch (NoSuchMethodException e) {
+                assertTrue(thread.isDaemon());
+                return;
+            }
+            assertTrue((Boolean) isVirtual.invoke(thread));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
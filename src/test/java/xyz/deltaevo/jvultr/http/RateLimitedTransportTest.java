@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RateLimitExceeded;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of RateLimitedTransport
+ * @author DeltaEvolution
+ */
+public class RateLimitedTransportTest {
+
+    /**
+     * A transport answering every request with its url
+     */
+    private static final class EchoTransport implements JVultrTransport {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+            calls.incrementAndGet();
+            try {
+                return handler.handle(new StringReader(request.getUrl()));
+            } catch (IOException e) {
+                throw new RequestFailed(e);
+            }
+        }
+    }
+
+    @Test
+    public void refusesPastMaxWait() throws Exception{
+        EchoTransport echo = new EchoTransport();
+        RateLimitedTransport transport = new RateLimitedTransport(echo , new RateLimiter(1 , 1 , 0));
+        assertEquals("a" , transport.execute(JVultrRequest.get("a" , null)));
+        try {
+            transport.execute(JVultrRequest.get("b" , null));
+            fail();
+        } catch (RateLimitExceeded expected) {}
+        assertEquals(1 , echo.calls.get());
+    }
+
+    @Test
+    public void asyncRefusesPastMaxWait() throws Exception{
+        EchoTransport echo = new EchoTransport();
+        RateLimitedTransport transport = new RateLimitedTransport(echo , new RateLimiter(1 , 1 , 0));
+        assertEquals("a" , transport.executeAsync(JVultrRequest.get("a" , null)).get());
+        try {
+            transport.executeAsync(JVultrRequest.get("b" , null)).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RateLimitExceeded);
+        }
+        assertEquals(1 , echo.calls.get());
+    }
+
+    @Test
+    public void asyncDelaysWithoutBlocking() throws Exception{
+        RateLimitedTransport transport = new RateLimitedTransport(new EchoTransport() , new RateLimiter(10 , 1 , 60000));
+        transport.executeAsync(JVultrRequest.get("a" , null)).get();
+        long start = System.nanoTime();
+        CompletableFuture<String> delayed = transport.executeAsync(JVultrRequest.get("b" , null));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+        assertEquals("b" , delayed.get());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(80));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.exception.RateLimitExceeded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of RateLimiter
+ * @author DeltaEvolution
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void burstIsFree(){
+        RateLimiter limiter = new RateLimiter(1 , 3 , 60000);
+        for(int i = 0 ; i < 3 ; i++)assertEquals(0 , limiter.reserve());
+        long wait = limiter.reserve();
+        assertTrue("wait " + wait , wait > TimeUnit.MILLISECONDS.toNanos(900) && wait <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void reservationsQueueUp(){
+        RateLimiter limiter = new RateLimiter(10 , 1 , 60000);
+        assertEquals(0 , limiter.reserve());
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        assertTrue("first " + first + " second " + second , second - first > TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    public void refusedReservationTakesNothing(){
+        RateLimiter limiter = new RateLimiter(1 , 1 , 0);
+        assertEquals(0 , limiter.reserve());
+        assertEquals(-1 , limiter.reserve());
+        assertEquals(-1 , limiter.reserve());
+    }
+
+    @Test
+    public void acquireThrowsPastMaxWait() throws Exception{
+        RateLimiter limiter = new RateLimiter(1 , 1 , 100);
+        limiter.acquire();
+        try {
+            limiter.acquire();
+            fail();
+        } catch (RateLimitExceeded expected) {}
+    }
+
+    @Test
+    public void acquireWaitsForToken() throws Exception{
+        RateLimiter limiter = new RateLimiter(20 , 1 , 60000);
+        limiter.acquire();
+        long start = System.nanoTime();
+        limiter.acquire();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidRate(){
+        new RateLimiter(0 , 1 , 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidBurst(){
+        new RateLimiter(1 , 0 , 0);
+    }
+
+    @Test
+    public void concurrentReservationsGetDistinctSlots() throws Exception{
+        int threads = 8 , perThread = 50;
+        long interval = TimeUnit.MILLISECONDS.toNanos(1);
+        RateLimiter limiter = new RateLimiter(1000 , 1 , 60000);
+        List<Long> slots = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for(int t = 0 ; t < threads ; t++){
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for(int i = 0 ; i < perThread ; i++){
+                    long now = System.nanoTime();
+                    slots.add(now + limiter.reserve());
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for(Thread worker : workers)worker.join();
+        assertEquals(threads * perThread , slots.size());
+        Collections.sort(slots);
+        long span = slots.get(slots.size() - 1) - slots.get(0);
+        assertTrue("span " + span , span >= (threads * perThread - 2) * interval);
+    }
+}
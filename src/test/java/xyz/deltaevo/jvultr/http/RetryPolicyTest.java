@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.exception.InternalServerError;
+import xyz.deltaevo.jvultr.exception.InvalidAPIKey;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RateLimitExceeded;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of RetryPolicy and RetryingTransport
+ * @author DeltaEvolution
+ */
+public class RetryPolicyTest {
+    private static final JVultrRequest GET = JVultrRequest.get("get" , null);
+    private static final JVultrRequest POST = JVultrRequest.post("post" , null , null);
+
+    /**
+     * A transport replaying scripted outcomes, an exception is thrown and anything else is the response body
+     */
+    private static final class ScriptedTransport implements JVultrTransport {
+        private final Deque<Object> outcomes;
+        private int calls;
+
+        private ScriptedTransport(Object... outcomes) {
+            this.outcomes = new ArrayDeque<>(Arrays.asList(outcomes));
+        }
+
+        @Override
+        public synchronized <T> T execute(JVultrRequest request , ResponseHandler<T> handler) throws JVultrException {
+            calls++;
+            Object outcome = outcomes.poll();
+            if(outcome instanceof JVultrException)throw (JVultrException) outcome;
+            try {
+                return handler.handle(new StringReader(String.valueOf(outcome)));
+            } catch (IOException e) {
+                throw new RequestFailed(e);
+            }
+        }
+    }
+
+    @Test
+    public void retryableFailures(){
+        RetryPolicy policy = new RetryPolicy();
+        assertTrue(policy.isRetryable(POST , new RateLimitExceeded()));
+        assertTrue(policy.isRetryable(GET , new InternalServerError()));
+        assertFalse(policy.isRetryable(POST , new InternalServerError()));
+        assertTrue(policy.isRetryable(GET , new RequestFailed(new IOException())));
+        assertFalse(policy.isRetryable(POST , new RequestFailed(new IOException())));
+        assertTrue(policy.isRetryable(JVultrRequest.post("post" , null , null , true) , new RequestFailed(new IOException())));
+        assertFalse(policy.isRetryable(GET , new RequestFailed()));
+        assertFalse(policy.isRetryable(GET , new InvalidAPIKey()));
+        assertFalse(policy.isRetryable(GET , HttpErrors.forStatus(GET , 404)));
+        assertFalse(policy.isRetryable(GET , HttpErrors.forStatus(GET , 422)));
+        assertTrue(policy.isRetryable(GET , HttpErrors.forStatus(GET , 502)));
+        assertFalse(policy.isRetryable(POST , HttpErrors.forStatus(POST , 502)));
+        assertTrue(policy.isRetryable(POST , HttpErrors.forStatus(POST , 429)));
+    }
+
+    @Test
+    public void neverRetriesClientErrors() throws Exception{
+        JVultrException notFound = HttpErrors.forStatus(GET , 404);
+        ScriptedTransport scripted = new ScriptedTransport(notFound , "ok");
+        RetryingTransport transport = new RetryingTransport(scripted , new RetryPolicy(4 , 1 , 2 , 60000));
+        try {
+            transport.execute(GET);
+            fail();
+        } catch (RequestFailed e) {
+            assertSame(notFound , e);
+            assertEquals(404 , e.getStatus());
+        }
+        assertEquals(1 , scripted.calls);
+    }
+
+    @Test
+    public void delayIsBoundedByBackoff(){
+        RetryPolicy policy = new RetryPolicy(10 , 100 , 1000 , 60000);
+        for(int i = 0 ; i < 200 ; i++){
+            assertTrue(policy.delay(1) <= 100);
+            assertTrue(policy.delay(3) <= 400);
+            assertTrue(policy.delay(8) <= 1000);
+            assertTrue(policy.delay(64) <= 1000);
+        }
+        assertEquals(0 , RetryPolicy.NONE.delay(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidPolicy(){
+        new RetryPolicy(1 , 10 , 5 , 0);
+    }
+
+    @Test
+    public void retriesUntilSuccess() throws Exception{
+        ScriptedTransport scripted = new ScriptedTransport(new RateLimitExceeded() , new InternalServerError() , "ok");
+        RetryingTransport transport = new RetryingTransport(scripted , new RetryPolicy(4 , 1 , 2 , 60000));
+        assertEquals("ok" , transport.execute(GET));
+        assertEquals(3 , scripted.calls);
+    }
+
+    @Test
+    public void stopsAfterMaxAttempts() throws Exception{
+        InternalServerError last = new InternalServerError();
+        ScriptedTransport scripted = new ScriptedTransport(new InternalServerError() , last , "ok");
+        RetryingTransport transport = new RetryingTransport(scripted , new RetryPolicy(2 , 1 , 2 , 60000));
+        try {
+            transport.execute(GET);
+            fail();
+        } catch (InternalServerError e) {
+            assertSame(last , e);
+        }
+        assertEquals(2 , scripted.calls);
+    }
+
+    @Test
+    public void neverRetriesNonIdempotentServerErrors() throws Exception{
+        ScriptedTransport scripted = new ScriptedTransport(new InternalServerError() , "ok");
+        RetryingTransport transport = new RetryingTransport(scripted , new RetryPolicy(4 , 1 , 2 , 60000));
+        try {
+            transport.execute(POST);
+            fail();
+        } catch (InternalServerError expected) {}
+        assertEquals(1 , scripted.calls);
+    }
+
+    @Test
+    public void stopsAtDeadline() throws Exception{
+        // a jittered delay of 0 may still fit in a deadline of 0, so only most attempts are cut
+        int cut = 0;
+        for(int i = 0 ; i < 20 ; i++){
+            ScriptedTransport scripted = new ScriptedTransport(new RateLimitExceeded() , "ok");
+            try {
+                new RetryingTransport(scripted , new RetryPolicy(4 , 1000 , 1000 , 0)).execute(GET);
+            } catch (RateLimitExceeded e) {
+                assertEquals(1 , scripted.calls);
+                cut++;
+            }
+        }
+        assertTrue(cut > 10);
+    }
+
+    @Test
+    public void asyncRetriesUntilSuccess() throws Exception{
+        ScriptedTransport scripted = new ScriptedTransport(new RateLimitExceeded() , new RequestFailed(new IOException()) , "ok");
+        RetryingTransport transport = new RetryingTransport(scripted , new RetryPolicy(4 , 1 , 2 , 60000));
+        assertEquals("ok" , transport.executeAsync(GET).get());
+        assertEquals(3 , scripted.calls);
+    }
+
+    @Test
+    public void asyncFailsWithLastCause() throws Exception{
+        InvalidAPIKey invalid = new InvalidAPIKey();
+        ScriptedTransport scripted = new ScriptedTransport(new RateLimitExceeded() , invalid , "ok");
+        CompletableFuture<String> response = new RetryingTransport(scripted , new RetryPolicy(4 , 1 , 2 , 60000))
+                .executeAsync(GET);
+        try {
+            response.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(invalid , e.getCause());
+        }
+        assertEquals(2 , scripted.calls);
+    }
+}
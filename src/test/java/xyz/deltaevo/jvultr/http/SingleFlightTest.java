@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.exception.InternalServerError;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of SingleFlight
+ * @author DeltaEvolution
+ */
+public class SingleFlightTest {
+    private static final int JOINERS = 4;
+
+    /**
+     * Run a call in a leader thread and the same call in joiner threads, the leader only gets the outcome once every
+     * joiner waits on it
+     * @return what each thread got, the leader first: its value or the Throwable it threw
+     */
+    private static AtomicReferenceArray<Object> race(AtomicInteger calls , SingleFlight.Call<String> outcome) throws Exception{
+        return race(calls , outcome , value -> value + " copy" , value -> value);
+    }
+
+    /**
+     * Run a race where each thread uses the value it got
+     * @param copy copy of the shared value
+     * @param use applied by each thread to the value it got, the result is what the thread got
+     * @return what each thread got, the leader first: its value or the Throwable it threw
+     */
+    private static <T> AtomicReferenceArray<Object> race(AtomicInteger calls , SingleFlight.Call<T> outcome ,
+                                                         UnaryOperator<T> copy , UnaryOperator<T> use) throws Exception{
+        SingleFlight<String> flight = new SingleFlight<>();
+        List<Thread> joiners = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(JOINERS);
+        SingleFlight.Call<T> call = () -> {
+            calls.incrementAndGet();
+            try {
+                started.await();
+                for(Thread joiner : joiners){
+                    while(joiner.getState() != Thread.State.WAITING)Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return outcome.call();
+        };
+        AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(JOINERS + 1);
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0 ; i <= JOINERS ; i++){
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    results.set(index , use.apply(flight.execute("key" , call , copy)));
+                } catch (Throwable e) {
+                    results.set(index , e);
+                }
+            } , i == 0 ? "leader" : "joiner-" + i);
+            if(i == 0){
+                thread.start();
+                while(flight.size() == 0)Thread.sleep(1);
+            }else {
+                joiners.add(thread);
+                thread.start();
+                started.countDown();
+            }
+            threads.add(thread);
+        }
+        for(Thread thread : threads)thread.join(TimeUnit.SECONDS.toMillis(10));
+        for(Thread thread : threads)assertFalse("a caller never returned" , thread.isAlive());
+        assertEquals(0 , flight.size());
+        return results;
+    }
+
+    @Test
+    public void joinersShareTheValue() throws Exception{
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReferenceArray<Object> results = race(calls , () -> "value");
+        assertEquals(1 , calls.get());
+        for(int i = 0 ; i <= JOINERS ; i++)assertEquals("value copy" , results.get(i));
+    }
+
+    @Test
+    public void theLeaderCanModifyItsValueWhileJoinersCopyIt() throws Exception{
+        ArrayList<Integer> shared = new ArrayList<>();
+        for(int i = 0 ; i < 100000 ; i++)shared.add(i);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReferenceArray<Object> results = race(calls , () -> shared , ArrayList::new , value -> {
+            if(Thread.currentThread().getName().equals("leader"))value.clear();
+            return value;
+        });
+        assertEquals(1 , calls.get());
+        assertEquals(100000 , shared.size());
+        assertTrue(((List<?>) results.get(0)).isEmpty());
+        for(int i = 1 ; i <= JOINERS ; i++){
+            assertEquals(shared , results.get(i));
+            assertFalse(results.get(i) == shared);
+        }
+    }
+
+    @Test
+    public void joinersShareTheFailure() throws Exception{
+        InternalServerError error = new InternalServerError();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReferenceArray<Object> results = race(calls , () -> {
+            throw error;
+        });
+        assertEquals(1 , calls.get());
+        for(int i = 0 ; i <= JOINERS ; i++)assertSame(error , results.get(i));
+    }
+
+    @Test
+    public void joinersGetTheLeaderError() throws Exception{
+        AssertionError error = new AssertionError("boom");
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReferenceArray<Object> results = race(calls , () -> {
+            throw error;
+        });
+        assertEquals(1 , calls.get());
+        for(int i = 0 ; i <= JOINERS ; i++)assertSame(error , results.get(i));
+    }
+
+    @Test
+    public void completedCallsAreNotCached() throws Exception{
+        SingleFlight<String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlight.Call<String> call = () -> "value" + calls.incrementAndGet();
+        assertEquals("value1" , flight.execute("key" , call , value -> value));
+        assertEquals("value2" , flight.execute("key" , call , value -> value));
+        assertEquals(0 , flight.size());
+    }
+
+    @Test
+    public void asyncJoinersShareTheValue() throws Exception{
+        SingleFlight<String> flight = new SingleFlight<>();
+        CompletableFuture<String> response = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> leader = flight.executeAsync("key" , () -> {
+            calls.incrementAndGet();
+            return response;
+        } , value -> value + " copy");
+        CompletableFuture<String> joiner = flight.executeAsync("key" , () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>();
+        } , value -> value + " copy");
+        assertEquals(1 , flight.size());
+        response.complete("value");
+        assertEquals("value copy" , leader.get(10 , TimeUnit.SECONDS));
+        assertEquals("value copy" , joiner.get(10 , TimeUnit.SECONDS));
+        assertEquals(1 , calls.get());
+        assertEquals(0 , flight.size());
+    }
+
+    @Test
+    public void asyncStartFailureReleasesTheKey() throws Exception{
+        SingleFlight<String> flight = new SingleFlight<>();
+        AssertionError error = new AssertionError("boom");
+        CompletableFuture<String> failed = flight.executeAsync("key" , () -> {
+            throw error;
+        } , value -> value);
+        try {
+            failed.get(10 , TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(error , e.getCause());
+        }
+        assertEquals(0 , flight.size());
+        assertEquals("value" , flight.executeAsync("key" , () -> CompletableFuture.completedFuture("value") , value -> value)
+                .get(10 , TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void asyncFailureIsUnwrapped() throws Exception{
+        SingleFlight<String> flight = new SingleFlight<>();
+        JVultrException error = new InternalServerError();
+        CompletableFuture<String> failed = flight.executeAsync("key" ,
+                () -> CompletableFuture.supplyAsync(() -> {
+                    throw new CompletionException(error);
+                }) , value -> value);
+        try {
+            failed.get(10 , TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(error , e.getCause());
+        }
+        assertTrue(failed.isCompletedExceptionally());
+    }
+}
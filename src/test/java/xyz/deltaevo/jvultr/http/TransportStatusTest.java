@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.exception.InvalidAPIKey;
+import xyz.deltaevo.jvultr.exception.JVultrException;
+import xyz.deltaevo.jvultr.exception.RequestFailed;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the response status handling shared by URLConnectionTransport and HttpClientTransport
+ * @author DeltaEvolution
+ */
+public class TransportStatusTest {
+    private HttpServer server;
+    private String base;
+
+    @Before
+    public void setUp() throws IOException{
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress() , 0) , 0);
+        server.createContext("/" , exchange -> {
+            int code = Integer.parseInt(exchange.getRequestURI().getPath().substring(1));
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code , body.length);
+            try(OutputStream out = exchange.getResponseBody()){
+                out.write(body);
+            }
+        });
+        server.start();
+        base = "http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort() + '/';
+    }
+
+    @After
+    public void tearDown(){
+        server.stop(0);
+    }
+
+    private JVultrException failure(JVultrTransport transport , int code){
+        try {
+            transport.execute(JVultrRequest.get(base + code , null));
+        } catch (JVultrException e) {
+            return e;
+        }
+        fail("status " + code + " didn't fail");
+        return null;
+    }
+
+    @Test
+    public void undocumentedStatusIsTheSameFailureOnBothTransports() throws InterruptedException{
+        RetryPolicy policy = new RetryPolicy();
+        JVultrRequest request = JVultrRequest.get(base + 404 , null);
+        JVultrException urlConnection = failure(new URLConnectionTransport() , 404);
+        JVultrException httpClient = failure(new HttpClientTransport() , 404);
+        assertTrue(urlConnection instanceof RequestFailed);
+        assertTrue(httpClient instanceof RequestFailed);
+        assertTrue(urlConnection.getCause() instanceof IOException);
+        assertTrue(httpClient.getCause() instanceof IOException);
+        assertEquals(policy.isRetryable(request , urlConnection) , policy.isRetryable(request , httpClient));
+
+        try {
+            new HttpClientTransport().executeAsync(request).get();
+            fail("status 404 didn't fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestFailed);
+            assertNotNull(e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void documentedStatusIsMappedOnBothTransports(){
+        assertTrue(failure(new URLConnectionTransport() , 403) instanceof InvalidAPIKey);
+        assertTrue(failure(new HttpClientTransport() , 403) instanceof InvalidAPIKey);
+    }
+
+    @Test
+    public void successIsReadOnBothTransports() throws JVultrException{
+        assertEquals("{}" , new URLConnectionTransport().execute(JVultrRequest.get(base + 200 , null)));
+        assertEquals("{}" , new HttpClientTransport().execute(JVultrRequest.get(base + 200 , null)));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of AvailabilityMatrix
+ * @author DeltaEvolution
+ */
+public class AvailabilityMatrixTest {
+    // more than 64 plans and regions, so rows and columns span several words with a partial last one
+    private final Random random = new Random(11);
+    private final IntMap<JVultrRegion> regions = TestCatalog.regions(70);
+    private final IntMap<JVultrPlan> plans = TestCatalog.plans(random , 150 , regions);
+    private final AvailabilityMatrix matrix = new AvailabilityMatrix(plans , regions);
+
+    @Test
+    public void availabilityMatchesPlans(){
+        assertEquals(150 , matrix.planCount());
+        assertEquals(70 , matrix.regionCount());
+        assertSame(plans , matrix.getPlans());
+        assertSame(regions , matrix.getRegions());
+        for(JVultrPlan plan : plans.values()){
+            for(int region = 0 ; region <= 71 ; region++)
+                assertEquals(TestCatalog.availableIn(plan , region) , matrix.isAvailable(plan.getId() , region));
+        }
+        assertFalse(matrix.isAvailable(1 , 1));
+    }
+
+    @Test
+    public void regionQueriesMatchBruteForce(){
+        for(int q = 0 ; q < 200 ; q++){
+            int[] planIds = randomIds(100 , 251);
+            List<JVultrRegion> any = new ArrayList<>() , all = new ArrayList<>();
+            for(JVultrRegion region : sorted(regions.values() , JVultrRegion::getId)){
+                boolean inAny = false , inAll = planIds.length > 0;
+                for(int id : planIds){
+                    JVultrPlan plan = plans.get(id);
+                    boolean available = plan != null && TestCatalog.availableIn(plan , region.getId());
+                    inAny |= available;
+                    inAll &= available;
+                }
+                if(inAny)any.add(region);
+                if(inAll)all.add(region);
+            }
+            assertEquals(any , matrix.regionsForAny(planIds));
+            assertEquals(all , matrix.regionsForAll(planIds));
+            assertEquals(any.size() , matrix.regionMask(planIds).cardinality());
+        }
+    }
+
+    @Test
+    public void planQueriesMatchBruteForce(){
+        for(int q = 0 ; q < 200 ; q++){
+            int[] regionIds = randomIds(0 , 72);
+            List<JVultrPlan> any = new ArrayList<>() , all = new ArrayList<>();
+            for(JVultrPlan plan : sorted(plans.values() , JVultrPlan::getId)){
+                boolean inAny = false , inAll = regionIds.length > 0;
+                for(int id : regionIds){
+                    boolean available = TestCatalog.availableIn(plan , id);
+                    inAny |= available;
+                    inAll &= available;
+                }
+                if(inAny)any.add(plan);
+                if(inAll)all.add(plan);
+            }
+            assertEquals(any , matrix.plansInAny(regionIds));
+            assertEquals(all , matrix.plansInAll(regionIds));
+            BitSet mask = matrix.planMask(regionIds);
+            assertEquals(any.size() , mask.cardinality());
+            for(int p = mask.nextSetBit(0) ; p >= 0 ; p = mask.nextSetBit(p + 1))assertTrue(any.contains(matrix.plan(p)));
+        }
+    }
+
+    @Test
+    public void regionsForAnyPlans(){
+        List<JVultrPlan> some = new ArrayList<>(plans.values()).subList(0 , 5);
+        int[] ids = new int[some.size()];
+        for(int i = 0 ; i < ids.length ; i++)ids[i] = some.get(i).getId();
+        assertEquals(matrix.regionsForAny(ids) , matrix.regionsForAny(some));
+        for(int r = 0 ; r < matrix.regionCount() ; r++)assertEquals(r + 1 , matrix.region(r).getId());
+    }
+
+    private int[] randomIds(int from , int to){
+        int[] ids = new int[random.nextInt(4)];
+        for(int i = 0 ; i < ids.length ; i++)ids[i] = from + random.nextInt(to - from);
+        return ids;
+    }
+
+    private static <T> List<T> sorted(Collection<T> values , ToIntFunction<T> id){
+        List<T> list = new ArrayList<>(values);
+        list.sort(Comparator.comparingInt(id));
+        return list;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import xyz.deltaevo.jvultr.JVultrCache;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+import xyz.deltaevo.jvultr.api.JVultrServer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of FleetSnapshot
+ * @author DeltaEvolution
+ */
+public class FleetSnapshotTest {
+    private static final double DELTA = 1e-3;
+    private static final String[] STATUSES = {"pending" , "active"};
+    private static final String[] POWER_STATUSES = {"stopped" , "running"};
+    private static final String[] SERVER_STATES = {"locked" , "none" , "ok"};
+
+    private static IntMap<JVultrRegion> regions;
+    private static IntMap<JVultrPlan> plans;
+
+    @BeforeClass
+    public static void cacheCatalog(){
+        regions = TestCatalog.regions(5);
+        plans = TestCatalog.plans(new Random(9) , 8 , regions);
+        JVultrCache.setCachedRegions(regions);
+        JVultrCache.setCachedPlans(plans);
+    }
+
+    /**
+     * Build random servers, some fields are left out so their columns hold nulls
+     */
+    private static List<JVultrServer> servers(Random random , int count) throws IOException{
+        List<JVultrServer> servers = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        for(int i = 0 ; i < count ; i++)ids.add(i * 3 + 1);
+        Collections.shuffle(ids , random);
+        for(int id : ids){
+            StringBuilder json = new StringBuilder("{\"SUBID\":\"").append(id).append('"')
+                    .append(",\"vcpu_count\":\"").append(1 + random.nextInt(8)).append('"')
+                    .append(",\"cost_per_month\":\"").append(random.nextInt(8000) / 100f).append('"')
+                    .append(",\"pending_charges\":\"").append(random.nextInt(1000) / 100f).append('"')
+                    .append(",\"current_bandwidth_gb\":").append(random.nextInt(50000) / 100f)
+                    .append(",\"allowed_bandwidth_gb\":\"").append(random.nextInt(4) * 1000).append('"');
+            if(random.nextInt(8) > 0)json.append(",\"status\":\"").append(STATUSES[random.nextInt(STATUSES.length)]).append('"');
+            if(random.nextInt(8) > 0)json.append(",\"power_status\":\"").append(POWER_STATUSES[random.nextInt(POWER_STATUSES.length)]).append('"');
+            if(random.nextInt(8) > 0)json.append(",\"server_state\":\"").append(SERVER_STATES[random.nextInt(SERVER_STATES.length)]).append('"');
+            if(random.nextInt(8) > 0)json.append(",\"DCID\":\"").append(1 + random.nextInt(4)).append('"');
+            if(random.nextInt(8) > 0)json.append(",\"VPSPLANID\":\"").append(100 + random.nextInt(8)).append('"');
+            if(random.nextInt(8) > 0){
+                json.append(",\"date_created\":\"").append(String.format("2015-%02d-%02d 12:00:00" ,
+                        1 + random.nextInt(12) , 1 + random.nextInt(28))).append('"');
+            }
+            servers.add(JVultrServer.BINDER.read(new JsonReader(new StringReader(json.append('}').toString()))));
+        }
+        return servers;
+    }
+
+    @Test
+    public void aggregatesMatchServers() throws Exception{
+        List<JVultrServer> servers = servers(new Random(1) , 500);
+        FleetSnapshot snapshot = new FleetSnapshot(servers);
+        assertEquals(servers.size() , snapshot.size());
+
+        long vcpus = 0;
+        double cost = 0 , pending = 0 , current = 0 , allowed = 0;
+        int[] statuses = new int[JVultrServer.Status.values().length];
+        int[] powerStatuses = new int[JVultrServer.PowerStatus.values().length];
+        int[] serverStates = new int[JVultrServer.ServerState.values().length];
+        Map<Integer , Double> costByRegion = new HashMap<>();
+        Map<Integer , Integer> countByPlan = new HashMap<>();
+        for(JVultrServer server : servers){
+            vcpus += server.getVcpusCount();
+            cost += server.getCostPerMonth();
+            pending += server.getPendingCharges();
+            current += server.getCurrentBandwidth();
+            allowed += server.getAllowedBandwidth();
+            if(server.getStatus() != null)statuses[server.getStatus().ordinal()]++;
+            if(server.getPowerStatus() != null)powerStatuses[server.getPowerStatus().ordinal()]++;
+            if(server.getServerState() != null)serverStates[server.getServerState().ordinal()]++;
+            if(server.getRegion() != null)costByRegion.merge(server.getRegion().getId() , (double) server.getCostPerMonth() , Double::sum);
+            if(server.getPlan() != null)countByPlan.merge(server.getPlan().getId() , 1 , Integer::sum);
+        }
+        assertEquals(vcpus , snapshot.totalVcpus());
+        assertEquals(cost , snapshot.totalCostPerMonth() , DELTA);
+        assertEquals(pending , snapshot.totalPendingCharges() , DELTA);
+        assertEquals(current , snapshot.totalCurrentBandwidth() , DELTA);
+        assertEquals(allowed , snapshot.totalAllowedBandwidth() , DELTA);
+        assertEquals(current / allowed , snapshot.bandwidthUtilization() , 1e-9);
+        assertArrayEquals(statuses , snapshot.countByStatus());
+        assertArrayEquals(powerStatuses , snapshot.countByPowerStatus());
+        assertArrayEquals(serverStates , snapshot.countByServerState());
+
+        assertEquals(costByRegion.size() , snapshot.regionCount());
+        double[] costs = snapshot.costPerMonthByRegion();
+        for(int code = 0 ; code < snapshot.regionCount() ; code++)
+            assertEquals(costByRegion.get(snapshot.region(code).getId()) , costs[code] , DELTA);
+        assertEquals(countByPlan.size() , snapshot.planCount());
+        int[] plansCount = snapshot.countByPlan();
+        for(int code = 0 ; code < snapshot.planCount() ; code++)
+            assertEquals((int) countByPlan.get(snapshot.plan(code).getId()) , plansCount[code]);
+    }
+
+    @Test
+    public void rowsAreSortedById() throws Exception{
+        List<JVultrServer> servers = servers(new Random(2) , 100);
+        FleetSnapshot snapshot = new FleetSnapshot(servers);
+        for(int row = 1 ; row < snapshot.size() ; row++)assertTrue(snapshot.id(row - 1) < snapshot.id(row));
+        for(JVultrServer server : servers){
+            int row = snapshot.row(server.getId());
+            assertSame(server , snapshot.server(row));
+            int region = snapshot.regionCode(row);
+            if(server.getRegion() == null)assertEquals(-1 , region);
+            else assertSame(server.getRegion() , snapshot.region(region));
+            int plan = snapshot.planCode(row);
+            if(server.getPlan() == null)assertEquals(-1 , plan);
+            else assertSame(server.getPlan() , snapshot.plan(plan));
+        }
+        assertTrue(snapshot.row(2) < 0);
+    }
+
+    @Test
+    public void selectionsMatchServers() throws Exception{
+        List<JVultrServer> servers = servers(new Random(3) , 300);
+        FleetSnapshot snapshot = new FleetSnapshot(servers);
+        BitSet active = snapshot.select(JVultrServer.Status.ACTIVE);
+        BitSet running = snapshot.select(JVultrServer.PowerStatus.RUNNING);
+        BitSet ok = snapshot.select(JVultrServer.ServerState.OK);
+        BitSet inRegion = snapshot.selectRegion(2);
+        long from = JVultrDates.parseMillis("2015-03-01 00:00:00") , to = JVultrDates.parseMillis("2015-06-01 00:00:00");
+        BitSet created = snapshot.selectCreated(from , to);
+        double activeCost = 0;
+        for(int row = 0 ; row < snapshot.size() ; row++){
+            JVultrServer server = snapshot.server(row);
+            assertEquals(server.getStatus() == JVultrServer.Status.ACTIVE , active.get(row));
+            assertEquals(server.getPowerStatus() == JVultrServer.PowerStatus.RUNNING , running.get(row));
+            assertEquals(server.getServerState() == JVultrServer.ServerState.OK , ok.get(row));
+            assertEquals(server.getRegion() != null && server.getRegion().getId() == 2 , inRegion.get(row));
+            long millis = server.getCreatedMillis();
+            assertEquals(millis != Long.MIN_VALUE && millis >= from && millis < to , created.get(row));
+            if(active.get(row))activeCost += server.getCostPerMonth();
+        }
+        assertEquals(activeCost , snapshot.totalCostPerMonth(active) , DELTA);
+        assertTrue(snapshot.selectRegion(42).isEmpty());
+
+        int[][] byRegion = snapshot.statusCountByRegion();
+        for(int code = 0 ; code < snapshot.regionCount() ; code++){
+            int regionId = snapshot.region(code).getId();
+            for(JVultrServer.Status status : JVultrServer.Status.values()){
+                int count = 0;
+                for(JVultrServer server : servers)
+                    if(server.getRegion() != null && server.getRegion().getId() == regionId && server.getStatus() == status)count++;
+                assertEquals(count , byRegion[code][status.ordinal()]);
+            }
+        }
+    }
+
+    @Test
+    public void emptyFleet(){
+        FleetSnapshot snapshot = new FleetSnapshot(Collections.<JVultrServer>emptyList());
+        assertEquals(0 , snapshot.size());
+        assertEquals(0 , snapshot.bandwidthUtilization() , 0);
+        assertEquals(0 , snapshot.countByPlan().length);
+    }
+}
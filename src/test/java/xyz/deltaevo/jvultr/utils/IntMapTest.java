@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of IntMap
+ * @author DeltaEvolution
+ */
+public class IntMapTest {
+
+    @Test
+    public void behavesLikeHashMap(){
+        Random random = new Random(42);
+        IntMap<String> map = new IntMap<>();
+        Map<Integer , String> expected = new HashMap<>();
+        for(int i = 0 ; i < 20000 ; i++){
+            // a small key range keeps probe chains long, so removals exercise the backward shift
+            int key = random.nextInt(256) - 128;
+            switch (random.nextInt(3)){
+                case 0:
+                    assertEquals(expected.put(key , "v" + i) , map.put(key , "v" + i));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key) , map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key) , map.get(key));
+                    assertEquals(expected.containsKey(key) , map.containsKey(key));
+            }
+            assertEquals(expected.size() , map.size());
+        }
+        assertEquals(expected , map);
+        assertEquals(map , expected);
+        assertEquals(expected.hashCode() , map.hashCode());
+    }
+
+    @Test
+    public void boxedAccessors(){
+        IntMap<String> map = new IntMap<>();
+        map.put(Integer.valueOf(3) , "three");
+        assertEquals("three" , map.get(Integer.valueOf(3)));
+        assertTrue(map.containsKey(Integer.valueOf(3)));
+        assertNull(map.get("3"));
+        assertFalse(map.containsKey("3"));
+        assertNull(map.remove("3"));
+        assertEquals("three" , map.remove(Integer.valueOf(3)));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void entrySetValueWritesThrough(){
+        IntMap<String> map = new IntMap<>();
+        map.put(1 , "a");
+        map.put(2 , "b");
+        for(Map.Entry<Integer , String> entry : map.entrySet())entry.setValue(entry.getValue().toUpperCase());
+        assertEquals("A" , map.get(1));
+        assertEquals("B" , map.get(2));
+    }
+
+    @Test
+    public void forEachVisitsEveryEntry(){
+        IntMap<String> map = new IntMap<>(2);
+        for(int i = 0 ; i < 100 ; i++)map.put(i * 7 , String.valueOf(i));
+        int[] sum = {0};
+        map.forEach((key , value) -> {
+            assertEquals(key.intValue() , Integer.parseInt(value) * 7);
+            sum[0] += Integer.parseInt(value);
+        });
+        assertEquals(4950 , sum[0]);
+    }
+
+    @Test
+    public void sortedKeys(){
+        IntMap<String> map = new IntMap<>();
+        for(int key : new int[]{42 , -3 , 7 , 0 , 1 << 20})map.put(key , String.valueOf(key));
+        map.remove(7);
+        assertArrayEquals(new int[]{-3 , 0 , 42 , 1 << 20} , map.sortedKeys());
+        assertArrayEquals(new int[0] , IntMap.empty().sortedKeys());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullValues(){
+        new IntMap<String>().put(1 , null);
+    }
+
+    @Test
+    public void copyOfIsImmutableAndReused(){
+        IntMap<String> source = new IntMap<>();
+        source.put(1 , "a");
+        IntMap<String> copy = IntMap.copyOf(source);
+        source.put(2 , "b");
+        assertEquals(1 , copy.size());
+        assertSame(copy , IntMap.copyOf(copy));
+        assertEquals(copy , IntMap.copyOf(new HashMap<>(copy)));
+        try {
+            copy.put(3 , "c");
+            throw new AssertionError("copy is mutable");
+        } catch (UnsupportedOperationException expected) {}
+        try {
+            copy.clear();
+            throw new AssertionError("copy is mutable");
+        } catch (UnsupportedOperationException expected) {}
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void emptyIsImmutable(){
+        assertTrue(IntMap.empty().isEmpty());
+        IntMap.<String>empty().put(1 , "a");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of JVultrDates
+ * @author DeltaEvolution
+ */
+public class JVultrDatesTest {
+
+    private static SimpleDateFormat format(){
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        format.setLenient(false);
+        return format;
+    }
+
+    private static String randomDate(Random random){
+        return String.format("%04d-%02d-%02d %02d:%02d:%02d" , 1970 + random.nextInt(130) , 1 + random.nextInt(12) ,
+                1 + random.nextInt(28) , random.nextInt(24) , random.nextInt(60) , random.nextInt(60));
+    }
+
+    @Test
+    public void matchesSimpleDateFormat() throws ParseException{
+        SimpleDateFormat format = format();
+        Random random = new Random(1);
+        for(int i = 0 ; i < 20000 ; i++){
+            String date = randomDate(random);
+            long expected;
+            try {
+                expected = format.parse(date).getTime();
+            } catch (ParseException e) {
+                // local times skipped by a daylight saving change have no instant, SimpleDateFormat rejects them
+                continue;
+            }
+            assertEquals(date , expected , JVultrDates.parseMillis(date));
+        }
+        assertEquals(format.parse("2013-12-19 14:45:41") , JVultrDates.parse("2013-12-19 14:45:41"));
+    }
+
+    @Test
+    public void leapDays() throws ParseException{
+        SimpleDateFormat format = format();
+        assertEquals(format.parse("2016-02-29 00:00:00").getTime() , JVultrDates.parseMillis("2016-02-29 00:00:00"));
+        assertEquals(format.parse("2000-02-29 12:00:00").getTime() , JVultrDates.parseMillis("2000-02-29 12:00:00"));
+        assertInvalid("2015-02-29 00:00:00");
+        assertInvalid("1900-02-29 00:00:00");
+        assertInvalid("2015-04-31 00:00:00");
+    }
+
+    @Test
+    public void rejectsInvalidDates(){
+        assertInvalid(null);
+        assertInvalid("");
+        assertInvalid("2013-12-19");
+        assertInvalid("2013-12-19T14:45:41");
+        assertInvalid("2013/12/19 14:45:41");
+        assertInvalid("2013-13-19 14:45:41");
+        assertInvalid("2013-00-19 14:45:41");
+        assertInvalid("2013-12-00 14:45:41");
+        assertInvalid("2013-12-19 24:45:41");
+        assertInvalid("2013-12-19 14:60:41");
+        assertInvalid("2013-12-19 14:45:60");
+        assertInvalid("2013-12-1a 14:45:41");
+        assertInvalid("2013-12-19 14:45:41 ");
+    }
+
+    @Test
+    public void concurrentParsing() throws Exception{
+        List<String> dates = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        Random random = new Random(2);
+        for(int i = 0 ; i < 2000 ; i++){
+            String date = randomDate(random);
+            dates.add(date);
+            expected.add(JVultrDates.parseMillis(date));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0 ; t < 4 ; t++){
+                futures.add(executor.submit(() -> {
+                    for(int round = 0 ; round < 20 ; round++){
+                        for(int i = 0 ; i < dates.size() ; i++)assertEquals((long) expected.get(i) , JVultrDates.parseMillis(dates.get(i)));
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures)future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertInvalid(String date){
+        try {
+            JVultrDates.parseMillis(date);
+            fail(date);
+        } catch (ParseException expected) {}
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of JVultrInet
+ * @author DeltaEvolution
+ */
+public class JVultrInetTest {
+
+    @Test
+    public void ipv4RoundTrip() throws Exception{
+        Random random = new Random(1);
+        for(int i = 0 ; i < 10000 ; i++){
+            int address = random.nextInt();
+            String text = JVultrInet.formatIpv4(address);
+            assertEquals(text , address & 0xFFFFFFFFL , JVultrInet.parseIpv4(text));
+            assertEquals(address , ByteBuffer.wrap(InetAddress.getByName(text).getAddress()).getInt());
+        }
+        assertEquals(0 , JVultrInet.parseIpv4("0.0.0.0"));
+        assertEquals(0xFFFFFFFFL , JVultrInet.parseIpv4("255.255.255.255"));
+    }
+
+    @Test
+    public void ipv4RejectsNonCanonical(){
+        for(String value : new String[]{null , "" , "1.2.3" , "1.2.3.4.5" , "256.0.0.1" , "01.2.3.4" , "1.2.3.04" ,
+                "1..3.4" , ".1.2.3" , "1.2.3." , "a.b.c.d" , " 1.2.3.4" , "1.2.3.4 " , "1111.2.3.4"})
+            assertEquals(String.valueOf(value) , -1 , JVultrInet.parseIpv4(value));
+    }
+
+    @Test
+    public void ipv6CanonicalForms(){
+        assertFormat("::" , 0 , 0);
+        assertFormat("::1" , 0 , 1);
+        assertFormat("1::" , 0x0001000000000000L , 0);
+        assertFormat("2001:db8::1" , 0x20010db800000000L , 1);
+        // a single zero group is not compressed
+        assertFormat("2001:db8:0:1:1:1:1:1" , 0x20010db800000001L , 0x0001000100010001L);
+        // the longest run is compressed, the first one on ties
+        assertFormat("2001:0:0:1::1" , 0x2001000000000001L , 1);
+        assertFormat("2001:db8::1:0:0:1" , 0x20010db800000000L , 0x0001000000000001L);
+        assertFormat("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff" , -1 , -1);
+    }
+
+    @Test
+    public void ipv6RoundTrip() throws Exception{
+        Random random = new Random(2);
+        long[] parsed = new long[2];
+        for(int i = 0 ; i < 10000 ; i++){
+            // zero some groups so every compression case shows up
+            long high = zeroGroups(random , random.nextLong()) , low = zeroGroups(random , random.nextLong());
+            String text = JVultrInet.formatIpv6(high , low);
+            assertTrue(text , JVultrInet.parseIpv6(text , parsed));
+            assertEquals(text , high , parsed[0]);
+            assertEquals(text , low , parsed[1]);
+            ByteBuffer bytes = ByteBuffer.wrap(InetAddress.getByName(text).getAddress());
+            assertEquals(text , high , bytes.getLong());
+            assertEquals(text , low , bytes.getLong());
+        }
+    }
+
+    @Test
+    public void ipv6RejectsNonCanonical(){
+        long[] parsed = new long[2];
+        for(String value : new String[]{null , "" , ":" , ":::" , "1:2:3:4:5:6:7:8:9" , "1:2:3:4:5:6:7" , "2001:DB8::1" ,
+                "2001:0db8::1" , "2001:db8:0:0:0:0:0:1" , "2001::db8::1" , "::0:1" , "1:0::1" , "2001:db8::1:" ,
+                ":2001:db8::1" , "::ffff:1.2.3.4" , "12345::1" , "g::1"})
+            assertFalse(String.valueOf(value) , JVultrInet.parseIpv6(value , parsed));
+    }
+
+    private static void assertFormat(String text , long high , long low){
+        assertEquals(text , JVultrInet.formatIpv6(high , low));
+        long[] parsed = new long[2];
+        assertTrue(text , JVultrInet.parseIpv6(text , parsed));
+        assertEquals(high , parsed[0]);
+        assertEquals(low , parsed[1]);
+    }
+
+    private static long zeroGroups(Random random , long bits){
+        for(int g = 0 ; g < 4 ; g++)if(random.nextBoolean())bits &= ~(0xFFFFL << (g * 16));
+        return bits;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of PlacementSolver
+ * @author DeltaEvolution
+ */
+public class PlacementSolverTest {
+    private static final JVultrRegion.Continent[] CONTINENTS = JVultrRegion.Continent.values();
+
+    private final Random random = new Random(5);
+    private final IntMap<JVultrRegion> regions = new IntMap<>();
+    private final IntMap<JVultrPlan> plans;
+    private final PlacementSolver solver;
+
+    public PlacementSolverTest() {
+        for(int id = 1 ; id <= 70 ; id++){
+            JVultrRegion.Continent continent = id % 7 == 0 ? null : CONTINENTS[id % CONTINENTS.length];
+            regions.put(id , new JVultrRegion(id , "region" + id , null , continent , null , false));
+        }
+        plans = TestCatalog.plans(random , 120 , regions);
+        solver = new PlacementSolver(new PlanIndex(plans) , new AvailabilityMatrix(plans , regions));
+    }
+
+    @Test
+    public void placementsMatchBruteForce(){
+        for(int q = 0 ; q < 300 ; q++){
+            PlacementSolver.Requirements requirements = new PlacementSolver.Requirements();
+            int cpus = random.nextInt(5) , ram = random.nextBoolean() ? 0 : 512 << random.nextInt(5);
+            float maxPrice = random.nextBoolean() ? Float.POSITIVE_INFINITY : 5 + random.nextInt(50);
+            requirements.cpus(cpus).ram(ram).maxPrice(maxPrice);
+            JVultrPlan.Type[] types = null;
+            int[] regionIds = null;
+            JVultrRegion.Continent[] continents = null;
+            if(random.nextInt(3) == 0)requirements.types(types = new JVultrPlan.Type[]{JVultrPlan.Type.values()[random.nextInt(3)]});
+            if(random.nextInt(3) == 0)requirements.regions(regionIds = new int[]{1 + random.nextInt(72) , 1 + random.nextInt(72)});
+            if(random.nextInt(3) == 0)requirements.continents(continents = new JVultrRegion.Continent[]{CONTINENTS[random.nextInt(CONTINENTS.length)]});
+
+            List<BiValue<JVultrPlan , JVultrRegion>> expected = new ArrayList<>();
+            for(JVultrPlan plan : plans.values()){
+                if(plan.getCpus() < cpus || plan.getRam() < ram || plan.getPricePerMonth() > maxPrice)continue;
+                if(types != null && !Arrays.asList(types).contains(plan.getType()))continue;
+                for(JVultrRegion region : plan.getAvailableRegions()){
+                    boolean listed = regionIds != null && (regionIds[0] == region.getId() || regionIds[1] == region.getId());
+                    boolean inContinent = continents != null && region.getContinent() == continents[0];
+                    if((regionIds != null || continents != null) && !listed && !inContinent)continue;
+                    expected.add(new BiValue<>(plan , region));
+                }
+            }
+            expected.sort(Comparator.<BiValue<JVultrPlan , JVultrRegion>>comparingDouble(p -> p.getFirst().getPricePerMonth())
+                    .thenComparingInt(p -> p.getFirst().getId()).thenComparingInt(p -> p.getSecond().getId()));
+
+            int limit = 1 + random.nextInt(20);
+            List<BiValue<JVultrPlan , JVultrRegion>> actual = solver.solve(requirements , limit);
+            assertEquals(Math.min(limit , expected.size()) , actual.size());
+            for(int i = 0 ; i < actual.size() ; i++){
+                assertSame(expected.get(i).getFirst() , actual.get(i).getFirst());
+                assertSame(expected.get(i).getSecond() , actual.get(i).getSecond());
+            }
+            BiValue<JVultrPlan , JVultrRegion> cheapest = solver.cheapest(requirements);
+            if(expected.isEmpty())assertNull(cheapest);
+            else assertSame(expected.get(0).getSecond() , cheapest.getSecond());
+        }
+    }
+
+    @Test
+    public void batchKeepsOrder(){
+        PlacementSolver.Requirements small = new PlacementSolver.Requirements().ram(512);
+        PlacementSolver.Requirements impossible = new PlacementSolver.Requirements().ram(1 << 20);
+        List<List<BiValue<JVultrPlan , JVultrRegion>>> results = solver.solve(Arrays.asList(impossible , small) , 3);
+        assertEquals(Collections.emptyList() , results.get(0));
+        assertEquals(3 , results.get(1).size());
+        assertEquals(0 , solver.solve(small , 0).size());
+    }
+}
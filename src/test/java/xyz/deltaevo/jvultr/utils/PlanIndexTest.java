@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of PlanIndex and the JVultrUtil plan search
+ * @author DeltaEvolution
+ */
+public class PlanIndexTest {
+
+    @Test
+    public void queriesMatchBruteForce(){
+        Random random = new Random(7);
+        IntMap<JVultrRegion> regions = TestCatalog.regions(6);
+        IntMap<JVultrPlan> plans = TestCatalog.plans(random , 200 , regions);
+        PlanIndex index = new PlanIndex(plans);
+        assertEquals(200 , index.size());
+        assertSame(plans , index.getPlans());
+        for(int q = 0 ; q < 500 ; q++){
+            PlanIndex.Query query = index.query();
+            List<Predicate<JVultrPlan>> filters = new ArrayList<>();
+            if(random.nextBoolean()){
+                int min = 512 << random.nextInt(4) , max = min << random.nextInt(3);
+                query.ram(min , max);
+                filters.add(plan -> plan.getRam() >= min && plan.getRam() <= max);
+            }
+            if(random.nextBoolean()){
+                int min = 1 + random.nextInt(4) , max = min + random.nextInt(2);
+                query.cpus(min , max);
+                filters.add(plan -> plan.getCpus() >= min && plan.getCpus() <= max);
+            }
+            if(random.nextBoolean()){
+                int min = 10 * random.nextInt(6);
+                query.disk(min , Integer.MAX_VALUE);
+                filters.add(plan -> plan.getDisk() >= min);
+            }
+            if(random.nextBoolean()){
+                float max = 5 + random.nextInt(60);
+                query.price(0 , max);
+                filters.add(plan -> plan.getPricePerMonth() <= max);
+            }
+            if(random.nextBoolean()){
+                float min = 500 * random.nextInt(5);
+                query.bandwidth(min , Float.MAX_VALUE);
+                filters.add(plan -> plan.getBandwidth() >= min);
+            }
+            if(random.nextBoolean()){
+                JVultrPlan.Type type = JVultrPlan.Type.values()[random.nextInt(JVultrPlan.Type.values().length)];
+                query.type(type);
+                filters.add(plan -> plan.getType() == type);
+            }
+            if(random.nextBoolean()){
+                int region = 1 + random.nextInt(7);
+                if(random.nextBoolean())query.region(region);
+                else query.region("region" + region);
+                filters.add(plan -> TestCatalog.availableIn(plan , region));
+            }
+            List<JVultrPlan> expected = new ArrayList<>();
+            for(JVultrPlan plan : plans.values()){
+                boolean matches = true;
+                for(Predicate<JVultrPlan> filter : filters)matches &= filter.test(plan);
+                if(matches)expected.add(plan);
+            }
+            expected.sort(Comparator.comparingDouble(JVultrPlan::getPricePerMonth).thenComparingInt(JVultrPlan::getId));
+            assertEquals(expected , query.list());
+            assertEquals(expected.size() , query.count());
+            assertSame(expected.isEmpty() ? null : expected.get(0) , query.cheapest());
+        }
+    }
+
+    @Test
+    public void narrowingRangesIntersect(){
+        IntMap<JVultrPlan> plans = TestCatalog.plans(new Random(3) , 50 , TestCatalog.regions(2));
+        PlanIndex index = new PlanIndex(plans);
+        assertEquals(index.query().ram(1024 , 2048).list() , index.query().ram(512 , 2048).ram(1024 , 4096).list());
+        assertEquals(0 , index.query().ram(4096 , 1024).count());
+    }
+
+    @Test
+    public void emptyCatalog(){
+        PlanIndex index = new PlanIndex(Collections.emptyMap());
+        assertEquals(0 , index.query().count());
+        assertNull(index.query().ram(0 , 100).cheapest());
+    }
+
+    @Test
+    public void searchPlanFindsCheapestInRegion(){
+        JVultrRegion paris = new JVultrRegion(1 , "Paris" , null , null , null , false);
+        JVultrRegion tokyo = new JVultrRegion(2 , "Tokyo" , null , null , null , false);
+        IntMap<JVultrPlan> plans = new IntMap<>();
+        plans.put(1 , new JVultrPlan(1 , "a" , 1 , 1024 , 20 , 1000 , 10 , false , JVultrPlan.Type.SSD , new JVultrRegion[]{paris , tokyo}));
+        plans.put(2 , new JVultrPlan(2 , "b" , 1 , 1024 , 20 , 1000 , 5 , false , JVultrPlan.Type.SSD , new JVultrRegion[]{tokyo}));
+        plans.put(3 , new JVultrPlan(3 , "c" , 1 , 2048 , 20 , 1000 , 1 , false , JVultrPlan.Type.SSD , new JVultrRegion[]{paris}));
+        PlanIndex index = new PlanIndex(plans);
+        BiValue<JVultrPlan , JVultrRegion> found = JVultrUtil.searchPlan(index , "Paris" , 1024);
+        assertSame(plans.get(1) , found.getFirst());
+        assertSame(paris , found.getSecond());
+        assertSame(plans.get(2) , JVultrUtil.searchPlan(index , "Tokyo" , 1024).getFirst());
+        assertNull(JVultrUtil.searchPlan(index , "Tokyo" , 2048));
+        assertNull(JVultrUtil.searchPlan(index , "Berlin" , 1024));
+    }
+}
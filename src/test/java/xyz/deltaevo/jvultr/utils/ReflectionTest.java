@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of Reflection
+ * @author DeltaEvolution
+ */
+public class ReflectionTest {
+
+    @SuppressWarnings("unused")
+    private static final class Sample {
+        private static final String CONSTANT = "skipped";
+        private final int id;
+        private final String name;
+        private final Object[] tags;
+
+        private Sample(int id , String name , Object[] tags) {
+            this.id = id;
+            this.name = name;
+            this.tags = tags;
+        }
+    }
+
+    @Test
+    public void printsInstanceFields(){
+        assertEquals("id:1,name:one,tags:[a, 2]" , Reflection.toString(new Sample(1 , "one" , new Object[]{"a" , 2})));
+        assertEquals("id:2,name:null,tags:null" , Reflection.toString(new Sample(2 , null , null)));
+    }
+
+    @Test
+    public void objectWithoutFields(){
+        assertEquals("" , Reflection.toString(new Object()));
+    }
+
+    @Test
+    public void concurrentCalls() throws Exception{
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0 ; t < 4 ; t++){
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for(int i = 0 ; i < 1000 ; i++)
+                        assertEquals("id:" + i + ",name:" + thread + ",tags:[]" , Reflection.toString(new Sample(i , String.valueOf(thread) , new Object[0])));
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures)future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of StringTable
+ * @author DeltaEvolution
+ */
+public class StringTableTest {
+
+    @Test
+    public void equalStringsShareAnInstance(){
+        StringTable table = new StringTable(16);
+        String first = new String("CentOS 6 x64");
+        assertSame(first , table.intern(first));
+        assertSame(first , table.intern(new String("CentOS 6 x64")));
+        assertNull(table.intern(null));
+        assertEquals(1 , table.size());
+        table.clear();
+        assertEquals(0 , table.size());
+    }
+
+    @Test
+    public void stopsGrowingAtCapacity(){
+        StringTable table = new StringTable(2);
+        table.intern("a");
+        table.intern("b");
+        String c = new String("c");
+        assertSame(c , table.intern(c));
+        assertNotSame(c , table.intern(new String("c")));
+        assertEquals(2 , table.size());
+        assertSame(table.intern("a") , table.intern(new String("a")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeCapacity(){
+        new StringTable(-1);
+    }
+
+    @Test
+    public void concurrentInternsAgree() throws Exception{
+        int threads = 4;
+        for(int round = 0 ; round < 200 ; round++){
+            StringTable table = new StringTable(64);
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<String[]>> futures = new ArrayList<>();
+                for(int t = 0 ; t < threads ; t++){
+                    futures.add(executor.submit(() -> {
+                        barrier.await();
+                        String[] shared = new String[32];
+                        for(int i = 0 ; i < shared.length ; i++)shared[i] = table.intern(new String("value" + i));
+                        return shared;
+                    }));
+                }
+                String[] expected = futures.get(0).get();
+                for(Future<String[]> future : futures){
+                    String[] shared = future.get();
+                    for(int i = 0 ; i < shared.length ; i++)assertSame(expected[i] , shared[i]);
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
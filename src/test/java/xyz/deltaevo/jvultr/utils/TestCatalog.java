@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 DeltaEvolution
+ *
+ * This file is part of JVultr.
+ * JVultr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JVultr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JVultr. If not, see <http://www.gnu.org/licenses/>.
+ */
+package xyz.deltaevo.jvultr.utils;
+
+import xyz.deltaevo.jvultr.api.JVultrPlan;
+import xyz.deltaevo.jvultr.api.JVultrRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Build random catalogs for the catalog index tests
+ * @author DeltaEvolution
+ */
+final class TestCatalog {
+    private static final int[] RAMS = {512 , 1024 , 2048 , 4096 , 8192};
+    private static final float[] PRICES = {2.5f , 5 , 10 , 20 , 40 , 80};
+
+    private TestCatalog() {}
+
+    /**
+     * Build regions with ids 1 to count, named "region" + id
+     * @param count amount of regions
+     * @return regions by id
+     */
+    static IntMap<JVultrRegion> regions(int count){
+        IntMap<JVultrRegion> regions = new IntMap<>(count);
+        for(int id = 1 ; id <= count ; id++)regions.put(id , region(id));
+        return regions;
+    }
+
+    static JVultrRegion region(int id){
+        return new JVultrRegion(id , "region" + id , null , JVultrRegion.Continent.EUROPE , null , false);
+    }
+
+    /**
+     * Build random plans with ids 100 to 100 + count - 1, with few distinct attribute values so ranges have ties
+     * @param random random source
+     * @param count amount of plans
+     * @param regions regions a plan may be available in
+     * @return plans by id
+     */
+    static IntMap<JVultrPlan> plans(Random random , int count , IntMap<JVultrRegion> regions){
+        List<JVultrRegion> all = new ArrayList<>(regions.values());
+        IntMap<JVultrPlan> plans = new IntMap<>(count);
+        for(int i = 0 ; i < count ; i++){
+            List<JVultrRegion> available = new ArrayList<>();
+            for(JVultrRegion region : all)if(random.nextInt(3) == 0)available.add(region);
+            JVultrPlan.Type type = JVultrPlan.Type.values()[random.nextInt(JVultrPlan.Type.values().length)];
+            plans.put(100 + i , new JVultrPlan(100 + i , "plan" + i , 1 + random.nextInt(4) , RAMS[random.nextInt(RAMS.length)] ,
+                    10 * (1 + random.nextInt(5)) , 500 * (1 + random.nextInt(4)) , PRICES[random.nextInt(PRICES.length)] ,
+                    false , type , available.toArray(new JVultrRegion[0])));
+        }
+        return plans;
+    }
+
+    static boolean availableIn(JVultrPlan plan , int regionId){
+        for(JVultrRegion region : plan.getAvailableRegions())if(region != null && region.getId() == regionId)return true;
+        return false;
+    }
+}